@@ -0,0 +1,179 @@
+package com.studentbnb.listing_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.ListingAmenity;
+import com.studentbnb.listing_service.entity.ListingPhoto;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of assembled ListingResponse objects keyed by listing id.
+ *
+ * Entries are bounded by an estimate of their heap footprint rather than by
+ * count, expire after a TTL, and are evicted with Caffeine's W-TinyLFU policy,
+ * which keeps the few listings that are being shared around hot. Any
+ * committed ListingChangedEvent drops the entry; view counts are the one
+ * field allowed to lag, by at most the TTL.
+ *
+ * Cached responses are detached copies shared between requests, so callers
+ * must not mutate them. Metrics are published as cache.* meters tagged
+ * cache=listingResponses.
+ */
+@Component
+public class ListingResponseCache {
+
+    public static final String CACHE_NAME = "listingResponses";
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Value("${app.cache.listing-responses.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${app.cache.listing-responses.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, ListingResponse> cache;
+
+    // Bumped on every invalidation of an id in the stripe, so a bulk load can tell it was overtaken
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((Long id, ListingResponse response) -> estimateBytes(response))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    /**
+     * Return the cached response or load it. Concurrent misses for the same
+     * id share a single load; listings that do not exist are not cached.
+     */
+    public Optional<ListingResponse> get(Long listingId, Function<Long, Optional<ListingResponse>> loader) {
+        return Optional.ofNullable(cache.get(listingId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Return the cached responses for these ids, loading all misses with one
+     * call to the loader. Ids the loader does not return are left out and not
+     * cached. Unlike get, the load is not atomic with invalidate, so a loaded
+     * response is only cached if its id was not invalidated since the load
+     * began; otherwise it is returned but the next read loads it again.
+     */
+    public Map<Long, ListingResponse> getAll(Iterable<Long> listingIds,
+                                             Function<Set<? extends Long>, Map<Long, ListingResponse>> loader) {
+        Map<Long, ListingResponse> found = new HashMap<>(cache.getAllPresent(listingIds));
+        Map<Long, Long> missing = new LinkedHashMap<>();
+        for (Long id : listingIds) {
+            if (!found.containsKey(id)) {
+                missing.put(id, generations.get(stripe(id)));
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<Long, ListingResponse> loaded = loader.apply(missing.keySet());
+        missing.forEach((id, generation) -> {
+            ListingResponse response = loaded.get(id);
+            if (response == null) {
+                return;
+            }
+            found.put(id, response);
+            if (generations.get(stripe(id)) != generation) {
+                return;
+            }
+            // An invalidation between the check and the put finds nothing to drop, so look again after it
+            if (cache.asMap().putIfAbsent(id, response) == null && generations.get(stripe(id)) != generation) {
+                cache.asMap().remove(id, response);
+            }
+        });
+        return found;
+    }
+
+    public void invalidate(Long listingId) {
+        generations.incrementAndGet(stripe(listingId));
+        cache.invalidate(listingId);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // Run pending eviction work now instead of on the next cache access
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Drop the entry once the write is committed. A load racing the commit
+     * either finishes first and is removed here, or starts afterwards and
+     * reads the new row.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        invalidate(event.getListingId());
+    }
+
+    // Rough retained size: object headers and scalars plus UTF-16 strings
+    static int estimateBytes(ListingResponse response) {
+        long bytes = 512;
+        bytes += chars(response.getTitle()) + chars(response.getDescription()) + chars(response.getAddress())
+            + chars(response.getCity()) + chars(response.getNearestUniversity())
+            + chars(response.getContactEmail()) + chars(response.getContactPhone());
+
+        if (response.getPhotos() != null) {
+            for (ListingPhoto photo : response.getPhotos()) {
+                bytes += 96 + chars(photo.getPhotoUrl()) + chars(photo.getDescription());
+            }
+        }
+        if (response.getAmenities() != null) {
+            for (ListingAmenity amenity : response.getAmenities()) {
+                bytes += 64 + chars(amenity.getDescription());
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static int stripe(Long listingId) {
+        return Math.floorMod(Long.hashCode(listingId), GENERATION_STRIPES);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
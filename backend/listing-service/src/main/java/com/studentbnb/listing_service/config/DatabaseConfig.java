@@ -1,14 +1,61 @@
 package com.studentbnb.listing_service.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.List;
+
 @Configuration
 @EnableJpaRepositories(basePackages = "com.studentbnb.listing_service.repository")
 @EnableTransactionManagement
+@Slf4j
 public class DatabaseConfig {
-    
-    // Additional DB configuration can be added here if needed
-    // For now, Spring Boot's auto-configuration handles most of the setup
-}
\ No newline at end of file
+
+    // Idempotent scripts, run in order on every start
+    private static final List<String> MIGRATION_SCRIPTS = List.of(
+        "db/id-sequences-postgresql.sql",
+        "db/listing-amenity-mask-postgresql.sql",
+        "db/listing-photo-variants-postgresql.sql",
+        "db/photo-assets-postgresql.sql",
+        "db/photo-cleanup-tasks-postgresql.sql",
+        "db/listing-favorites-feed-postgresql.sql"
+    );
+
+    // Bring existing PostgreSQL tables up to the entity mappings before Hibernate starts
+    @Bean
+    public InitializingBean schemaMigration(DataSource dataSource,
+                                            @Value("${app.schema.migrate:true}") boolean enabled) {
+        return () -> {
+            if (!enabled) {
+                return;
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                    return;
+                }
+            }
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            for (String script : MIGRATION_SCRIPTS) {
+                jdbcTemplate.execute(new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8));
+                log.info("Applied {}", script);
+            }
+        };
+    }
+
+    // Hibernate validates (prod) or updates the schema on startup, so the migrations must run first
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigration");
+    }
+}
@@ -0,0 +1,11 @@
+package com.studentbnb.listing_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Background jobs (view tracking and counter flushes, reconciliation) are declared with @Scheduled on their services
+}
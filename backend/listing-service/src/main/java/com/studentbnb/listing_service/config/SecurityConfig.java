@@ -27,15 +27,18 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints - no authentication required (GET only)
                 .requestMatchers("/api/listings/health", "/api/listings/public/**").permitAll()
-                .requestMatchers("/api/listings/search", "/api/listings/nearby", "/api/listings/university/**").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/uploads/**").permitAll() // Locally stored photos
+                .requestMatchers("/api/listings/search", "/api/listings/search/facets", "/api/listings/autocomplete", "/api/listings/nearby", "/api/listings/available", "/api/listings/university/**").permitAll()
                 .requestMatchers("/api/listings/amenities/types").permitAll() // Public amenity types
                 .requestMatchers("/api/listings/*/preferences/types").permitAll() // Public preference types
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/listings/*/preferences").permitAll() // Public preference view
                 .requestMatchers("/api/listings/{id:[0-9]+}").permitAll() // Public listing view (GET only)
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/listings").permitAll() // Public listing browse
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/listings/trending").permitAll() // Public trending listings
 
                 // Listing creation and management endpoints (both Landlords and Students can create/manage listings)
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/listings").hasAnyRole("LANDLORD", "STUDENT") // Create listing
+                .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/listings/bulk/**").hasAnyRole("LANDLORD", "STUDENT") // Bulk import
                 .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/listings/*").hasAnyRole("LANDLORD", "STUDENT") // Update listing
                 .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/listings/*").hasAnyRole("LANDLORD", "STUDENT") // Delete listing
                 .requestMatchers("/api/listings/my-listings/**").hasAnyRole("LANDLORD", "STUDENT")
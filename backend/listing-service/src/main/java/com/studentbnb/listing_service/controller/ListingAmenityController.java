@@ -5,9 +5,12 @@ import com.studentbnb.listing_service.dto.SuccessResponse;
 import com.studentbnb.listing_service.entity.AmenityType;
 import com.studentbnb.listing_service.entity.Listing;
 import com.studentbnb.listing_service.entity.ListingAmenity;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
 import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.search.AmenityMask;
 import com.studentbnb.listing_service.service.ListingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -26,6 +29,9 @@ public class ListingAmenityController {
     @Autowired
     private ListingRepository listingRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Get all amenities for a listing (Public endpoint)
     @GetMapping("/{listingId}/amenities")
     public ResponseEntity<?> getListingAmenities(@PathVariable Long listingId) {
@@ -101,7 +107,9 @@ public class ListingAmenityController {
             amenity.setAmenityType(amenityType);
             listing.getAmenities().add(amenity);
 
+            listing.setAmenityMask(AmenityMask.ofAmenities(listing.getAmenities()));
             listingRepository.save(listing);
+            publishAmenitiesChanged(listingId);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new SuccessResponse("Amenity added successfully", amenityType));
@@ -159,7 +167,9 @@ public class ListingAmenityController {
                 }
             }
 
+            listing.setAmenityMask(AmenityMask.ofAmenities(listing.getAmenities()));
             listingRepository.save(listing);
+            publishAmenitiesChanged(listingId);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new SuccessResponse("Amenities added successfully"));
@@ -208,7 +218,9 @@ public class ListingAmenityController {
                     .body(new ErrorResponse("Not Found", "Amenity not found in this listing", 404, "/api/listings/" + listingId + "/amenities/" + amenityType));
             }
 
+            listing.setAmenityMask(AmenityMask.ofAmenities(listing.getAmenities()));
             listingRepository.save(listing);
+            publishAmenitiesChanged(listingId);
 
             return ResponseEntity.ok(new SuccessResponse("Amenity deleted successfully"));
 
@@ -231,7 +243,11 @@ public class ListingAmenityController {
         }
     }
 
-    // Helper method
+    // Helper methods
+    private void publishAmenitiesChanged(Long listingId) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.UPDATED));
+    }
+
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || authentication.getCredentials() == null) {
@@ -3,17 +3,32 @@ package com.studentbnb.listing_service.controller;
 
 import com.studentbnb.listing_service.dto.*;
 import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.search.SuggestionType;
+import com.studentbnb.listing_service.service.AutocompleteService;
+import com.studentbnb.listing_service.service.ListingExportService;
+import com.studentbnb.listing_service.service.ListingImportService;
+import com.studentbnb.listing_service.service.ListingSearchService;
 import com.studentbnb.listing_service.service.ListingService;
+import com.studentbnb.listing_service.service.TrendingService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +40,21 @@ public class ListingController {
     @Autowired
     private ListingService listingService;
 
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private ListingExportService listingExportService;
+
+    @Autowired
+    private ListingImportService listingImportService;
+
     // Health check endpoint
     @GetMapping("/health")
     public ResponseEntity<?> health() {
@@ -55,6 +85,55 @@ public class ListingController {
         }
     }
 
+    // Create many listings at once from a JSON array (Landlords only); rows that fail are reported, not fatal
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkCreateListings(@RequestBody List<CreateListingRequest> requests) {
+        try {
+            Long landlordId = getCurrentUserId();
+            BulkImportResponse result = listingImportService.importListings(landlordId, requests);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/bulk"));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to import listings: " + e.getMessage(), 500, "/api/listings/bulk"));
+        }
+    }
+
+    // Create many listings from an uploaded NDJSON or CSV file; the format defaults to the file extension
+    @PostMapping("/bulk/file")
+    public ResponseEntity<?> bulkCreateListingsFromFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+        try {
+            Long landlordId = getCurrentUserId();
+            String name = file.getOriginalFilename();
+            if (format == null && name != null && name.lastIndexOf('.') >= 0) {
+                format = name.substring(name.lastIndexOf('.') + 1);
+            }
+            ListingExportService.Format importFormat = ListingExportService.Format.parse(format);
+            try (InputStream in = file.getInputStream()) {
+                BulkImportResponse result = listingImportService.importFile(landlordId, importFormat, in);
+                return ResponseEntity.status(HttpStatus.CREATED).body(result);
+            }
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/bulk/file"));
+
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", "Failed to read import file: " + e.getMessage(), 400, "/api/listings/bulk/file"));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to import listings: " + e.getMessage(), 500, "/api/listings/bulk/file"));
+        }
+    }
+
     // Get listing by ID (Public endpoint with view tracking)
     @GetMapping("/{id}")
     public ResponseEntity<?> getListingById(@PathVariable Long id, HttpServletRequest request) {
@@ -79,56 +158,200 @@ public class ListingController {
     }
 
     // Get all active listings (Public endpoint)
+    // Passing cursor (empty for the first slice) switches from page numbers to keyset pagination
     @GetMapping
     public ResponseEntity<?> getActiveListings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor) {
         try {
+            if (cursor != null) {
+                CursorPageResponse<ListingResponse> listings = listingService.getActiveListingsAfter(cursor, size, sortBy, sortDir);
+                return ResponseEntity.ok(listings);
+            }
+            
             Page<ListingResponse> listings = listingService.getActiveListings(page, size, sortBy, sortDir);
             return ResponseEntity.ok(listings);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings"));
+                
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to fetch listings: " + e.getMessage(), 500, "/api/listings"));
         }
     }
 
-    // Search listings (Public endpoint)
+    // Search listings (Public endpoint, served from the in-memory index)
+    // Passing cursor (empty for the first slice) switches from page numbers to keyset pagination
     @PostMapping("/search")
     public ResponseEntity<?> searchListings(
             @RequestBody ListingSearchRequest searchRequest,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
         try {
-            Page<ListingResponse> listings = listingService.searchListings(searchRequest, page, size);
+            if (cursor != null) {
+                CursorPageResponse<ListingResponse> listings = listingSearchService.searchAfter(searchRequest, cursor, size);
+                return ResponseEntity.ok(listings);
+            }
+            
+            Page<ListingResponse> listings = listingSearchService.search(searchRequest, page, size);
             return ResponseEntity.ok(listings);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/search"));
+                
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to search listings: " + e.getMessage(), 500, "/api/listings/search"));
         }
     }
 
-    // Get listings near campus (Public endpoint)
+    // Facet counts for the filter sidebar (Public endpoint), same request body as /search
+    @PostMapping("/search/facets")
+    public ResponseEntity<?> getSearchFacets(@RequestBody ListingSearchRequest searchRequest) {
+        try {
+            SearchFacetsResponse facets = listingSearchService.facets(searchRequest);
+            return ResponseEntity.ok(facets);
+            
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("Service Unavailable", e.getMessage(), 503, "/api/listings/search/facets"));
+                
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to count search facets: " + e.getMessage(), 500, "/api/listings/search/facets"));
+        }
+    }
+
+    // Autocomplete cities, states, zip codes and universities for the search box (Public endpoint)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<AutocompleteSuggestion> suggestions = autocompleteService.suggest(q, type, limit);
+            return ResponseEntity.ok(suggestions);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/autocomplete"));
+                
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("Service Unavailable", e.getMessage(), 503, "/api/listings/autocomplete"));
+                
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to autocomplete: " + e.getMessage(), 500, "/api/listings/autocomplete"));
+        }
+    }
+
+    // Get nearby listings (Public endpoint)
+    // - latitude/longitude/radiusKm: paginated radius search, nearest first
+    // - minLat/maxLat/minLon/maxLon: paginated bounding-box (map viewport) search
+    // - maxDistance: listings within a distance of campus
     @GetMapping("/nearby")
-    public ResponseEntity<?> getListingsNearCampus(@RequestParam Double maxDistance) {
+    public ResponseEntity<?> getListingsNearCampus(
+            @RequestParam(required = false) Double maxDistance,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "2") Double radiusKm,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
+            if (latitude != null || longitude != null) {
+                Page<ListingResponse> listings = listingSearchService.nearby(latitude, longitude, radiusKm, page, size);
+                return ResponseEntity.ok(listings);
+            }
+
+            if (minLat != null || maxLat != null || minLon != null || maxLon != null) {
+                Page<ListingResponse> listings = listingSearchService.withinBounds(minLat, maxLat, minLon, maxLon, page, size);
+                return ResponseEntity.ok(listings);
+            }
+
+            if (maxDistance == null) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Bad Request", "Provide latitude and longitude, a bounding box, or maxDistance", 400, "/api/listings/nearby"));
+            }
+
             List<ListingResponse> listings = listingService.getListingsNearCampus(maxDistance);
             return ResponseEntity.ok(listings);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/nearby"));
+
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to fetch nearby listings: " + e.getMessage(), 500, "/api/listings/nearby"));
         }
     }
 
+    // Get listings available for a whole stay, or on one day when moveOut is omitted (Public endpoint)
+    @GetMapping("/available")
+    public ResponseEntity<?> getAvailableListings(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate moveIn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate moveOut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Page<ListingResponse> listings = listingSearchService.available(moveIn, moveOut, page, size);
+            return ResponseEntity.ok(listings);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/available"));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to fetch available listings: " + e.getMessage(), 500, "/api/listings/available"));
+        }
+    }
+
+    // Stream active listings as NDJSON or CSV, optionally filtered; rows are written as they are read
+    @GetMapping("/export")
+    public ResponseEntity<?> exportListings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) Long landlordId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        try {
+            ListingExportService.Format exportFormat = ListingExportService.Format.parse(format);
+            StreamingResponseBody body = out ->
+                listingExportService.export(exportFormat, city, state, landlordId, updatedSince, out);
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"listings." + exportFormat.getExtension() + "\"")
+                .body(body);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/export"));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to export listings: " + e.getMessage(), 500, "/api/listings/export"));
+        }
+    }
+
     // Get listings by university (Public endpoint)
     @GetMapping("/university/{universityName}")
     public ResponseEntity<?> getListingsByUniversity(@PathVariable String universityName) {
         try {
-            List<ListingResponse> listings = listingService.getListingsByUniversity(universityName);
+            String university = autocompleteService.resolve(SuggestionType.UNIVERSITY, universityName);
+            List<ListingResponse> listings = listingService.getListingsByUniversity(university);
             return ResponseEntity.ok(listings);
             
         } catch (Exception e) {
@@ -137,36 +360,77 @@ public class ListingController {
         }
     }
 
-    // Get recent listings (Public endpoint)
+    // Get recent listings (Public endpoint, keyset pagination on (createdAt, id) with cursor)
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentListings(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
+            if (cursor != null) {
+                CursorPageResponse<ListingResponse> listings = listingService.getRecentListingsAfter(cursor, size);
+                return ResponseEntity.ok(listings);
+            }
+            
             Page<ListingResponse> listings = listingService.getRecentListings(page, size);
             return ResponseEntity.ok(listings);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/recent"));
+                
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to fetch recent listings: " + e.getMessage(), 500, "/api/listings/recent"));
         }
     }
 
-    // Get popular listings (Public endpoint)
+    // Get popular listings (Public endpoint): trending by decayed engagement, or keyset pagination on (viewCount, id) with cursor
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularListings(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
-            Page<ListingResponse> listings = listingService.getPopularListings(page, size);
+            if (cursor != null) {
+                CursorPageResponse<ListingResponse> listings = listingService.getPopularListingsAfter(cursor, size);
+                return ResponseEntity.ok(listings);
+            }
+            
+            Page<ListingResponse> listings = trendingService.getTrendingListings(null, null, page, size);
             return ResponseEntity.ok(listings);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/popular"));
+                
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to fetch popular listings: " + e.getMessage(), 500, "/api/listings/popular"));
         }
     }
 
+    // Get trending listings, optionally within a city or near a university (Public endpoint)
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingListings(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String university,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Page<ListingResponse> listings = trendingService.getTrendingListings(city, university, page, size);
+            return ResponseEntity.ok(listings);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/trending"));
+                
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal Server Error", "Failed to fetch trending listings: " + e.getMessage(), 500, "/api/listings/trending"));
+        }
+    }
+
     // Update listing (Landlords only)
     @PutMapping("/{id}")
     public ResponseEntity<?> updateListing(@PathVariable Long id, @Valid @RequestBody UpdateListingRequest request) {
@@ -2,6 +2,7 @@ package com.studentbnb.listing_service.controller;
 
 
 
+import com.studentbnb.listing_service.dto.CursorPageResponse;
 import com.studentbnb.listing_service.dto.ErrorResponse;
 import com.studentbnb.listing_service.dto.ListingResponse;
 import com.studentbnb.listing_service.dto.SuccessResponse;
@@ -83,16 +84,21 @@ public class ListingFavoriteController {
     }
 
     // Get user's favorite listings (Students only)
+    // Passing cursor (empty for the first slice) switches from page numbers to keyset pagination, newest favorite first
     @GetMapping("/favorites")
     public ResponseEntity<?> getUserFavorites(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor) {
         try {
             Long userId = getCurrentUserId();
             
-            if (page == -1) {
+            if (cursor != null) {
+                CursorPageResponse<ListingResponse> favorites = favoriteService.getUserFavoritesAfter(userId, cursor, size);
+                return ResponseEntity.ok(favorites);
+            } else if (page == -1) {
                 // Return all favorites without pagination
                 List<ListingResponse> favorites = favoriteService.getUserFavorites(userId);
                 return ResponseEntity.ok(favorites);
@@ -102,6 +108,10 @@ public class ListingFavoriteController {
                 return ResponseEntity.ok(favorites);
             }
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Bad Request", e.getMessage(), 400, "/api/listings/favorites"));
+                
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ErrorResponse("Internal Server Error", "Failed to fetch favorites: " + e.getMessage(), 500, "/api/listings/favorites"));
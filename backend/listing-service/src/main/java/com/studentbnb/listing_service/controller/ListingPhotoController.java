@@ -4,8 +4,9 @@ import com.studentbnb.listing_service.dto.AddPhotoRequest;
 import com.studentbnb.listing_service.dto.ErrorResponse;
 import com.studentbnb.listing_service.dto.SuccessResponse;
 import com.studentbnb.listing_service.entity.ListingPhoto;
-import com.studentbnb.listing_service.service.CloudinaryService;
 import com.studentbnb.listing_service.service.ListingPhotoService;
+import com.studentbnb.listing_service.service.PhotoUploadService;
+import com.studentbnb.listing_service.storage.StoredPhoto;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -16,7 +17,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,7 +30,7 @@ public class ListingPhotoController {
     private ListingPhotoService photoService;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private PhotoUploadService photoUploadService;
 
     // Upload photo file to listing (Landlords and Students) - NEW FILE UPLOAD ENDPOINT
     @PostMapping(value = "/{listingId}/photos/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -41,17 +42,23 @@ public class ListingPhotoController {
         try {
             Long landlordId = getCurrentUserId();
 
-            // Upload file to Cloudinary
-            String photoUrl = cloudinaryService.uploadImage(file);
+            // Upload file and its variants to photo storage
+            StoredPhoto stored = photoUploadService.uploadImage(file);
 
             // Create AddPhotoRequest with uploaded URL
             AddPhotoRequest request = new AddPhotoRequest();
-            request.setPhotoUrl(photoUrl);
+            request.setPhotoUrl(stored.getPhotoUrl());
             request.setDescription(description);
             request.setIsPrimary(isPrimary);
 
             // Add photo to listing
-            ListingPhoto photo = photoService.addPhoto(listingId, landlordId, request);
+            ListingPhoto photo;
+            try {
+                photo = photoService.addPhoto(listingId, landlordId, request, stored);
+            } catch (RuntimeException e) {
+                photoUploadService.releaseImagesQuietly(new StoredPhoto[]{stored});
+                throw e;
+            }
 
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new SuccessResponse("Photo uploaded successfully", photo));
@@ -74,20 +81,16 @@ public class ListingPhotoController {
         try {
             Long landlordId = getCurrentUserId();
 
-            List<ListingPhoto> uploadedPhotos = new ArrayList<>();
-
-            // Upload all files to Cloudinary
-            for (int i = 0; i < files.length; i++) {
-                String photoUrl = cloudinaryService.uploadImage(files[i]);
-
-                // Create AddPhotoRequest with uploaded URL
-                AddPhotoRequest request = new AddPhotoRequest();
-                request.setPhotoUrl(photoUrl);
-                request.setIsPrimary(i == 0); // First photo is primary by default
+            // Upload all files to photo storage concurrently, keeping their order
+            StoredPhoto[] storedPhotos = photoUploadService.uploadImages(files);
 
-                // Add photo to listing
-                ListingPhoto photo = photoService.addPhoto(listingId, landlordId, request);
-                uploadedPhotos.add(photo);
+            // Add all photos to listing in one transaction; first photo is primary by default
+            List<ListingPhoto> uploadedPhotos;
+            try {
+                uploadedPhotos = photoService.addPhotos(listingId, landlordId, Arrays.asList(storedPhotos));
+            } catch (RuntimeException e) {
+                photoUploadService.releaseImagesQuietly(storedPhotos);
+                throw e;
             }
 
             return ResponseEntity.status(HttpStatus.CREATED)
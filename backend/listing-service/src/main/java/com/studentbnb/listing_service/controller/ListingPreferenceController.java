@@ -3,9 +3,11 @@ package com.studentbnb.listing_service.controller;
 import com.studentbnb.listing_service.dto.ErrorResponse;
 import com.studentbnb.listing_service.dto.SuccessResponse;
 import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
 import com.studentbnb.listing_service.repository.ListingPreferenceRepository;
 import com.studentbnb.listing_service.repository.ListingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -25,6 +27,9 @@ public class ListingPreferenceController {
     @Autowired
     private ListingRepository listingRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Get all preference types
     @GetMapping("/types")
     public ResponseEntity<?> getPreferenceTypes() {
@@ -104,6 +109,7 @@ public class ListingPreferenceController {
             }
 
             preferenceRepository.save(preference);
+            publishPreferencesChanged(listingId);
 
             return ResponseEntity.ok(new SuccessResponse("Preferences updated successfully", preference));
 
@@ -134,6 +140,7 @@ public class ListingPreferenceController {
             }
 
             preferenceRepository.deleteByListingId(listingId);
+            publishPreferencesChanged(listingId);
 
             return ResponseEntity.ok(new SuccessResponse("Preferences deleted successfully"));
 
@@ -148,6 +155,10 @@ public class ListingPreferenceController {
         }
     }
 
+    private void publishPreferencesChanged(Long listingId) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.UPDATED));
+    }
+
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || authentication.getCredentials() == null) {
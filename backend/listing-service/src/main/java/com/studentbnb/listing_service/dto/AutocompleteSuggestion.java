@@ -0,0 +1,16 @@
+package com.studentbnb.listing_service.dto;
+
+import com.studentbnb.listing_service.search.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+
+    private SuggestionType type;
+    private String value;
+    private long listingCount;
+}
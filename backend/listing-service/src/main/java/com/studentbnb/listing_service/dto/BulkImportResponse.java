@@ -0,0 +1,35 @@
+package com.studentbnb.listing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk listing import. Rows are numbered from 1 in input
+ * order (array element, NDJSON line or CSV record after the header); rows
+ * that fail are reported individually and do not stop the others.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResponse {
+
+    private int received;
+    private int imported;
+    private int failed;
+    private List<Long> listingIds = new ArrayList<>();
+    private List<RowError> errors = new ArrayList<>();
+
+    // field is null when the error is not about one field (unparseable row, database failure)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+        private String field;
+        private String message;
+    }
+}
@@ -0,0 +1,31 @@
+package com.studentbnb.listing_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated feed. There is no total count; pass
+ * nextCursor back as the cursor parameter to fetch the following slice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private int numberOfElements;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public CursorPageResponse(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.numberOfElements = content.size();
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+}
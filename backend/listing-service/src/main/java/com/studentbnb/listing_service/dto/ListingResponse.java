@@ -70,15 +70,30 @@ public class ListingResponse {
     // Computed fields
     private Boolean isFavorited; // Set based on current user
     private String primaryPhotoUrl;
+    private String primaryCardUrl;
+    private Double distanceKm; // Set for coordinate proximity searches
     
     // Helper method to get primary photo URL
     public String getPrimaryPhotoUrl() {
+        ListingPhoto primary = getPrimaryPhoto();
+        return primary != null ? primary.getPhotoUrl() : null;
+    }
+
+    // Card-sized primary photo for result lists, falling back to the full-size one
+    public String getPrimaryCardUrl() {
+        ListingPhoto primary = getPrimaryPhoto();
+        if (primary == null) {
+            return null;
+        }
+        return primary.getCardUrl() != null ? primary.getCardUrl() : primary.getPhotoUrl();
+    }
+
+    private ListingPhoto getPrimaryPhoto() {
         if (photos != null && !photos.isEmpty()) {
             return photos.stream()
                     .filter(ListingPhoto::getIsPrimary)
-                    .map(ListingPhoto::getPhotoUrl)
                     .findFirst()
-                    .orElse(photos.get(0).getPhotoUrl());
+                    .orElse(photos.get(0));
         }
         return null;
     }
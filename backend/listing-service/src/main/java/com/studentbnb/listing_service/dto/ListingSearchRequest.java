@@ -61,6 +61,6 @@ public class ListingSearchRequest {
     private String keywords; // Search in title and description
     
     // Sorting options
-    private String sortBy = "createdAt"; // createdAt, rent, viewCount, favoriteCount, distanceToCampus
+    private String sortBy; // relevance (default with keywords), createdAt (default otherwise), rent, viewCount, favoriteCount, distanceToCampus
     private String sortDirection = "desc"; // asc, desc
 }
\ No newline at end of file
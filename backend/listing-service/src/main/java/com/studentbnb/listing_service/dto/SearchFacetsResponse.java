@@ -0,0 +1,40 @@
+package com.studentbnb.listing_service.dto;
+
+import com.studentbnb.listing_service.entity.AmenityType;
+import com.studentbnb.listing_service.entity.LeaseType;
+import com.studentbnb.listing_service.entity.PropertyType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter sidebar counts: how many ACTIVE listings matching a search fall
+ * under each property type, lease type, bedroom count, rent bucket and
+ * amenity. Every value is listed, including those with a count of 0.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+
+    private long total;
+    private Map<PropertyType, Long> propertyTypes;
+    private Map<LeaseType, Long> leaseTypes;
+    private Map<Integer, Long> bedrooms;
+    private List<RentBucket> rentBuckets;
+    private Map<AmenityType, Long> amenities;
+
+    // Rent from minRent up to, not including, maxRent; the last bucket has no maxRent
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RentBucket {
+        private BigDecimal minRent;
+        private BigDecimal maxRent;
+        private long count;
+    }
+}
@@ -0,0 +1,30 @@
+package com.studentbnb.listing_service.entity;
+
+/**
+ * Id sequences of the listing-service tables, one per table.
+ *
+ * Every sequence steps by ALLOCATION_SIZE and is read with Hibernate's
+ * pooled-lo optimizer (hibernate.id.optimizer.pooled.preferred), so one
+ * sequence value v reserves the ids [v, v + ALLOCATION_SIZE): entity
+ * inserts need a database round trip per fifty rows instead of one per
+ * row, and Hibernate can batch them (IDENTITY columns rule that out, as
+ * the id is only known after each insert). Rows written with plain JDBC
+ * take their ids from SequenceIdAllocator, which reserves blocks the same
+ * way.
+ */
+public final class IdSequences {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String LISTINGS = "listings_seq";
+    public static final String LISTING_PHOTOS = "listing_photos_seq";
+    public static final String LISTING_AMENITIES = "listing_amenities_seq";
+    public static final String LISTING_PREFERENCES = "listing_preferences_seq";
+    public static final String LISTING_VIEWS = "listing_views_seq";
+    public static final String LISTING_FAVORITES = "listing_favorites_seq";
+    public static final String LISTING_INQUIRIES = "listing_inquiries_seq";
+    public static final String PHOTO_CLEANUP_TASKS = "photo_cleanup_tasks_seq";
+
+    private IdSequences() {
+    }
+}
@@ -23,7 +23,8 @@ import java.util.List;
 public class Listing {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTINGS)
+    @SequenceGenerator(name = IdSequences.LISTINGS, sequenceName = IdSequences.LISTINGS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
     
     @NotNull
@@ -150,6 +151,11 @@ public class Listing {
     @Column(name = "favorite_count")
     private Integer favoriteCount = 0;
     
+    // Available amenities, one bit per AmenityType (see AmenityMask). New listings start with none
+    // set; rows written before the column existed load as null until warm-up backfills them
+    @Column(name = "amenity_mask")
+    private Long amenityMask = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
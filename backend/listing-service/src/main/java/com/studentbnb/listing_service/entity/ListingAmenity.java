@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class ListingAmenity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_AMENITIES)
+    @SequenceGenerator(name = IdSequences.LISTING_AMENITIES, sequenceName = IdSequences.LISTING_AMENITIES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -10,14 +10,17 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "listing_favorites", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"listing_id", "user_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"listing_id", "user_id"}),
+       // Backs the favorites feed, newest first per user
+       indexes = @Index(name = "idx_listing_favorites_user_created", columnList = "user_id, created_at, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ListingFavorite {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_FAVORITES)
+    @SequenceGenerator(name = IdSequences.LISTING_FAVORITES, sequenceName = IdSequences.LISTING_FAVORITES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class ListingInquiry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_INQUIRIES)
+    @SequenceGenerator(name = IdSequences.LISTING_INQUIRIES, sequenceName = IdSequences.LISTING_INQUIRIES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package com.studentbnb.listing_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -19,7 +20,8 @@ import java.time.LocalDateTime;
 public class ListingPhoto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_PHOTOS)
+    @SequenceGenerator(name = IdSequences.LISTING_PHOTOS, sequenceName = IdSequences.LISTING_PHOTOS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +33,29 @@ public class ListingPhoto {
     @Size(max = 1000)
     @Column(name = "photo_url", nullable = false, length = 1000)
     private String photoUrl;
+
+    // Smaller renditions for list views; null for photos added by URL rather than uploaded
+    @Size(max = 1000)
+    @Column(name = "card_url", length = 1000)
+    private String cardUrl;
+
+    @Size(max = 1000)
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
+    // WebP renditions, where the storage backend can produce them
+    @Size(max = 1000)
+    @Column(name = "card_webp_url", length = 1000)
+    private String cardWebpUrl;
+
+    @Size(max = 1000)
+    @Column(name = "thumbnail_webp_url", length = 1000)
+    private String thumbnailWebpUrl;
+
+    // SHA-256 of the uploaded image, keying its PhotoAsset; null for photos added by URL
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
     
     @Size(max = 200)
     private String description;
@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class ListingPreference {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_PREFERENCES)
+    @SequenceGenerator(name = IdSequences.LISTING_PREFERENCES, sequenceName = IdSequences.LISTING_PREFERENCES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
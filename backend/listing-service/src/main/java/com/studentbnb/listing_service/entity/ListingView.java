@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class ListingView {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.LISTING_VIEWS)
+    @SequenceGenerator(name = IdSequences.LISTING_VIEWS, sequenceName = IdSequences.LISTING_VIEWS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,57 @@
+package com.studentbnb.listing_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One uploaded image in photo storage, keyed by the SHA-256 of its bytes.
+ * Every ListingPhoto uploaded with the same content points at the same
+ * asset; referenceCount says how many do, and the asset is deleted from
+ * storage when it drops to zero.
+ *
+ * The stored copy is named after the hash plus a random nonce, so an image
+ * uploaded again after its last release gets a copy of its own, which the
+ * pending deletion of the old copy cannot touch.
+ */
+@Entity
+@Table(name = "photo_assets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoAsset {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "photo_url", nullable = false, length = 1000)
+    private String photoUrl;
+
+    @Column(name = "card_url", length = 1000)
+    private String cardUrl;
+
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
+    @Column(name = "card_webp_url", length = 1000)
+    private String cardWebpUrl;
+
+    @Column(name = "thumbnail_webp_url", length = 1000)
+    private String thumbnailWebpUrl;
+
+    // Name of the copy in photo storage; null for copies stored under the bare content hash
+    @Column(name = "storage_name", length = 100)
+    private String storageName;
+
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,48 @@
+package com.studentbnb.listing_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image to delete from photo storage, queued in the transaction that
+ * released its last reference (see PhotoAssetService) and worked off by
+ * PhotoCleanupService, which retries failed deletions with backoff.
+ */
+@Entity
+@Table(name = "photo_cleanup_tasks", indexes = {
+    @Index(name = "idx_photo_cleanup_tasks_next_attempt_at", columnList = "next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoCleanupTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.PHOTO_CLEANUP_TASKS)
+    @SequenceGenerator(name = IdSequences.PHOTO_CLEANUP_TASKS, sequenceName = IdSequences.PHOTO_CLEANUP_TASKS, allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "photo_url", nullable = false, length = 1000)
+    private String photoUrl;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
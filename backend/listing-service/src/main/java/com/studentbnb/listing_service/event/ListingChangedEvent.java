@@ -0,0 +1,25 @@
+package com.studentbnb.listing_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a listing or its photos/amenities change, so in-memory
+ * read models (search index, caches) can refresh after the write commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ListingChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    private final Long listingId;
+    private final ChangeType changeType;
+}
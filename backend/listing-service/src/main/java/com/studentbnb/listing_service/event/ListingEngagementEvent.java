@@ -0,0 +1,28 @@
+package com.studentbnb.listing_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Published when a student engages with a listing (a counted view, a new
+ * favorite or an inquiry), so engagement-driven read models such as the
+ * trending rankings can update after the write commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ListingEngagementEvent {
+
+    public enum EngagementType {
+        VIEW,
+        FAVORITE,
+        INQUIRY
+    }
+
+    private final Long listingId;
+    private final EngagementType engagementType;
+    private final Instant occurredAt;
+}
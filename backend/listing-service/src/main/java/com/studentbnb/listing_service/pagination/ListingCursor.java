@@ -0,0 +1,96 @@
+package com.studentbnb.listing_service.pagination;
+
+import lombok.Getter;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for listing feeds.
+ *
+ * A cursor records the ordering being scrolled and the sort key of the last
+ * listing the client received: (boost, value, id), where boost is the
+ * preferred-amenity match count used by search. The next page is everything
+ * strictly after that key, so a deep page costs the same as the first one.
+ * Tokens are URL-safe Base64 so clients pass them back rather than build them.
+ */
+@Getter
+public class ListingCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final int boost;
+    private final Comparable<?> value;
+    private final long id;
+
+    public ListingCursor(String sortBy, boolean descending, int boost, Comparable<?> value, long id) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.boost = boost;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+            sortBy,
+            descending ? "desc" : "asc",
+            String.valueOf(boost),
+            value == null ? "" : value.toString(),
+            String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a client cursor, rejecting tokens issued for a different ordering
+    public static ListingCursor decode(String token, String sortBy, boolean descending) {
+        ListingCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            cursor = new ListingCursor(
+                parts[0],
+                "desc".equals(parts[1]),
+                Integer.parseInt(parts[2]),
+                parts[3].isEmpty() ? null : parseValue(parts[0], parts[3]),
+                Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        if (!cursor.sortBy.equals(sortBy) || cursor.descending != descending) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        return cursor;
+    }
+
+    // Keyset position for Spring Data window queries sorted by (sortBy, id)
+    public ScrollPosition toScrollPosition() {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortBy, value);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String text) {
+        return switch (sortBy) {
+            case "createdAt", "favoritedAt" -> LocalDateTime.parse(text);
+            case "rent" -> new BigDecimal(text);
+            case "viewCount", "favoriteCount" -> Integer.valueOf(text);
+            case "distanceToCampus", "relevance" -> Double.valueOf(text);
+            default -> throw new IllegalArgumentException("Unsupported cursor sort: " + sortBy);
+        };
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +24,10 @@ public interface ListingAmenityRepository extends JpaRepository<ListingAmenity,
     List<ListingAmenity> findByListingIdAndAmenityType(@Param("listingId") Long listingId, 
                                                        @Param("amenityType") AmenityType amenityType);
     
+    // Batch load available amenities for a page of listings
+    @Query("SELECT a FROM ListingAmenity a WHERE a.listing.id IN :listingIds AND a.isAvailable = true")
+    List<ListingAmenity> findAvailableByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
+    
     // Find listings that have specific amenities
     @Query("SELECT DISTINCT a.listing.id FROM ListingAmenity a WHERE a.amenityType IN :amenityTypes AND a.isAvailable = true")
     List<Long> findListingIdsByAmenityTypes(@Param("amenityTypes") List<AmenityType> amenityTypes);
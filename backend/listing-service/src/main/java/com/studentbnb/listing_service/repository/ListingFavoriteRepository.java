@@ -1,6 +1,7 @@
 package com.studentbnb.listing_service.repository;
 
 import com.studentbnb.listing_service.entity.ListingFavorite;
+import com.studentbnb.listing_service.entity.ListingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +27,26 @@ public interface ListingFavoriteRepository extends JpaRepository<ListingFavorite
     @Query("SELECT f.listing.id FROM ListingFavorite f WHERE f.userId = :userId")
     List<Long> findListingIdsByUserId(@Param("userId") Long userId);
     
+    // Favorites feed: favorites and their listings in one query, skipping listings that are no longer ACTIVE
+    @Query("SELECT f FROM ListingFavorite f JOIN FETCH f.listing l WHERE f.userId = :userId AND l.status = :status " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<ListingFavorite> findWithListingByUserIdAndStatus(@Param("userId") Long userId, @Param("status") ListingStatus status);
+    
+    @Query(value = "SELECT f FROM ListingFavorite f JOIN FETCH f.listing l WHERE f.userId = :userId AND l.status = :status",
+           countQuery = "SELECT COUNT(f) FROM ListingFavorite f WHERE f.userId = :userId AND f.listing.status = :status")
+    Page<ListingFavorite> findWithListingByUserIdAndStatus(@Param("userId") Long userId, @Param("status") ListingStatus status, Pageable pageable);
+    
+    // Keyset slice of the favorites feed after (afterCreatedAt, afterId), newest favorite first
+    @Query("SELECT f FROM ListingFavorite f JOIN FETCH f.listing l WHERE f.userId = :userId AND l.status = :status AND " +
+           "(:afterCreatedAt IS NULL OR f.createdAt < :afterCreatedAt OR " +
+           "(f.createdAt = :afterCreatedAt AND f.id < :afterId)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<ListingFavorite> findWithListingByUserIdAndStatusAfter(@Param("userId") Long userId,
+                                                                @Param("status") ListingStatus status,
+                                                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                                @Param("afterId") Long afterId,
+                                                                Pageable pageable);
+    
     @Query("SELECT COUNT(f) FROM ListingFavorite f WHERE f.listing.id = :listingId")
     Long countByListingId(@Param("listingId") Long listingId);
     
@@ -33,7 +55,7 @@ public interface ListingFavoriteRepository extends JpaRepository<ListingFavorite
     
     boolean existsByListingIdAndUserId(Long listingId, Long userId);
     
-    void deleteByListingIdAndUserId(Long listingId, Long userId);
+    long deleteByListingIdAndUserId(Long listingId, Long userId);
     
     void deleteByListingId(Long listingId);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,10 @@ public interface ListingPhotoRepository extends JpaRepository<ListingPhoto, Long
     @Query("SELECT p FROM ListingPhoto p WHERE p.listing.id = :listingId ORDER BY p.displayOrder ASC")
     List<ListingPhoto> findPhotosByListingId(@Param("listingId") Long listingId);
     
+    // Batch load photos for a page of listings
+    @Query("SELECT p FROM ListingPhoto p WHERE p.listing.id IN :listingIds ORDER BY p.displayOrder ASC")
+    List<ListingPhoto> findByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
+    
     @Query("SELECT COUNT(p) FROM ListingPhoto p WHERE p.listing.id = :listingId")
     Long countPhotosByListingId(@Param("listingId") Long listingId);
     
@@ -6,20 +6,32 @@ import com.studentbnb.listing_service.entity.Listing;
 import com.studentbnb.listing_service.entity.ListingStatus;
 import com.studentbnb.listing_service.entity.PropertyType;
 import com.studentbnb.listing_service.entity.LeaseType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long> {
     
+    // Rows per JDBC round trip when streaming exports
+    int EXPORT_FETCH_SIZE = 500;
+    
     // Find by landlord
     List<Listing> findByLandlordId(Long landlordId);
     
@@ -30,6 +42,30 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     
     Page<Listing> findByStatus(ListingStatus status, Pageable pageable);
     
+    // Keyset scan by ID, used to warm in-memory read models in batches
+    List<Listing> findByStatusAndIdGreaterThanOrderByIdAsc(ListingStatus status, Long id, Pageable pageable);
+    
+    // Keyset (seek) scroll by status; the sort must end with id so positions are unique
+    Window<Listing> findByStatus(ListingStatus status, ScrollPosition position, Sort sort, Limit limit);
+    
+    // Forward-only export scan in id order; rows arrive in fetch-size batches and are never cached by the session
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT l FROM Listing l WHERE l.status = :status AND " +
+           "(:city IS NULL OR LOWER(l.city) = LOWER(:city)) AND " +
+           "(:state IS NULL OR LOWER(l.state) = LOWER(:state)) AND " +
+           "(:landlordId IS NULL OR l.landlordId = :landlordId) AND " +
+           "(:updatedSince IS NULL OR l.updatedAt >= :updatedSince) " +
+           "ORDER BY l.id")
+    Stream<Listing> streamForExport(@Param("status") ListingStatus status,
+                                    @Param("city") String city,
+                                    @Param("state") String state,
+                                    @Param("landlordId") Long landlordId,
+                                    @Param("updatedSince") LocalDateTime updatedSince);
+    
     // Find active listings
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE'")
     Page<Listing> findActiveListings(Pageable pageable);
@@ -58,11 +94,13 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
                                   @Param("maxRent") BigDecimal maxRent, 
                                   Pageable pageable);
     
-    // Availability search
+    // Availability search: listings available for the whole of [moveIn, moveOut], paginated
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND " +
-           "(l.availableFrom IS NULL OR l.availableFrom <= :date) AND " +
-           "(l.availableUntil IS NULL OR l.availableUntil >= :date)")
-    List<Listing> findAvailableOnDate(@Param("date") LocalDate date);
+           "(l.availableFrom IS NULL OR l.availableFrom <= :moveIn) AND " +
+           "(l.availableUntil IS NULL OR l.availableUntil >= :moveOut)")
+    Page<Listing> findAvailableThrough(@Param("moveIn") LocalDate moveIn,
+                                       @Param("moveOut") LocalDate moveOut,
+                                       Pageable pageable);
     
   // Advanced search
 @Query("SELECT l FROM Listing l WHERE " +
@@ -74,7 +112,10 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
        "(:minBedrooms IS NULL OR l.bedrooms >= :minBedrooms) AND " +
        "(:maxBedrooms IS NULL OR l.bedrooms <= :maxBedrooms) AND " +
        "(:petsAllowed IS NULL OR l.petsAllowed = :petsAllowed) AND " +
-       "(:furnished IS NULL OR l.furnished = :furnished)")
+       "(:furnished IS NULL OR l.furnished = :furnished) AND " +
+       "(:requiredAmenityMask = 0 OR BITAND(l.amenityMask, CAST(:requiredAmenityMask AS Long)) = :requiredAmenityMask) AND " +
+       "(:moveIn IS NULL OR l.availableFrom IS NULL OR l.availableFrom <= :moveIn) AND " +
+       "(:moveOut IS NULL OR l.availableUntil IS NULL OR l.availableUntil >= :moveOut)")
 Page<Listing> searchListings(@Param("city") String city,
                              @Param("propertyType") PropertyType propertyType,
                              @Param("minRent") BigDecimal minRent,
@@ -83,13 +124,56 @@ Page<Listing> searchListings(@Param("city") String city,
                              @Param("maxBedrooms") Integer maxBedrooms,
                              @Param("petsAllowed") Boolean petsAllowed,
                              @Param("furnished") Boolean furnished,
+                             @Param("requiredAmenityMask") long requiredAmenityMask,
+                             @Param("moveIn") LocalDate moveIn,
+                             @Param("moveOut") LocalDate moveOut,
                              Pageable pageable);
     
+// Advanced search, keyset variant ordered by (createdAt, id) descending; no COUNT query
+@Query("SELECT l FROM Listing l WHERE " +
+       "l.status = 'ACTIVE' AND " +
+       "(:city IS NULL OR LOWER(l.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+       "(:propertyType IS NULL OR l.propertyType = :propertyType) AND " +
+       "(:minRent IS NULL OR l.rent >= :minRent) AND " +
+       "(:maxRent IS NULL OR l.rent <= :maxRent) AND " +
+       "(:minBedrooms IS NULL OR l.bedrooms >= :minBedrooms) AND " +
+       "(:maxBedrooms IS NULL OR l.bedrooms <= :maxBedrooms) AND " +
+       "(:petsAllowed IS NULL OR l.petsAllowed = :petsAllowed) AND " +
+       "(:furnished IS NULL OR l.furnished = :furnished) AND " +
+       "(:requiredAmenityMask = 0 OR BITAND(l.amenityMask, CAST(:requiredAmenityMask AS Long)) = :requiredAmenityMask) AND " +
+       "(:moveIn IS NULL OR l.availableFrom IS NULL OR l.availableFrom <= :moveIn) AND " +
+       "(:moveOut IS NULL OR l.availableUntil IS NULL OR l.availableUntil >= :moveOut) AND " +
+       "(:afterCreatedAt IS NULL OR l.createdAt < :afterCreatedAt OR " +
+       "(l.createdAt = :afterCreatedAt AND l.id < :afterId)) " +
+       "ORDER BY l.createdAt DESC, l.id DESC")
+List<Listing> searchListingsAfter(@Param("city") String city,
+                                  @Param("propertyType") PropertyType propertyType,
+                                  @Param("minRent") BigDecimal minRent,
+                                  @Param("maxRent") BigDecimal maxRent,
+                                  @Param("minBedrooms") Integer minBedrooms,
+                                  @Param("maxBedrooms") Integer maxBedrooms,
+                                  @Param("petsAllowed") Boolean petsAllowed,
+                                  @Param("furnished") Boolean furnished,
+                                  @Param("requiredAmenityMask") long requiredAmenityMask,
+                                  @Param("moveIn") LocalDate moveIn,
+                                  @Param("moveOut") LocalDate moveOut,
+                                  @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+    
     // Distance-based search (for campus proximity)
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND " +
            "l.distanceToCampusKm <= :maxDistance ORDER BY l.distanceToCampusKm ASC")
     List<Listing> findNearCampus(@Param("maxDistance") Double maxDistance);
     
+    // Bounding-box prefilter for coordinate proximity search
+    @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND " +
+           "l.latitude BETWEEN :minLat AND :maxLat AND l.longitude BETWEEN :minLon AND :maxLon")
+    List<Listing> findActiveWithinBounds(@Param("minLat") Double minLat,
+                                         @Param("maxLat") Double maxLat,
+                                         @Param("minLon") Double minLon,
+                                         @Param("maxLon") Double maxLon);
+    
     // University-specific search
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND " +
            "LOWER(l.nearestUniversity) LIKE LOWER(CONCAT('%', :university, '%'))")
@@ -99,6 +183,15 @@ Page<Listing> searchListings(@Param("city") String city,
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' ORDER BY l.viewCount DESC")
     Page<Listing> findMostViewed(Pageable pageable);
     
+    // Most viewed within a city and/or near a university (null: any), matched like trending groups
+    @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND " +
+           "(:city IS NULL OR LOWER(l.city) = LOWER(:city)) AND " +
+           "(:university IS NULL OR LOWER(l.nearestUniversity) = LOWER(:university)) " +
+           "ORDER BY l.viewCount DESC, l.id DESC")
+    Page<Listing> findMostViewedIn(@Param("city") String city,
+                                   @Param("university") String university,
+                                   Pageable pageable);
+    
     @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' ORDER BY l.favoriteCount DESC")
     Page<Listing> findMostFavorited(Pageable pageable);
     
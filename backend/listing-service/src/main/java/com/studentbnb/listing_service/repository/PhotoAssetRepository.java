@@ -0,0 +1,30 @@
+package com.studentbnb.listing_service.repository;
+
+import com.studentbnb.listing_service.entity.PhotoAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PhotoAssetRepository extends JpaRepository<PhotoAsset, String> {
+
+    // Single statements, so the row lock serialises concurrent uploads and deletes of one image
+    @Query("SELECT a.photoUrl FROM PhotoAsset a WHERE a.contentHash = :contentHash")
+    Optional<String> findPhotoUrl(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query("UPDATE PhotoAsset a SET a.referenceCount = a.referenceCount + 1 WHERE a.contentHash = :contentHash")
+    int addReference(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query("UPDATE PhotoAsset a SET a.referenceCount = a.referenceCount - 1 WHERE a.contentHash = :contentHash AND a.referenceCount > 0")
+    int removeReference(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query("DELETE FROM PhotoAsset a WHERE a.contentHash = :contentHash AND a.referenceCount = 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+}
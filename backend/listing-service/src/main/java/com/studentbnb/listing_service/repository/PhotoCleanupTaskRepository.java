@@ -0,0 +1,16 @@
+package com.studentbnb.listing_service.repository;
+
+import com.studentbnb.listing_service.entity.PhotoCleanupTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PhotoCleanupTaskRepository extends JpaRepository<PhotoCleanupTask, Long> {
+
+    // Oldest due tasks first
+    List<PhotoCleanupTask> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(LocalDateTime now, Pageable pageable);
+}
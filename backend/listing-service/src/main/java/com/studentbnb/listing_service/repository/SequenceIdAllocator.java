@@ -0,0 +1,67 @@
+package com.studentbnb.listing_service.repository;
+
+import com.studentbnb.listing_service.entity.IdSequences;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids for rows inserted with plain JDBC (view tracking, bulk imports).
+ * Takes blocks of IdSequences.ALLOCATION_SIZE from the table's sequence
+ * exactly like Hibernate's pooled-lo optimizer, so these ids never collide
+ * with the ones entity inserts draw from the same sequence, and a batch of
+ * n rows costs about n / ALLOCATION_SIZE sequence calls.
+ */
+@Component
+public class SequenceIdAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public long next(String sequence) {
+        return next(sequence, 1)[0];
+    }
+
+    // count ids from the sequence, ascending; they need not be contiguous
+    public long[] next(String sequence, int count) {
+        long[] ids = new long[count];
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+        synchronized (block) {
+            for (int i = 0; i < count; i++) {
+                if (block.next == block.end) {
+                    long start = nextSequenceValue(sequence);
+                    block.next = start;
+                    block.end = start + IdSequences.ALLOCATION_SIZE;
+                }
+                ids[i] = block.next++;
+            }
+        }
+        return ids;
+    }
+
+    private long nextSequenceValue(String sequence) {
+        String sql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(sequence);
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("Sequence " + sequence + " returned no value");
+        }
+        return value;
+    }
+
+    // Unused ids [next, end) of the current block
+    private static class Block {
+        long next;
+        long end;
+    }
+}
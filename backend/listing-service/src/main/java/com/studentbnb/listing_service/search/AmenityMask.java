@@ -0,0 +1,109 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.entity.AmenityType;
+import com.studentbnb.listing_service.entity.ListingAmenity;
+
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Encodes a set of amenities as a long with one bit per AmenityType ordinal.
+ *
+ * "Has every required amenity" becomes (mask & required) == required and
+ * "how many preferred amenities" becomes a popcount, so amenity filtering
+ * never has to look at listing_amenities rows. Masks are persisted in
+ * listings.amenity_mask, so AmenityType values must only ever be appended.
+ */
+public final class AmenityMask {
+
+    public static final long NONE = 0L;
+
+    static {
+        if (AmenityType.values().length > Long.SIZE) {
+            throw new IllegalStateException("AmenityType no longer fits in a 64-bit mask");
+        }
+    }
+
+    private AmenityMask() {
+    }
+
+    public static long of(Collection<AmenityType> types) {
+        long mask = NONE;
+        if (types != null) {
+            for (AmenityType type : types) {
+                if (type != null) {
+                    mask |= bit(type);
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Only amenities currently marked available count
+    public static long ofAmenities(Collection<ListingAmenity> amenities) {
+        long mask = NONE;
+        if (amenities != null) {
+            for (ListingAmenity amenity : amenities) {
+                if (amenity.getAmenityType() != null && !Boolean.FALSE.equals(amenity.getIsAvailable())) {
+                    mask |= bit(amenity.getAmenityType());
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static long bit(AmenityType type) {
+        return 1L << type.ordinal();
+    }
+
+    public static boolean containsAll(long mask, long required) {
+        return (mask & required) == required;
+    }
+
+    public static int countShared(long mask, long wanted) {
+        return Long.bitCount(mask & wanted);
+    }
+
+    public static EnumSet<AmenityType> toTypes(long mask) {
+        EnumSet<AmenityType> types = EnumSet.noneOf(AmenityType.class);
+        for (AmenityType type : AmenityType.values()) {
+            if ((mask & bit(type)) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Counts, per amenity, how many masks were added. Each mask is split
+     * into bytes and only a histogram of byte values per byte position is
+     * kept, so adding a mask costs one increment per byte in use however
+     * many amenities it has, without a data-dependent loop. The histograms
+     * are expanded into per-amenity counts on demand.
+     */
+    public static final class Tally {
+
+        private static final int BYTES = (AmenityType.values().length + Byte.SIZE - 1) / Byte.SIZE;
+
+        private final long[][] histograms = new long[BYTES][256];
+
+        public void add(long mask) {
+            for (int b = 0; b < BYTES; b++) {
+                histograms[b][(int) (mask >>> (b * Byte.SIZE)) & 0xFF]++;
+            }
+        }
+
+        public long count(AmenityType type) {
+            int bit = type.ordinal();
+            long[] histogram = histograms[bit / Byte.SIZE];
+            int flag = 1 << (bit % Byte.SIZE);
+            long count = 0;
+            for (int value = flag; value < 256; value++) {
+                if ((value & flag) != 0) {
+                    count += histogram[value];
+                }
+            }
+            return count;
+        }
+    }
+}
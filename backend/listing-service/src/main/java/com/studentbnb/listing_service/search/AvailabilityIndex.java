@@ -0,0 +1,229 @@
+package com.studentbnb.listing_service.search;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Availability windows of indexed listings, answering "available for the
+ * whole of [moveIn, moveOut]" (available on a date being the one-day
+ * window): listings whose window starts by moveIn and lasts through
+ * moveOut. Open ends count as unbounded.
+ *
+ * That is a two-sided range query over (start, end) points, served by a
+ * priority search tree: nodes split on start like a balanced search tree
+ * and are heap-ordered on end, so a query walks down the starts that can
+ * qualify and stops at the first end that falls short, in O(log n + k).
+ * The tree is static. Writes since the last build go to a pending set
+ * that queries scan directly, and the tree nodes they replace are marked
+ * stale; the tree is rebuilt once those reach a sixteenth of the index, so
+ * bulk loads rebuild a logarithmic number of times and a query scans at
+ * most that many pending windows, a cheap bitset walk beside the tree.
+ * Not thread-safe; callers hold ListingSearchIndex's lock.
+ */
+public class AvailabilityIndex {
+
+    private static final int MIN_REBUILD = 64;
+    private static final int REBUILD_FRACTION = 16;
+    private static final int OPEN_START = Integer.MIN_VALUE;
+    private static final int OPEN_END = Integer.MAX_VALUE;
+
+    // Current window of every document, in epoch days
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private final BitSet present = new BitSet();
+    private int size;
+
+    // Tree nodes: document, window, children and the smallest start in the right subtree
+    private int[] nodeDoc = new int[0];
+    private int[] nodeStart = new int[0];
+    private int[] nodeEnd = new int[0];
+    private int[] nodeLeft = new int[0];
+    private int[] nodeRight = new int[0];
+    private int[] nodeRightStart = new int[0];
+    private int nodes;
+
+    private final BitSet inTree = new BitSet();
+    private final BitSet stale = new BitSet();
+    private final BitSet pending = new BitSet();
+    private int staleCount;
+    private int pendingCount;
+
+    public void put(int docId, LocalDate availableFrom, LocalDate availableUntil) {
+        if (docId >= starts.length) {
+            starts = Arrays.copyOf(starts, Math.max(docId + 1, starts.length * 2));
+            ends = Arrays.copyOf(ends, starts.length);
+        }
+        starts[docId] = availableFrom == null ? OPEN_START : (int) availableFrom.toEpochDay();
+        ends[docId] = availableUntil == null ? OPEN_END : (int) availableUntil.toEpochDay();
+        if (!present.get(docId)) {
+            present.set(docId);
+            size++;
+        }
+        markStale(docId);
+        if (!pending.get(docId)) {
+            pending.set(docId);
+            pendingCount++;
+        }
+        rebuildIfDue();
+    }
+
+    public void remove(int docId) {
+        if (!present.get(docId)) {
+            return;
+        }
+        present.clear(docId);
+        size--;
+        markStale(docId);
+        if (pending.get(docId)) {
+            pending.clear(docId);
+            pendingCount--;
+        }
+        rebuildIfDue();
+    }
+
+    public void clear() {
+        starts = new int[0];
+        ends = new int[0];
+        present.clear();
+        size = 0;
+        nodes = 0;
+        inTree.clear();
+        stale.clear();
+        pending.clear();
+        staleCount = 0;
+        pendingCount = 0;
+    }
+
+    // Ascending ids of the documents available for the whole of [moveIn, moveOut]
+    public int[] covering(LocalDate moveIn, LocalDate moveOut) {
+        int first = (int) moveIn.toEpochDay();
+        int last = (int) moveOut.toEpochDay();
+        // Hits land in a bitset, which hands them back in id order without sorting
+        long[] hits = new long[(starts.length >> 6) + 1];
+
+        // Walk the tree with an explicit stack of node indexes
+        int[] stack = new int[64];
+        int top = 0;
+        if (nodes > 0) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeEnd[node] < last) {
+                // Heap order: nothing below lasts longer
+                continue;
+            }
+            if (nodeStart[node] <= first && !stale.get(nodeDoc[node])) {
+                hits[nodeDoc[node] >> 6] |= 1L << nodeDoc[node];
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (nodeLeft[node] >= 0) {
+                stack[top++] = nodeLeft[node];
+            }
+            if (nodeRight[node] >= 0 && nodeRightStart[node] <= first) {
+                stack[top++] = nodeRight[node];
+            }
+        }
+
+        for (int docId = pending.nextSetBit(0); docId >= 0; docId = pending.nextSetBit(docId + 1)) {
+            if (starts[docId] <= first && ends[docId] >= last) {
+                hits[docId >> 6] |= 1L << docId;
+            }
+        }
+
+        int count = 0;
+        for (long word : hits) {
+            count += Long.bitCount(word);
+        }
+        int[] result = new int[count];
+        int n = 0;
+        for (int i = 0; i < hits.length; i++) {
+            for (long word = hits[i]; word != 0; word &= word - 1) {
+                result[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void markStale(int docId) {
+        if (inTree.get(docId) && !stale.get(docId)) {
+            stale.set(docId);
+            staleCount++;
+        }
+    }
+
+    private void rebuildIfDue() {
+        if (pendingCount + staleCount > Math.max(MIN_REBUILD, size / REBUILD_FRACTION)) {
+            rebuild();
+        }
+    }
+
+    // Build the tree over every present document; pending and stale start over empty
+    private void rebuild() {
+        // Sort by start through packed (start, docId) longs
+        long[] packed = new long[size];
+        int n = 0;
+        for (int docId = present.nextSetBit(0); docId >= 0; docId = present.nextSetBit(docId + 1)) {
+            packed[n++] = ((long) starts[docId] << 32) | docId;
+        }
+        Arrays.sort(packed);
+        int[] docs = new int[n];
+        int[] docStarts = new int[n];
+        int[] docEnds = new int[n];
+        for (int i = 0; i < n; i++) {
+            docs[i] = (int) packed[i];
+            docStarts[i] = starts[docs[i]];
+            docEnds[i] = ends[docs[i]];
+        }
+
+        nodeDoc = new int[n];
+        nodeStart = new int[n];
+        nodeEnd = new int[n];
+        nodeLeft = new int[n];
+        nodeRight = new int[n];
+        nodeRightStart = new int[n];
+        nodes = 0;
+        build(docs, docStarts, docEnds, 0, n);
+
+        inTree.clear();
+        inTree.or(present);
+        stale.clear();
+        pending.clear();
+        staleCount = 0;
+        pendingCount = 0;
+    }
+
+    // Node for docs[lo..hi), sorted by start: the longest-lasting window on top, the rest halved by start
+    private int build(int[] docs, int[] docStarts, int[] docEnds, int lo, int hi) {
+        if (lo >= hi) {
+            return -1;
+        }
+        int best = lo;
+        for (int i = lo + 1; i < hi; i++) {
+            if (docEnds[i] > docEnds[best]) {
+                best = i;
+            }
+        }
+        int node = nodes++;
+        nodeDoc[node] = docs[best];
+        nodeStart[node] = docStarts[best];
+        nodeEnd[node] = docEnds[best];
+        // Take it out while keeping the rest in start order
+        System.arraycopy(docs, lo, docs, lo + 1, best - lo);
+        System.arraycopy(docStarts, lo, docStarts, lo + 1, best - lo);
+        System.arraycopy(docEnds, lo, docEnds, lo + 1, best - lo);
+
+        int mid = (lo + 1 + hi) >>> 1;
+        nodeRightStart[node] = mid < hi ? docStarts[mid] : OPEN_END;
+        nodeLeft[node] = build(docs, docStarts, docEnds, lo + 1, mid);
+        nodeRight[node] = build(docs, docStarts, docEnds, mid, hi);
+        return node;
+    }
+}
@@ -0,0 +1,176 @@
+package com.studentbnb.listing_service.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Uniform latitude/longitude grid over document coordinates.
+ *
+ * Points are bucketed into cells of CELL_DEGREES on each side (about 1.1 km
+ * of latitude). A radius query visits only the cells overlapping the
+ * circle's bounding box and refines each point with the haversine distance.
+ * Cells keep ids and coordinates in parallel primitive arrays so the
+ * refinement loop does not chase object pointers. Not thread-safe; callers
+ * hold ListingSearchIndex's lock.
+ */
+public class GeoGridIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double CELL_DEGREES = 0.01;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    @FunctionalInterface
+    public interface HitConsumer {
+        void accept(int docId, double distanceKm);
+    }
+
+    public void put(int docId, double latitude, double longitude) {
+        cells.computeIfAbsent(cellKey(latIndex(latitude), lonIndex(longitude)), key -> new Cell())
+            .add(docId, latitude, longitude);
+    }
+
+    public void remove(int docId, double latitude, double longitude) {
+        long key = cellKey(latIndex(latitude), lonIndex(longitude));
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(docId) && cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+    }
+
+    // Visit every point within radiusKm of the origin
+    public void withinRadius(double latitude, double longitude, double radiusKm, HitConsumer consumer) {
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        // Near the poles the longitude span covers the whole circle
+        double lonDelta = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE_LAT * cosLat));
+
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        double sinLat = Math.sin(Math.toRadians(latitude));
+
+        visitBox(minLat, maxLat, longitude - lonDelta, longitude + lonDelta, cell -> {
+            for (int i = 0; i < cell.size; i++) {
+                double km = distanceKm(latitude, longitude, sinLat, cosLat, cell.lats[i], cell.lons[i]);
+                if (km <= radiusKm) {
+                    consumer.accept(cell.docs[i], km);
+                }
+            }
+        });
+    }
+
+    // Visit every point inside a latitude/longitude box
+    public void withinBox(double minLat, double maxLat, double minLon, double maxLon, HitConsumer consumer) {
+        visitBox(minLat, maxLat, minLon, maxLon, cell -> {
+            for (int i = 0; i < cell.size; i++) {
+                if (cell.lats[i] >= minLat && cell.lats[i] <= maxLat && lonWithin(cell.lons[i], minLon, maxLon)) {
+                    consumer.accept(cell.docs[i], 0);
+                }
+            }
+        });
+    }
+
+    private void visitBox(double minLat, double maxLat, double minLon, double maxLon, Consumer<Cell> visitor) {
+        int latFrom = latIndex(minLat);
+        int latTo = latIndex(maxLat);
+        long lonSpan = (long) Math.floor((maxLon + 180) / CELL_DEGREES) - (long) Math.floor((minLon + 180) / CELL_DEGREES) + 1;
+        lonSpan = Math.min(lonSpan, LON_CELLS);
+        long boxCells = (long) (latTo - latFrom + 1) * lonSpan;
+
+        // Very large boxes touch fewer occupied cells than grid cells, so scan the occupied ones
+        if (boxCells > cells.size()) {
+            for (Cell cell : cells.values()) {
+                visitor.accept(cell);
+            }
+            return;
+        }
+
+        int lonFrom = lonIndex(minLon);
+        for (int lat = latFrom; lat <= latTo; lat++) {
+            for (int step = 0; step < lonSpan; step++) {
+                Cell cell = cells.get(cellKey(lat, (lonFrom + step) % LON_CELLS));
+                if (cell != null) {
+                    visitor.accept(cell);
+                }
+            }
+        }
+    }
+
+    private static double distanceKm(double lat1, double lon1, double sinLat1, double cosLat1, double lat2, double lon2) {
+        double phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - Math.toRadians(lat1);
+        double dLambda = Math.toRadians(lon2 - lon1);
+        double sinDPhi = Math.sin(dPhi / 2);
+        double sinDLambda = Math.sin(dLambda / 2);
+        double a = sinDPhi * sinDPhi + cosLat1 * Math.cos(phi2) * sinDLambda * sinDLambda;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double rad = Math.toRadians(lat1);
+        return distanceKm(lat1, lon1, Math.sin(rad), Math.cos(rad), lat2, lon2);
+    }
+
+    private static boolean lonWithin(double lon, double minLon, double maxLon) {
+        if (maxLon - minLon >= 360) {
+            return true;
+        }
+        double offset = ((lon - minLon) % 360 + 360) % 360;
+        return offset <= maxLon - minLon;
+    }
+
+    private static int latIndex(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / CELL_DEGREES);
+    }
+
+    private static int lonIndex(double longitude) {
+        int index = (int) Math.floor((longitude + 180) / CELL_DEGREES);
+        return Math.floorMod(index, LON_CELLS);
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    private static class Cell {
+        private int[] docs = new int[4];
+        private double[] lats = new double[4];
+        private double[] lons = new double[4];
+        private int size;
+
+        void add(int doc, double lat, double lon) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                lats = Arrays.copyOf(lats, size * 2);
+                lons = Arrays.copyOf(lons, size * 2);
+            }
+            docs[size] = doc;
+            lats[size] = lat;
+            lons[size] = lon;
+            size++;
+        }
+
+        // Swap-remove: order inside a cell does not matter
+        boolean remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    lats[i] = lats[size];
+                    lons[i] = lons[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
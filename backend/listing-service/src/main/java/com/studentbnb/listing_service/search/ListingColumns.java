@@ -0,0 +1,344 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.dto.SearchFacetsResponse;
+import com.studentbnb.listing_service.entity.AmenityType;
+import com.studentbnb.listing_service.entity.LeaseType;
+import com.studentbnb.listing_service.entity.PropertyType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar copy of the scalar fields of indexed listings, one primitive
+ * array per field, indexed by document id.
+ *
+ * Amounts are whole cents (square feet in hundredths) in long columns,
+ * enums are byte ordinals, dates are epoch days and the boolean flags are
+ * packed into one byte. A missing value is a sentinel that no filter
+ * accepts. Scans never touch the ListingResponse objects or BigDecimals:
+ * each range filter is its own branch-free compaction pass over the
+ * candidate ids, and facet counting and stats are single passes over a few
+ * arrays. Not thread-safe; callers hold ListingSearchIndex's lock.
+ */
+public class ListingColumns {
+
+    // Rent facet: buckets of 250 up to 3000, then one open-ended bucket
+    public static final int RENT_BUCKET_WIDTH = 250;
+    public static final int RENT_BUCKETS = 13;
+
+    // Upper bound for bedrooms/bathrooms, matching the @Max on Listing
+    public static final int MAX_ROOMS = 10;
+
+    // Bits of the flags column
+    public static final int PETS_ALLOWED = 1;
+    public static final int SMOKING_ALLOWED = 1 << 1;
+    public static final int FURNISHED = 1 << 2;
+    public static final int UTILITIES_INCLUDED = 1 << 3;
+
+    private static final byte NO_VALUE = -1;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private static final PropertyType[] PROPERTY_TYPES = PropertyType.values();
+    private static final LeaseType[] LEASE_TYPES = LeaseType.values();
+    private static final AmenityType[] AMENITY_TYPES = AmenityType.values();
+
+    private long[] amenityMasks;
+    private long[] rentCents;
+    private long[] depositCents;
+    private long[] squareFeetHundredths;
+    private float[] distanceToCampusKm;
+    private int[] availableFromDays;
+    private int[] availableUntilDays;
+    private byte[] propertyTypes;
+    private byte[] leaseTypes;
+    private byte[] bedrooms;
+    private byte[] leaseMonths;
+    private byte[] rentBuckets;
+    private byte[] flags;
+
+    public ListingColumns(int capacity) {
+        allocate(capacity);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= rentCents.length) {
+            return;
+        }
+        amenityMasks = Arrays.copyOf(amenityMasks, capacity);
+        rentCents = Arrays.copyOf(rentCents, capacity);
+        depositCents = Arrays.copyOf(depositCents, capacity);
+        squareFeetHundredths = Arrays.copyOf(squareFeetHundredths, capacity);
+        distanceToCampusKm = Arrays.copyOf(distanceToCampusKm, capacity);
+        availableFromDays = Arrays.copyOf(availableFromDays, capacity);
+        availableUntilDays = Arrays.copyOf(availableUntilDays, capacity);
+        propertyTypes = Arrays.copyOf(propertyTypes, capacity);
+        leaseTypes = Arrays.copyOf(leaseTypes, capacity);
+        bedrooms = Arrays.copyOf(bedrooms, capacity);
+        leaseMonths = Arrays.copyOf(leaseMonths, capacity);
+        rentBuckets = Arrays.copyOf(rentBuckets, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    public void clear(int capacity) {
+        allocate(capacity);
+    }
+
+    public void set(int docId, ListingResponse listing) {
+        amenityMasks[docId] = AmenityMask.ofAmenities(listing.getAmenities());
+        rentCents[docId] = amount(listing.getRent(), RoundingMode.HALF_UP);
+        depositCents[docId] = amount(listing.getSecurityDeposit(), RoundingMode.HALF_UP);
+        squareFeetHundredths[docId] = amount(listing.getSquareFeet(), RoundingMode.HALF_UP);
+        distanceToCampusKm[docId] = listing.getDistanceToCampusKm() == null ? Float.NaN : listing.getDistanceToCampusKm().floatValue();
+        // An open start or end of availability never limits a window
+        availableFromDays[docId] = listing.getAvailableFrom() == null ? Integer.MIN_VALUE : (int) listing.getAvailableFrom().toEpochDay();
+        availableUntilDays[docId] = listing.getAvailableUntil() == null ? Integer.MAX_VALUE : (int) listing.getAvailableUntil().toEpochDay();
+        propertyTypes[docId] = listing.getPropertyType() == null ? NO_VALUE : (byte) listing.getPropertyType().ordinal();
+        leaseTypes[docId] = listing.getLeaseType() == null ? NO_VALUE : (byte) listing.getLeaseType().ordinal();
+        bedrooms[docId] = listing.getBedrooms() == null ? NO_VALUE : (byte) Math.min(MAX_ROOMS, listing.getBedrooms());
+        leaseMonths[docId] = listing.getLeaseDurationMonths() == null ? NO_VALUE
+            : (byte) Math.min(Byte.MAX_VALUE, listing.getLeaseDurationMonths());
+        rentBuckets[docId] = rentBucket(listing.getRent());
+        flags[docId] = (byte) ((Boolean.TRUE.equals(listing.getPetsAllowed()) ? PETS_ALLOWED : 0)
+            | (Boolean.TRUE.equals(listing.getSmokingAllowed()) ? SMOKING_ALLOWED : 0)
+            | (Boolean.TRUE.equals(listing.getFurnished()) ? FURNISHED : 0)
+            | (Boolean.TRUE.equals(listing.getUtilitiesIncluded()) ? UTILITIES_INCLUDED : 0));
+    }
+
+    public long amenityMask(int docId) {
+        return amenityMasks[docId];
+    }
+
+    /**
+     * Compact ids[0..size) down to the documents passing every range and
+     * amenity filter of the request, in place and in order.
+     *
+     * @return number of ids kept
+     */
+    public int retainMatching(int[] ids, int size, ListingSearchRequest request) {
+        long required = AmenityMask.of(request.getRequiredAmenities());
+        if (required != AmenityMask.NONE) {
+            size = keepAllBits(ids, size, amenityMasks, required);
+        }
+        if (request.getMinRent() != null || request.getMaxRent() != null) {
+            size = keepBetween(ids, size, rentCents, lowerBound(request.getMinRent()), upperBound(request.getMaxRent()));
+        }
+        if (request.getMinSquareFeet() != null || request.getMaxSquareFeet() != null) {
+            size = keepBetween(ids, size, squareFeetHundredths,
+                lowerBound(request.getMinSquareFeet()), upperBound(request.getMaxSquareFeet()));
+        }
+        if (request.getMaxSecurityDeposit() != null) {
+            size = keepBetween(ids, size, depositCents, NO_AMOUNT + 1, upperBound(request.getMaxSecurityDeposit()));
+        }
+        if (request.getMinLeaseDuration() != null || request.getMaxLeaseDuration() != null) {
+            int min = request.getMinLeaseDuration() == null ? 0 : request.getMinLeaseDuration();
+            int max = request.getMaxLeaseDuration() == null ? Integer.MAX_VALUE : request.getMaxLeaseDuration();
+            size = keepBetween(ids, size, leaseMonths, Math.max(0, min), max);
+        }
+        if (request.getMaxDistanceToCampus() != null) {
+            size = keepAtMost(ids, size, distanceToCampusKm, request.getMaxDistanceToCampus().floatValue());
+        }
+        if (request.getAvailableFrom() != null || request.getAvailableUntil() != null) {
+            // Available for the whole window: started by its first day and lasting through its last.
+            // Also re-checks candidates the AvailabilityIndex supplied, a pass over its hits only
+            LocalDate start = request.getAvailableFrom() != null ? request.getAvailableFrom() : request.getAvailableUntil();
+            LocalDate end = request.getAvailableUntil() != null ? request.getAvailableUntil() : request.getAvailableFrom();
+            size = keepBetween(ids, size, availableFromDays, Integer.MIN_VALUE, (int) start.toEpochDay());
+            size = keepBetween(ids, size, availableUntilDays, (int) end.toEpochDay(), Integer.MAX_VALUE);
+        }
+        return size;
+    }
+
+    // Counts per facet value over ids[0..size), one pass over the facet columns
+    public SearchFacetsResponse facets(int[] ids, int size) {
+        long[] byPropertyType = new long[PROPERTY_TYPES.length];
+        long[] byLeaseType = new long[LEASE_TYPES.length];
+        long[] byBedrooms = new long[MAX_ROOMS + 1];
+        long[] byRentBucket = new long[RENT_BUCKETS];
+        AmenityMask.Tally byAmenity = new AmenityMask.Tally();
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            count(byPropertyType, propertyTypes[docId]);
+            count(byLeaseType, leaseTypes[docId]);
+            count(byBedrooms, bedrooms[docId]);
+            count(byRentBucket, rentBuckets[docId]);
+            byAmenity.add(amenityMasks[docId]);
+        }
+
+        Map<PropertyType, Long> propertyTypeCounts = new LinkedHashMap<>();
+        for (PropertyType type : PROPERTY_TYPES) {
+            propertyTypeCounts.put(type, byPropertyType[type.ordinal()]);
+        }
+        Map<LeaseType, Long> leaseTypeCounts = new LinkedHashMap<>();
+        for (LeaseType type : LEASE_TYPES) {
+            leaseTypeCounts.put(type, byLeaseType[type.ordinal()]);
+        }
+        Map<Integer, Long> bedroomCounts = new LinkedHashMap<>();
+        for (int rooms = 0; rooms <= MAX_ROOMS; rooms++) {
+            bedroomCounts.put(rooms, byBedrooms[rooms]);
+        }
+        List<SearchFacetsResponse.RentBucket> rentBucketCounts = new ArrayList<>(RENT_BUCKETS);
+        for (int bucket = 0; bucket < RENT_BUCKETS; bucket++) {
+            BigDecimal max = bucket == RENT_BUCKETS - 1 ? null : BigDecimal.valueOf((long) (bucket + 1) * RENT_BUCKET_WIDTH);
+            rentBucketCounts.add(new SearchFacetsResponse.RentBucket(
+                BigDecimal.valueOf((long) bucket * RENT_BUCKET_WIDTH), max, byRentBucket[bucket]));
+        }
+        Map<AmenityType, Long> amenityCounts = new LinkedHashMap<>();
+        for (AmenityType type : AMENITY_TYPES) {
+            amenityCounts.put(type, byAmenity.count(type));
+        }
+        return new SearchFacetsResponse(size, propertyTypeCounts, leaseTypeCounts, bedroomCounts,
+            rentBucketCounts, amenityCounts);
+    }
+
+    // Rent distribution and feature shares over ids[0..size), for the admin dashboard
+    public Map<String, Object> stats(int[] ids, int size) {
+        long[] rents = new long[size];
+        int withRent = 0;
+        long rentSum = 0;
+        long bedroomSum = 0;
+        int withBedrooms = 0;
+        int pets = 0;
+        int furnished = 0;
+        int utilities = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            long rent = rentCents[docId];
+            if (rent != NO_AMOUNT) {
+                rents[withRent++] = rent;
+                rentSum += rent;
+            }
+            int rooms = bedrooms[docId];
+            if (rooms != NO_VALUE) {
+                bedroomSum += rooms;
+                withBedrooms++;
+            }
+            int bits = flags[docId];
+            pets += bits & PETS_ALLOWED;
+            furnished += (bits & FURNISHED) >>> 2;
+            utilities += (bits & UTILITIES_INCLUDED) >>> 3;
+        }
+        Arrays.sort(rents, 0, withRent);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeListings", size);
+        stats.put("averageRent", withRent == 0 ? null : fromCents(Math.round((double) rentSum / withRent)));
+        stats.put("medianRent", withRent == 0 ? null : fromCents(rents[withRent / 2]));
+        stats.put("minRent", withRent == 0 ? null : fromCents(rents[0]));
+        stats.put("maxRent", withRent == 0 ? null : fromCents(rents[withRent - 1]));
+        stats.put("averageBedrooms", withBedrooms == 0 ? null : Math.round(100.0 * bedroomSum / withBedrooms) / 100.0);
+        stats.put("petsAllowed", pets);
+        stats.put("furnished", furnished);
+        stats.put("utilitiesIncluded", utilities);
+        return stats;
+    }
+
+    private void allocate(int capacity) {
+        amenityMasks = new long[capacity];
+        rentCents = new long[capacity];
+        depositCents = new long[capacity];
+        squareFeetHundredths = new long[capacity];
+        distanceToCampusKm = new float[capacity];
+        availableFromDays = new int[capacity];
+        availableUntilDays = new int[capacity];
+        propertyTypes = new byte[capacity];
+        leaseTypes = new byte[capacity];
+        bedrooms = new byte[capacity];
+        leaseMonths = new byte[capacity];
+        rentBuckets = new byte[capacity];
+        flags = new byte[capacity];
+    }
+
+    // The compaction loops always write and only advance on a match, so the JIT emits no data-dependent branch
+    private static int keepBetween(int[] ids, int size, long[] column, long min, long max) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            long value = column[docId];
+            ids[kept] = docId;
+            kept += (value >= min & value <= max) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static int keepBetween(int[] ids, int size, int[] column, int min, int max) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            int value = column[docId];
+            ids[kept] = docId;
+            kept += (value >= min & value <= max) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static int keepBetween(int[] ids, int size, byte[] column, int min, int max) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            int value = column[docId];
+            ids[kept] = docId;
+            kept += (value >= min & value <= max) ? 1 : 0;
+        }
+        return kept;
+    }
+
+    // NaN (no distance) fails the comparison
+    private static int keepAtMost(int[] ids, int size, float[] column, float max) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            ids[kept] = docId;
+            kept += column[docId] <= max ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static int keepAllBits(int[] ids, int size, long[] column, long required) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int docId = ids[i];
+            ids[kept] = docId;
+            kept += (column[docId] & required) == required ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static void count(long[] counts, byte value) {
+        if (value != NO_VALUE) {
+            counts[value]++;
+        }
+    }
+
+    private static long amount(BigDecimal value, RoundingMode rounding) {
+        return value == null ? NO_AMOUNT : value.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    // Inclusive bounds in cents; the lower bound always excludes missing amounts
+    private static long lowerBound(BigDecimal min) {
+        return min == null ? NO_AMOUNT + 1 : amount(min, RoundingMode.CEILING);
+    }
+
+    private static long upperBound(BigDecimal max) {
+        return max == null ? Long.MAX_VALUE : amount(max, RoundingMode.FLOOR);
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static byte rentBucket(BigDecimal rent) {
+        if (rent == null || rent.signum() < 0) {
+            return NO_VALUE;
+        }
+        long bucket = rent.longValue() / RENT_BUCKET_WIDTH;
+        return (byte) Math.min(RENT_BUCKETS - 1, bucket);
+    }
+}
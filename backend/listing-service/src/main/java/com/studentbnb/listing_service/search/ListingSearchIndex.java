@@ -0,0 +1,606 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.dto.SearchFacetsResponse;
+import com.studentbnb.listing_service.entity.ListingStatus;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-resident inverted index over ACTIVE listings.
+ *
+ * Every categorical attribute (enums, room counts, flags and location
+ * tokens) maps to a posting list of internal document ids. A search
+ * intersects the posting lists of its filters, smallest first, and only
+ * then checks continuous ranges (rent, square feet, dates, distances) and
+ * required amenities against the ListingColumns of the surviving
+ * candidates; preferred amenities rank by popcount of the amenity masks
+ * there. Keywords go through a BM25 TextIndex over title and description:
+ * listings holding every keyword join the intersection and, sorted by
+ * relevance, rank by their score. Facet counts and stats are scans over
+ * the same columns, so only ranking reads the stored documents.
+ * Coordinates are additionally bucketed in a GeoGridIndex for radius
+ * queries, and availability windows kept in an AvailabilityIndex, which
+ * supplies the candidates of a window query that has no narrower filter.
+ */
+public class ListingSearchIndex {
+
+    private static final int MAX_ROOMS = ListingColumns.MAX_ROOMS;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final GeoGridIndex geo = new GeoGridIndex();
+    private final TextIndex text = new TextIndex();
+    private final AvailabilityIndex availability = new AvailabilityIndex();
+    private PostingList allDocs = new PostingList();
+    private final Map<Long, Integer> docIdsByListingId = new HashMap<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private ListingResponse[] docs = new ListingResponse[1024];
+    private final ListingColumns columns = new ListingColumns(1024);
+    private int nextDocId;
+
+    // Add or replace a listing; listings that are not ACTIVE are dropped
+    public void put(ListingResponse listing) {
+        if (listing.getStatus() != ListingStatus.ACTIVE) {
+            remove(listing.getId());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByListingId.get(listing.getId());
+            if (docId != null) {
+                unindex(docId);
+            } else {
+                docId = freeDocIds.isEmpty() ? nextDocId++ : freeDocIds.pop();
+                if (docId >= docs.length) {
+                    docs = Arrays.copyOf(docs, docs.length * 2);
+                    columns.ensureCapacity(docs.length);
+                }
+                docIdsByListingId.put(listing.getId(), docId);
+            }
+
+            docs[docId] = listing;
+            columns.set(docId, listing);
+            text.put(docId, listing.getTitle(), listing.getDescription());
+            availability.put(docId, listing.getAvailableFrom(), listing.getAvailableUntil());
+            allDocs.add(docId);
+            if (hasCoordinates(listing)) {
+                geo.put(docId, listing.getLatitude(), listing.getLongitude());
+            }
+            for (String term : termsOf(listing)) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long listingId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByListingId.remove(listingId);
+            if (docId != null) {
+                unindex(docId);
+                docs[docId] = null;
+                freeDocIds.push(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            geo.clear();
+            text.clear();
+            availability.clear();
+            docIdsByListingId.clear();
+            freeDocIds.clear();
+            docs = new ListingResponse[1024];
+            columns.clear(1024);
+            nextDocId = 0;
+            allDocs = new PostingList();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<ListingResponse> get(Long listingId) {
+        lock.readLock().lock();
+        try {
+            Integer docId = docIdsByListingId.get(listingId);
+            return docId == null ? Optional.empty() : Optional.of(docs[docId]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByListingId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluate a search request and return the requested window of results.
+     * Only offset + limit documents are kept in the ranking heap, so deep
+     * result sets are never fully sorted.
+     */
+    public SearchHits search(ListingSearchRequest request, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            TextIndex.Matches matches = textMatches(request);
+            return rank(candidates(request, matches), request, matches, null, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of search: the first limit results ordered strictly
+     * after the given sort key. The heap never holds more than limit
+     * documents, however far the client has scrolled.
+     */
+    public SearchHits searchAfter(ListingSearchRequest request, SortKey after, int limit) {
+        lock.readLock().lock();
+        try {
+            TextIndex.Matches matches = textMatches(request);
+            return rank(candidates(request, matches), request, matches, after, 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts over every listing the request matches, in one pass over
+     * the facet columns of the candidates.
+     */
+    public SearchFacetsResponse facets(ListingSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            int[] matches = candidates(request, textMatches(request));
+            return columns.facets(matches, columns.retainMatching(matches, matches.length, request));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rent and feature statistics over every listing in the index
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            int[] all = allDocs.toArray();
+            return columns.stats(all, all.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Position of a listing in the ordering requested, used to build search cursors
+    public SortKey sortKeyOf(ListingSearchRequest request, ListingResponse listing) {
+        lock.readLock().lock();
+        try {
+            Integer docId = docIdsByListingId.get(listing.getId());
+            return new Ordering(request, textMatches(request))
+                .keyOf(listing, docId == null ? -1 : docId, AmenityMask.ofAmenities(listing.getAmenities()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sort field a request is ordered by, after defaulting unknown values; keyword searches default to relevance
+    public static String sortField(ListingSearchRequest request) {
+        String sortBy = request.getSortBy();
+        if (sortBy == null || "relevance".equals(sortBy)) {
+            return TextAnalyzer.analyze(request.getKeywords()).isEmpty() ? "createdAt" : "relevance";
+        }
+        return switch (sortBy) {
+            case "rent", "viewCount", "favoriteCount", "distanceToCampus" -> sortBy;
+            default -> "createdAt";
+        };
+    }
+
+    // Listings inside a latitude/longitude box (e.g. a map viewport), newest first
+    public SearchHits withinBounds(double minLat, double maxLat, double minLon, double maxLon, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            DocCollector collector = new DocCollector();
+            geo.withinBox(minLat, maxLat, minLon, maxLon, collector);
+            return rank(collector.sortedDocs(), new ListingSearchRequest(), null, null, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Apply range filters to the candidates in the columns and keep the best offset + limit in a bounded heap
+    private SearchHits rank(int[] candidates, ListingSearchRequest request, TextIndex.Matches scores,
+                            SortKey after, int offset, int limit) {
+        Ordering order = new Ordering(request, scores);
+        Comparator<SortKey> byKey = order::compare;
+        int matches = columns.retainMatching(candidates, candidates.length, request);
+
+        // Keys are computed once per candidate, so heap comparisons do not re-derive them
+        int window = window(offset, limit);
+        PriorityQueue<SortKey> top = new PriorityQueue<>(Math.max(1, Math.min(window, matches)), byKey.reversed());
+        long total = 0;
+        for (int i = 0; i < matches; i++) {
+            int docId = candidates[i];
+            SortKey key = order.keyOf(docs[docId], docId, columns.amenityMask(docId));
+            if (after != null && order.compare(key, after) <= 0) {
+                continue;
+            }
+            total++;
+            if (window == 0) {
+                continue;
+            }
+            if (top.size() < window) {
+                top.add(key);
+            } else if (order.compare(key, top.peek()) < 0) {
+                top.poll();
+                top.add(key);
+            }
+        }
+
+        List<SortKey> ranked = new ArrayList<>(top);
+        ranked.sort(byKey);
+        List<ListingResponse> page = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            page.add(docs[docIdsByListingId.get(ranked.get(i).getListingId())]);
+        }
+        return new SearchHits(total, page);
+    }
+
+    /**
+     * Listings within radiusKm of a point, nearest first. Only offset + limit
+     * hits are kept in the heap, so the cost is the grid cells visited plus
+     * O(n log k) for the ranking.
+     */
+    public SearchHits nearby(double latitude, double longitude, double radiusKm, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int window = window(offset, limit);
+            // Max-heap on distance keeps the closest "window" hits; entries are {distance, docId}
+            PriorityQueue<double[]> top = new PriorityQueue<>(Math.max(1, Math.min(window, docIdsByListingId.size())),
+                (a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(b[1], a[1]));
+            long[] total = {0};
+            geo.withinRadius(latitude, longitude, radiusKm, (docId, km) -> {
+                total[0]++;
+                if (window == 0) {
+                    return;
+                }
+                if (top.size() < window) {
+                    top.add(new double[] {km, docId});
+                } else if (km < top.peek()[0]) {
+                    top.poll();
+                    top.add(new double[] {km, docId});
+                }
+            });
+
+            List<double[]> ranked = new ArrayList<>(top);
+            ranked.sort((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+            List<ListingResponse> listings = new ArrayList<>();
+            List<Double> distances = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                listings.add(docs[(int) ranked.get(i)[1]]);
+                distances.add(ranked.get(i)[0]);
+            }
+            return new SearchHits(total[0], listings, distances);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Hits kept for a page; the heaps are sized by the candidates, never by the caller's numbers alone
+    private static int window(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        try {
+            return Math.addExact(offset, limit);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Page is out of range");
+        }
+    }
+
+    // Listings holding every keyword of the request with their BM25 scores, or null without keywords
+    private TextIndex.Matches textMatches(ListingSearchRequest request) {
+        List<String> terms = TextAnalyzer.analyze(request.getKeywords());
+        return terms.isEmpty() ? null : text.match(terms);
+    }
+
+    // Posting-list intersection for every categorical filter in the request; always a fresh array
+    private int[] candidates(ListingSearchRequest request, TextIndex.Matches matches) {
+        List<int[]> sets = new ArrayList<>();
+
+        if (request.getPropertyType() != null) {
+            sets.add(postingArray("type:" + request.getPropertyType()));
+        }
+        if (request.getLeaseType() != null) {
+            sets.add(postingArray("lease:" + request.getLeaseType()));
+        }
+        if (request.getMinBedrooms() != null || request.getMaxBedrooms() != null) {
+            sets.add(rangeUnion("bed:", request.getMinBedrooms(), request.getMaxBedrooms()));
+        }
+        if (request.getMinBathrooms() != null || request.getMaxBathrooms() != null) {
+            sets.add(rangeUnion("bath:", request.getMinBathrooms(), request.getMaxBathrooms()));
+        }
+        if (request.getPetsAllowed() != null) {
+            sets.add(postingArray("pets:" + request.getPetsAllowed()));
+        }
+        if (request.getSmokingAllowed() != null) {
+            sets.add(postingArray("smoking:" + request.getSmokingAllowed()));
+        }
+        if (request.getFurnished() != null) {
+            sets.add(postingArray("furnished:" + request.getFurnished()));
+        }
+        if (request.getUtilitiesIncluded() != null) {
+            sets.add(postingArray("utilities:" + request.getUtilitiesIncluded()));
+        }
+        for (String token : TextTokenizer.tokenize(request.getCity())) {
+            sets.add(postingArray("city:" + token));
+        }
+        if (hasText(request.getState())) {
+            sets.add(postingArray("state:" + TextTokenizer.normalize(request.getState())));
+        }
+        if (hasText(request.getZipCode())) {
+            sets.add(postingArray("zip:" + zip5(request.getZipCode())));
+        }
+        for (String token : TextTokenizer.tokenize(request.getNearestUniversity())) {
+            sets.add(postingArray("uni:" + token));
+        }
+        if (matches != null) {
+            sets.add(matches.getDocIds().clone());
+        }
+        if (request.getLatitude() != null && request.getLongitude() != null && request.getRadiusKm() != null) {
+            sets.add(radiusDocs(request.getLatitude(), request.getLongitude(), request.getRadiusKm()));
+        }
+
+        if (sets.isEmpty() && (request.getAvailableFrom() != null || request.getAvailableUntil() != null)) {
+            // Nothing narrower to start from: take the window's listings from the tree rather than scan every column
+            LocalDate moveIn = request.getAvailableFrom() != null ? request.getAvailableFrom() : request.getAvailableUntil();
+            LocalDate moveOut = request.getAvailableUntil() != null ? request.getAvailableUntil() : request.getAvailableFrom();
+            sets.add(availability.covering(moveIn, moveOut));
+        }
+        if (sets.isEmpty()) {
+            return allDocs.toArray();
+        }
+
+        sets.sort(Comparator.comparingInt(set -> set.length));
+        int[] result = sets.get(0);
+        for (int i = 1; i < sets.size() && result.length > 0; i++) {
+            result = PostingList.intersect(result, sets.get(i));
+        }
+        return result;
+    }
+
+    private Set<String> termsOf(ListingResponse listing) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (listing.getPropertyType() != null) {
+            terms.add("type:" + listing.getPropertyType());
+        }
+        if (listing.getLeaseType() != null) {
+            terms.add("lease:" + listing.getLeaseType());
+        }
+        if (listing.getBedrooms() != null) {
+            terms.add("bed:" + listing.getBedrooms());
+        }
+        if (listing.getBathrooms() != null) {
+            terms.add("bath:" + listing.getBathrooms());
+        }
+        terms.add("pets:" + Boolean.TRUE.equals(listing.getPetsAllowed()));
+        terms.add("smoking:" + Boolean.TRUE.equals(listing.getSmokingAllowed()));
+        terms.add("furnished:" + Boolean.TRUE.equals(listing.getFurnished()));
+        terms.add("utilities:" + Boolean.TRUE.equals(listing.getUtilitiesIncluded()));
+        for (String token : TextTokenizer.tokenize(listing.getCity())) {
+            terms.add("city:" + token);
+        }
+        if (hasText(listing.getState())) {
+            terms.add("state:" + TextTokenizer.normalize(listing.getState()));
+        }
+        if (hasText(listing.getZipCode())) {
+            terms.add("zip:" + zip5(listing.getZipCode()));
+        }
+        for (String token : TextTokenizer.tokenize(listing.getNearestUniversity())) {
+            terms.add("uni:" + token);
+        }
+        return terms;
+    }
+
+    private void unindex(int docId) {
+        ListingResponse previous = docs[docId];
+        allDocs.remove(docId);
+        text.remove(docId);
+        availability.remove(docId);
+        if (hasCoordinates(previous)) {
+            geo.remove(docId, previous.getLatitude(), previous.getLongitude());
+        }
+        for (String term : termsOf(previous)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private int[] postingArray(String term) {
+        PostingList list = postings.get(term);
+        return list == null ? new int[0] : list.toArray();
+    }
+
+    private int[] radiusDocs(double latitude, double longitude, double radiusKm) {
+        DocCollector collector = new DocCollector();
+        geo.withinRadius(latitude, longitude, radiusKm, collector);
+        return collector.sortedDocs();
+    }
+
+    private int[] rangeUnion(String prefix, Integer min, Integer max) {
+        int lo = min != null ? Math.max(0, min) : 0;
+        int hi = max != null ? Math.min(MAX_ROOMS, max) : MAX_ROOMS;
+        List<PostingList> lists = new ArrayList<>();
+        for (int value = lo; value <= hi; value++) {
+            PostingList list = postings.get(prefix + value);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        return PostingList.union(lists);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String zip5(String zipCode) {
+        String trimmed = zipCode.trim();
+        return trimmed.length() > 5 ? trimmed.substring(0, 5) : trimmed;
+    }
+
+    private static boolean hasCoordinates(ListingResponse listing) {
+        return listing.getLatitude() != null && listing.getLongitude() != null;
+    }
+
+    // Gathers grid hits into a sorted id array so they can join posting-list intersection
+    private static class DocCollector implements GeoGridIndex.HitConsumer {
+        private int[] docs = new int[16];
+        private int size;
+
+        @Override
+        public void accept(int docId, double distanceKm) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = docId;
+        }
+
+        int[] sortedDocs() {
+            int[] sorted = Arrays.copyOf(docs, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Sort position of a document: preferred-amenity matches (when the
+     * request has preferred amenities), then the sort field, then listing id
+     * descending as the tiebreaker, so every position is unique. Relevance
+     * positions hold the BM25 score, which moves as other listings change,
+     * so a relevance cursor may skip or repeat a listing across such writes.
+     */
+    public static class SortKey {
+        private final int boost;
+        private final Comparable<?> value;
+        private final long listingId;
+
+        public SortKey(int boost, Comparable<?> value, long listingId) {
+            this.boost = boost;
+            this.value = value;
+            this.listingId = listingId;
+        }
+
+        public int getBoost() {
+            return boost;
+        }
+
+        public Comparable<?> getValue() {
+            return value;
+        }
+
+        public long getListingId() {
+            return listingId;
+        }
+    }
+
+    // Result order for one request, comparable both between documents and against a cursor key
+    private class Ordering {
+        private final String sortBy;
+        private final boolean descending;
+        private final long wanted;
+        private final TextIndex.Matches matches;
+
+        Ordering(ListingSearchRequest request, TextIndex.Matches matches) {
+            this.sortBy = sortField(request);
+            this.descending = "desc".equalsIgnoreCase(request.getSortDirection());
+            this.wanted = AmenityMask.of(request.getPreferredAmenities());
+            this.matches = matches;
+        }
+
+        SortKey keyOf(ListingResponse doc, int docId, long amenityMask) {
+            Comparable<?> value = switch (sortBy) {
+                case "relevance" -> matches == null ? 0.0 : matches.scoreOf(docId);
+                case "rent" -> doc.getRent();
+                case "viewCount" -> doc.getViewCount();
+                case "favoriteCount" -> doc.getFavoriteCount();
+                case "distanceToCampus" -> doc.getDistanceToCampusKm();
+                default -> doc.getCreatedAt();
+            };
+            return new SortKey(AmenityMask.countShared(amenityMask, wanted), value, doc.getId());
+        }
+
+        // Preferred amenities boost listings that offer more of them; nulls sort last
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        int compare(SortKey a, SortKey b) {
+            if (a.boost != b.boost) {
+                return Integer.compare(b.boost, a.boost);
+            }
+            Comparable valueA = a.value;
+            Comparable valueB = b.value;
+            if (valueA == null || valueB == null) {
+                if (valueA != valueB) {
+                    return valueA == null ? 1 : -1;
+                }
+            } else {
+                int byValue = valueA.compareTo(valueB);
+                if (byValue != 0) {
+                    return descending ? -byValue : byValue;
+                }
+            }
+            return Long.compare(b.listingId, a.listingId);
+        }
+    }
+
+    /**
+     * One window of search results plus the total number of matches.
+     */
+    public static class SearchHits {
+        private final long total;
+        private final List<ListingResponse> listings;
+        private final List<Double> distancesKm;
+
+        public SearchHits(long total, List<ListingResponse> listings) {
+            this(total, listings, null);
+        }
+
+        public SearchHits(long total, List<ListingResponse> listings, List<Double> distancesKm) {
+            this.total = total;
+            this.listings = listings;
+            this.distancesKm = distancesKm;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<ListingResponse> getListings() {
+            return listings;
+        }
+
+        // Distance of each listing from the query point, for proximity searches only
+        public List<Double> getDistancesKm() {
+            return distancesKm;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.studentbnb.listing_service.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted set of internal document ids backed by a growable int array.
+ * Not thread-safe; ListingSearchIndex guards all access with its lock.
+ */
+public class PostingList {
+
+    private int[] docs = new int[4];
+    private int size;
+
+    public boolean add(int doc) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+        docs[pos] = doc;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int doc) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    // Intersect two sorted id arrays, galloping through the larger one
+    public static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+        int[] out = new int[a.length];
+        int n = 0;
+        int from = 0;
+        for (int doc : a) {
+            int pos = gallop(b, from, doc);
+            if (pos >= b.length) {
+                break;
+            }
+            if (b[pos] == doc) {
+                out[n++] = doc;
+                pos++;
+            }
+            from = pos;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Union of several sorted id lists
+    public static int[] union(List<PostingList> lists) {
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] out = new int[total];
+        int n = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.docs, 0, out, n, list.size);
+            n += list.size;
+        }
+        Arrays.sort(out);
+        // Drop duplicates left by overlapping lists
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || out[unique - 1] != out[i]) {
+                out[unique++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, unique);
+    }
+
+    // First position >= from whose value is >= target
+    private static int gallop(int[] values, int from, int target) {
+        int step = 1;
+        int lo = from;
+        int hi = from;
+        while (hi < values.length && values[hi] < target) {
+            lo = hi + 1;
+            hi = from + step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, values.length);
+        int pos = Arrays.binarySearch(values, lo, hi, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
@@ -0,0 +1,295 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.AutocompleteSuggestion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Compressed (radix) trie of place names for search-box autocomplete.
+ *
+ * Every suggestion is a normalized value (tokens joined by single spaces)
+ * of one SuggestionType with the number of ACTIVE listings carrying it. It
+ * is reachable from the start of each of its words, so "mich" finds
+ * "University of Michigan". Each node caches the highest count below it,
+ * so a completion walks to the prefix node and then expands best-first,
+ * visiting only the branches that can still make the top results.
+ * Not thread-safe; callers guard access.
+ */
+public class SuggestionTrie {
+
+    private final Node root = new Node("");
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+    // Count one more listing for the value; blank values are ignored
+    public void add(SuggestionType type, String value) {
+        String key = normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Suggestion suggestion = suggestions.get(type + ":" + key);
+        if (suggestion == null) {
+            suggestion = new Suggestion(type, key, value.trim());
+            suggestions.put(type + ":" + key, suggestion);
+            suggestion.count = 1;
+            for (String entry : wordStarts(key)) {
+                insert(entry, suggestion);
+            }
+        } else {
+            suggestion.count++;
+            for (String entry : wordStarts(key)) {
+                refresh(entry);
+            }
+        }
+    }
+
+    // Count one listing less for the value, dropping it at zero
+    public void remove(SuggestionType type, String value) {
+        String key = normalize(value);
+        Suggestion suggestion = suggestions.get(type + ":" + key);
+        if (suggestion == null) {
+            return;
+        }
+
+        suggestion.count--;
+        if (suggestion.count > 0) {
+            for (String entry : wordStarts(key)) {
+                refresh(entry);
+            }
+            return;
+        }
+        suggestions.remove(type + ":" + key);
+        for (String entry : wordStarts(key)) {
+            delete(entry, suggestion);
+        }
+    }
+
+    /**
+     * Up to limit suggestions whose value, or one of its words, starts with
+     * the prefix, highest listing count first. A null type matches all.
+     */
+    public List<AutocompleteSuggestion> complete(String prefix, SuggestionType type, int limit) {
+        List<AutocompleteSuggestion> result = new ArrayList<>();
+        String key = normalize(prefix);
+        // A trailing space means the last word is complete
+        if (!key.isEmpty() && !prefix.isEmpty() && !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            key = key + " ";
+        }
+        Node start = key.isEmpty() ? null : find(key);
+        if (start == null) {
+            return result;
+        }
+
+        // Nodes rank by the best count below them; at equal scores nodes expand first so ties resolve by value
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator
+            .comparingInt((Candidate candidate) -> -candidate.score)
+            .thenComparing(candidate -> candidate.suggestion != null)
+            .thenComparing(candidate -> candidate.suggestion == null ? "" : candidate.suggestion.key)
+            .thenComparing(candidate -> candidate.suggestion == null ? "" : candidate.suggestion.type.name()));
+        queue.add(new Candidate(start.max, start, null));
+        Set<Suggestion> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.suggestion != null) {
+                Suggestion suggestion = candidate.suggestion;
+                if ((type == null || suggestion.type == type) && seen.add(suggestion)) {
+                    result.add(new AutocompleteSuggestion(suggestion.type, suggestion.display, suggestion.count));
+                }
+                continue;
+            }
+            for (Suggestion suggestion : candidate.node.terminals) {
+                queue.add(new Candidate(suggestion.count, null, suggestion));
+            }
+            for (Node child : candidate.node.children.values()) {
+                queue.add(new Candidate(child.max, child, null));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return suggestions.size();
+    }
+
+    public static String normalize(String value) {
+        return String.join(" ", TextTokenizer.tokenize(value));
+    }
+
+    // The key and every suffix of it that starts a word
+    private static List<String> wordStarts(String key) {
+        List<String> entries = new ArrayList<>();
+        entries.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            entries.add(key.substring(i + 1));
+        }
+        return entries;
+    }
+
+    private void insert(String key, Suggestion suggestion) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.children.put(key.charAt(pos), child);
+                node = child;
+                pos = key.length();
+                break;
+            }
+
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // Split the edge where the new key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                middle.max = child.max;
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            pos += common;
+        }
+        if (!node.terminals.contains(suggestion)) {
+            node.terminals.add(suggestion);
+        }
+        refresh(key);
+    }
+
+    private void delete(String key, Suggestion suggestion) {
+        List<Node> path = path(key);
+        if (path == null) {
+            return;
+        }
+        path.get(path.size() - 1).terminals.remove(suggestion);
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.terminals.isEmpty() && node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.terminals.isEmpty() && node.children.size() == 1) {
+                // Keep the trie compressed: fold a pass-through node into its only child
+                Node child = node.children.values().iterator().next();
+                child.label = node.label + child.label;
+                parent.children.put(child.label.charAt(0), child);
+            } else {
+                node.max = maxOf(node);
+            }
+        }
+        root.max = maxOf(root);
+    }
+
+    // Recompute the cached subtree maxima along the path of a key, bottom up
+    private void refresh(String key) {
+        List<Node> path = path(key);
+        if (path == null) {
+            return;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).max = maxOf(path.get(i));
+        }
+    }
+
+    // Nodes from the root to the node ending exactly at key, or null
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            node = node.children.get(key.charAt(pos));
+            if (node == null || !key.startsWith(node.label, pos)) {
+                return null;
+            }
+            path.add(node);
+            pos += node.label.length();
+        }
+        return path;
+    }
+
+    // Node whose subtree holds every key starting with prefix, or null
+    private Node find(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            node = node.children.get(prefix.charAt(pos));
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefix(node.label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                return node;
+            }
+            if (common < node.label.length()) {
+                return null;
+            }
+            pos += common;
+        }
+        return node;
+    }
+
+    private static int maxOf(Node node) {
+        int max = 0;
+        for (Suggestion suggestion : node.terminals) {
+            max = Math.max(max, suggestion.count);
+        }
+        for (Node child : node.children.values()) {
+            max = Math.max(max, child.max);
+        }
+        return max;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>(4);
+        final List<Suggestion> terminals = new ArrayList<>(1);
+        int max;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static class Suggestion {
+        final SuggestionType type;
+        final String key;
+        final String display;
+        int count;
+
+        Suggestion(SuggestionType type, String key, String display) {
+            this.type = type;
+            this.key = key;
+            this.display = display;
+        }
+    }
+
+    private static class Candidate {
+        final int score;
+        final Node node;
+        final Suggestion suggestion;
+
+        Candidate(int score, Node node, Suggestion suggestion) {
+            this.score = score;
+            this.node = node;
+            this.suggestion = suggestion;
+        }
+    }
+}
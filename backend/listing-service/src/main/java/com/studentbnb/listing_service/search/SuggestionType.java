@@ -0,0 +1,8 @@
+package com.studentbnb.listing_service.search;
+
+public enum SuggestionType {
+    CITY,
+    STATE,
+    ZIP_CODE,
+    UNIVERSITY
+}
@@ -0,0 +1,121 @@
+package com.studentbnb.listing_service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns listing titles, descriptions and keyword queries into index terms:
+ * TextTokenizer tokens minus English stop words, reduced by step 1 of the
+ * Porter stemmer (plurals, -ed and -ing, final y), so "furnished
+ * apartments" and "furnish apartment" meet on the same terms. "no" and
+ * "not" are kept, as they matter in listings ("no smoking").
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+        "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they", "this",
+        "to", "was", "will", "with");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : TextTokenizer.tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    // Porter step 1a, 1b and 1c; digits and short words pass through
+    static String stem(String word) {
+        if (word.length() <= 2 || !Character.isLetter(word.charAt(0))) {
+            return word;
+        }
+
+        StringBuilder w = new StringBuilder(word);
+        // 1a: plurals
+        if (endsWith(w, "sses") || endsWith(w, "ies")) {
+            w.setLength(w.length() - 2);
+        } else if (endsWith(w, "s") && !endsWith(w, "ss")) {
+            w.setLength(w.length() - 1);
+        }
+
+        // 1b: past tense and gerunds
+        if (endsWith(w, "eed")) {
+            if (measure(w, w.length() - 3) > 0) {
+                w.setLength(w.length() - 1);
+            }
+        } else if ((endsWith(w, "ed") && hasVowel(w, w.length() - 2)) || (endsWith(w, "ing") && hasVowel(w, w.length() - 3))) {
+            w.setLength(w.length() - (endsWith(w, "ed") ? 2 : 3));
+            if (endsWith(w, "at") || endsWith(w, "bl") || endsWith(w, "iz")) {
+                w.append('e');
+            } else if (endsWithDoubleConsonant(w) && !endsWith(w, "l") && !endsWith(w, "s") && !endsWith(w, "z")) {
+                w.setLength(w.length() - 1);
+            } else if (measure(w, w.length()) == 1 && endsWithCvc(w)) {
+                w.append('e');
+            }
+        }
+
+        // 1c: final y after a vowel-bearing stem
+        if (endsWith(w, "y") && hasVowel(w, w.length() - 1)) {
+            w.setCharAt(w.length() - 1, 'i');
+        }
+        return w.toString();
+    }
+
+    private static boolean endsWith(StringBuilder w, String suffix) {
+        int start = w.length() - suffix.length();
+        return start >= 0 && w.indexOf(suffix, start) == start;
+    }
+
+    private static boolean isConsonant(StringBuilder w, int i) {
+        return switch (w.charAt(i)) {
+            case 'a', 'e', 'i', 'o', 'u' -> false;
+            case 'y' -> i == 0 || !isConsonant(w, i - 1);
+            default -> true;
+        };
+    }
+
+    private static boolean hasVowel(StringBuilder w, int end) {
+        for (int i = 0; i < end; i++) {
+            if (!isConsonant(w, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Number of vowel-consonant sequences in the first end letters
+    private static int measure(StringBuilder w, int end) {
+        int m = 0;
+        boolean inVowels = false;
+        for (int i = 0; i < end; i++) {
+            boolean consonant = isConsonant(w, i);
+            if (consonant && inVowels) {
+                m++;
+            }
+            inVowels = !consonant;
+        }
+        return m;
+    }
+
+    private static boolean endsWithDoubleConsonant(StringBuilder w) {
+        int n = w.length();
+        return n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && isConsonant(w, n - 1);
+    }
+
+    // Consonant-vowel-consonant ending, the last not w, x or y ("hop" in "hoping")
+    private static boolean endsWithCvc(StringBuilder w) {
+        int n = w.length();
+        if (n < 3 || !isConsonant(w, n - 1) || isConsonant(w, n - 2) || !isConsonant(w, n - 3)) {
+            return false;
+        }
+        char last = w.charAt(n - 1);
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+}
@@ -0,0 +1,310 @@
+package com.studentbnb.listing_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BM25 full-text index over listing titles and descriptions.
+ *
+ * Each term keeps a compressed posting list: (entry gap, term frequency)
+ * pairs as variable-length bytes, where entries are numbered in insertion
+ * order, so adding a document only ever appends. Re-indexing a document
+ * retires its old entry in a bitset and appends a new one; once retired
+ * entries make up half of the index every list is rewritten without them.
+ * Like Lucene's deleted documents, retired entries still count towards the
+ * collection statistics (document frequency, average length) until then,
+ * which keeps those exact without remembering each entry's terms.
+ * Title words count TITLE_WEIGHT times, towards both term frequency and
+ * document length. Documents are identified by the caller's ids (the
+ * search index's doc ids). Not thread-safe; callers guard access.
+ */
+public class TextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MIN_COMPACT_ENTRIES = 1024;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Per entry: the document it belongs to and its weighted length
+    private int[] entryDocs = new int[1024];
+    private int[] entryLengths = new int[1024];
+    private int entries;
+    private final BitSet retired = new BitSet();
+
+    // Current entry of each document, -1 when not indexed
+    private int[] docEntries = new int[0];
+
+    private int liveDocs;
+    private long entryLength;
+
+    // Index a document, replacing whatever it held before
+    public void put(int docId, String title, String description) {
+        remove(docId);
+        Map<String, Integer> frequencies = frequencies(title, description);
+        int length = 0;
+        for (int tf : frequencies.values()) {
+            length += tf;
+        }
+        if (length == 0) {
+            return;
+        }
+
+        int entry = entries++;
+        if (entry == entryDocs.length) {
+            entryDocs = Arrays.copyOf(entryDocs, entry * 2);
+            entryLengths = Arrays.copyOf(entryLengths, entry * 2);
+        }
+        entryDocs[entry] = docId;
+        entryLengths[entry] = length;
+        if (docId >= docEntries.length) {
+            int grown = docEntries.length;
+            docEntries = Arrays.copyOf(docEntries, Math.max(docId + 1, docEntries.length * 2));
+            Arrays.fill(docEntries, grown, docEntries.length, -1);
+        }
+        docEntries[docId] = entry;
+        for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new Postings()).append(entry, term.getValue());
+        }
+        liveDocs++;
+        entryLength += length;
+    }
+
+    public void remove(int docId) {
+        if (docId >= docEntries.length || docEntries[docId] < 0) {
+            return;
+        }
+        int entry = docEntries[docId];
+        docEntries[docId] = -1;
+        retired.set(entry);
+        liveDocs--;
+        if (retired.cardinality() >= MIN_COMPACT_ENTRIES && retired.cardinality() * 2 >= entries) {
+            compact();
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        entryDocs = new int[1024];
+        entryLengths = new int[1024];
+        entries = 0;
+        retired.clear();
+        docEntries = new int[0];
+        liveDocs = 0;
+        entryLength = 0;
+    }
+
+    /**
+     * Documents holding every analyzed query term, with their BM25 scores.
+     * Terms are scored one at a time into an accumulator, rarest first, and
+     * a document missing a term drops out from there on.
+     */
+    public Matches match(List<String> terms) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new Matches(new int[0], new double[0]);
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return new Matches(new int[0], new double[0]);
+        }
+        lists.sort((a, b) -> Integer.compare(a.count, b.count));
+
+        double averageLength = averageLength();
+        double[] scores = new double[entries];
+        int[] hits = new int[entries];
+        for (int round = 0; round < lists.size(); round++) {
+            Postings list = lists.get(round);
+            double idf = idf(list);
+            Postings.Reader reader = list.reader();
+            while (reader.next()) {
+                int entry = reader.entry;
+                if (hits[entry] == round && !retired.get(entry)) {
+                    scores[entry] += idf * saturate(reader.frequency, entryLengths[entry], averageLength);
+                    hits[entry]++;
+                }
+            }
+        }
+
+        // Hand back caller doc ids in ascending order so they can join posting-list intersection
+        int count = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (hits[entry] == lists.size()) {
+                count++;
+            }
+        }
+        long[] packed = new long[count];
+        int n = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (hits[entry] == lists.size()) {
+                packed[n++] = ((long) entryDocs[entry] << 32) | entry;
+            }
+        }
+        Arrays.sort(packed);
+        int[] docs = new int[count];
+        double[] docScores = new double[count];
+        for (int i = 0; i < count; i++) {
+            docs[i] = (int) (packed[i] >>> 32);
+            docScores[i] = scores[(int) packed[i]];
+        }
+        return new Matches(docs, docScores);
+    }
+
+    public int size() {
+        return liveDocs;
+    }
+
+    // Bytes held by the compressed posting lists
+    public long postingBytes() {
+        long bytes = 0;
+        for (Postings list : postings.values()) {
+            bytes += list.length;
+        }
+        return bytes;
+    }
+
+    private double idf(Postings list) {
+        double df = list.count;
+        return Math.log(1 + (entries - df + 0.5) / (df + 0.5));
+    }
+
+    private static double saturate(int tf, int length, double averageLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private double averageLength() {
+        return entries == 0 ? 1 : (double) entryLength / entries;
+    }
+
+    private static Map<String, Integer> frequencies(String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.analyze(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : TextAnalyzer.analyze(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    // Renumber live entries densely and rewrite every posting list without the retired ones
+    private void compact() {
+        int[] renumbered = new int[entries];
+        int live = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (retired.get(entry)) {
+                renumbered[entry] = -1;
+                entryLength -= entryLengths[entry];
+                continue;
+            }
+            renumbered[entry] = live;
+            entryDocs[live] = entryDocs[entry];
+            entryLengths[live] = entryLengths[entry];
+            docEntries[entryDocs[live]] = live;
+            live++;
+        }
+
+        postings.replaceAll((term, list) -> {
+            Postings rewritten = new Postings();
+            Postings.Reader reader = list.reader();
+            while (reader.next()) {
+                if (renumbered[reader.entry] >= 0) {
+                    rewritten.append(renumbered[reader.entry], reader.frequency);
+                }
+            }
+            return rewritten;
+        });
+        postings.values().removeIf(list -> list.count == 0);
+        entries = live;
+        retired.clear();
+    }
+
+    /**
+     * Documents matching a query, ascending by doc id, with their scores.
+     */
+    public static class Matches {
+        private final int[] docIds;
+        private final double[] scores;
+
+        Matches(int[] docIds, double[] scores) {
+            this.docIds = docIds;
+            this.scores = scores;
+        }
+
+        public int[] getDocIds() {
+            return docIds;
+        }
+
+        // Score of a matching document, 0 for any other
+        public double scoreOf(int docId) {
+            int i = Arrays.binarySearch(docIds, docId);
+            return i >= 0 ? scores[i] : 0;
+        }
+    }
+
+    // Append-only varint-encoded (entry gap, frequency) pairs
+    private static class Postings {
+        byte[] bytes = new byte[8];
+        int length;
+        int count;
+        int lastEntry = -1;
+
+        void append(int entry, int frequency) {
+            writeVarInt(entry - lastEntry);
+            writeVarInt(frequency);
+            lastEntry = entry;
+            count++;
+        }
+
+        Reader reader() {
+            return new Reader();
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        class Reader {
+            int position;
+            int entry = -1;
+            int frequency;
+
+            boolean next() {
+                if (position >= length) {
+                    return false;
+                }
+                entry += readVarInt();
+                frequency = readVarInt();
+                return true;
+            }
+
+            private int readVarInt() {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                return value;
+            }
+        }
+    }
+}
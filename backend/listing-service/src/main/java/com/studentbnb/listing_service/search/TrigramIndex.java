@@ -0,0 +1,256 @@
+package com.studentbnb.listing_service.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant lookup of place names such as cities or universities.
+ *
+ * Every value is split into words and each word, padded as "$word$", into
+ * trigrams. A query collects the values sharing enough of its trigrams to
+ * possibly lie within the allowed edits and verifies only those: query
+ * words must match value words in order, exactly, as a prefix of at least
+ * three letters ("univ" for "university"), or within a small Damerau-
+ * Levenshtein distance that grows with the word length. Values carry the
+ * number of listings using them, which breaks ties between equally close
+ * matches. Not thread-safe; callers guard access.
+ */
+public class TrigramIndex {
+
+    private static final int MIN_PREFIX = 3;
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<String, List<Term>> postings = new HashMap<>();
+
+    // Number of values using each word, to tell known words from typos
+    private final Map<String, Integer> words = new HashMap<>();
+
+    // Count one more listing for the value; blank values are ignored
+    public void add(String value) {
+        String key = SuggestionTrie.normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Term term = terms.get(key);
+        if (term != null) {
+            term.count++;
+            return;
+        }
+        term = new Term(key, value.trim());
+        terms.put(key, term);
+        for (String word : term.words) {
+            words.merge(word, 1, Integer::sum);
+        }
+        for (String gram : distinct(term.words)) {
+            postings.computeIfAbsent(gram, g -> new ArrayList<>(2)).add(term);
+        }
+    }
+
+    // Count one listing less for the value, dropping it at zero
+    public void remove(String value) {
+        String key = SuggestionTrie.normalize(value);
+        Term term = terms.get(key);
+        if (term == null) {
+            return;
+        }
+
+        term.count--;
+        if (term.count > 0) {
+            return;
+        }
+        terms.remove(key);
+        for (String word : term.words) {
+            words.computeIfPresent(word, (w, uses) -> uses == 1 ? null : uses - 1);
+        }
+        for (String gram : distinct(term.words)) {
+            List<Term> posting = postings.get(gram);
+            posting.remove(term);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Whether every word of the query occurs in some indexed value as written
+    public boolean containsWords(String query) {
+        List<String> queryWords = TextTokenizer.tokenize(query);
+        if (queryWords.isEmpty()) {
+            return false;
+        }
+        for (String word : queryWords) {
+            if (!words.containsKey(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The indexed value closest to the query, or null when none is within
+     * reach. Fewest edits wins, then fewest words the query left out, then
+     * the value most listings use.
+     */
+    public String bestMatch(String query) {
+        List<String> queryWords = TextTokenizer.tokenize(query);
+        if (queryWords.isEmpty()) {
+            return null;
+        }
+
+        // A matching word keeps all its trigrams but the closing one (prefix) or up to four per edit
+        int required = 0;
+        List<String> queryGrams = new ArrayList<>();
+        for (String word : queryWords) {
+            List<String> grams = trigrams(word);
+            queryGrams.addAll(grams);
+            required += Math.max(0, grams.size() - Math.max(1, 4 * allowedEdits(word)));
+        }
+        Map<Term, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (Term term : postings.getOrDefault(gram, List.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        Term best = null;
+        int bestEdits = 0;
+        for (Map.Entry<Term, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < Math.max(1, required)) {
+                continue;
+            }
+            Term term = candidate.getKey();
+            int edits = edits(queryWords, term.words);
+            if (edits >= 0 && (best == null || isBetter(term, edits, best, bestEdits, queryWords.size()))) {
+                best = term;
+                bestEdits = edits;
+            }
+        }
+        return best == null ? null : best.display;
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    // Edits a word of this length may contain and still match
+    static int allowedEdits(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 6 ? 1 : 2;
+    }
+
+    // Total edits to match the query words in order against the value words, or -1
+    static int edits(List<String> queryWords, List<String> valueWords) {
+        int total = 0;
+        int next = 0;
+        for (String word : queryWords) {
+            int cost = -1;
+            while (next < valueWords.size() && cost < 0) {
+                cost = wordEdits(word, valueWords.get(next++));
+            }
+            if (cost < 0) {
+                return -1;
+            }
+            total += cost;
+        }
+        return total;
+    }
+
+    private static int wordEdits(String word, String valueWord) {
+        if (word.equals(valueWord) || (word.length() >= MIN_PREFIX && valueWord.startsWith(word))) {
+            return 0;
+        }
+        return distance(word, valueWord, allowedEdits(word));
+    }
+
+    /**
+     * Damerau-Levenshtein (optimal string alignment) distance, or -1 as soon
+     * as it must exceed max.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return -1;
+        }
+
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= max ? previous[b.length()] : -1;
+    }
+
+    // Trigrams of a word padded with '$' at both ends, so short words get some too
+    static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static List<String> distinct(List<String> valueWords) {
+        List<String> grams = new ArrayList<>();
+        for (String word : valueWords) {
+            for (String gram : trigrams(word)) {
+                if (!grams.contains(gram)) {
+                    grams.add(gram);
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static boolean isBetter(Term term, int edits, Term best, int bestEdits, int queryLength) {
+        if (edits != bestEdits) {
+            return edits < bestEdits;
+        }
+        int leftOut = term.words.size() - queryLength;
+        int bestLeftOut = best.words.size() - queryLength;
+        if (leftOut != bestLeftOut) {
+            return leftOut < bestLeftOut;
+        }
+        if (term.count != best.count) {
+            return term.count > best.count;
+        }
+        return term.key.compareTo(best.key) < 0;
+    }
+
+    private static class Term {
+        final String key;
+        final String display;
+        final List<String> words;
+        int count = 1;
+
+        Term(String key, String display) {
+            this.key = key;
+            this.display = display;
+            this.words = List.of(key.split(" "));
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.AutocompleteSuggestion;
+import com.studentbnb.listing_service.entity.Listing;
+import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.search.SuggestionTrie;
+import com.studentbnb.listing_service.search.SuggestionType;
+import com.studentbnb.listing_service.search.TrigramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search-box autocomplete for cities, states, zip codes and universities.
+ *
+ * Suggestions come from an in-memory SuggestionTrie holding the place
+ * values of every ACTIVE listing with how many listings carry each, so a
+ * keystroke never reaches the database. The trie is built once the
+ * application is ready and follows ListingChangedEvents afterwards, using
+ * the values last counted for a listing to take it back out. Listings that
+ * change while the trie is being built are read again once it is in place.
+ *
+ * The same vocabulary backs typo-tolerant location matching: city and
+ * university names also go into a TrigramIndex each, which search uses to
+ * turn "Bostn" or "univ of michigan" into the value listings carry.
+ */
+@Service
+@Slf4j
+public class AutocompleteService {
+
+    private static final int WARMUP_BATCH_SIZE = 500;
+    private static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SuggestionTrie trie = new SuggestionTrie();
+    private TrigramIndex cities = new TrigramIndex();
+    private TrigramIndex universities = new TrigramIndex();
+
+    // Place values counted per listing, needed to undo them on change
+    private Map<Long, Places> tracked = new HashMap<>();
+
+    // Listings changed while warmUp builds new structures, null when it is not running
+    private Set<Long> changedDuringWarmUp;
+
+    private volatile boolean ready;
+
+    /**
+     * Ranked suggestions starting with the query, most listings first. An
+     * optional type restricts them to CITY, STATE, ZIP_CODE or UNIVERSITY.
+     */
+    public List<AutocompleteSuggestion> suggest(String query, String type, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        SuggestionType suggestionType = parseType(type);
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (!ready) {
+            throw new IllegalStateException("Autocomplete is still warming up");
+        }
+
+        lock.readLock().lock();
+        try {
+            return trie.complete(query, suggestionType, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The city or university value listings carry for a possibly misspelled
+     * or abbreviated term. Terms whose words all occur as written, and terms
+     * nothing comes close to, are returned unchanged, as is everything until
+     * the vocabulary is warm.
+     */
+    public String resolve(SuggestionType type, String term) {
+        if (type != SuggestionType.CITY && type != SuggestionType.UNIVERSITY) {
+            throw new IllegalArgumentException("Only cities and universities are matched fuzzily");
+        }
+        if (term == null || term.isBlank() || !ready) {
+            return term;
+        }
+
+        lock.readLock().lock();
+        try {
+            TrigramIndex index = type == SuggestionType.CITY ? cities : universities;
+            if (index.containsWords(term)) {
+                return term;
+            }
+            String match = index.bestMatch(term);
+            return match == null ? term : match;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Rebuild from every ACTIVE listing
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        SuggestionTrie fresh = new SuggestionTrie();
+        TrigramIndex freshCities = new TrigramIndex();
+        TrigramIndex freshUniversities = new TrigramIndex();
+        Map<Long, Places> freshTracked = new HashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            changedDuringWarmUp = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<Listing> batch = listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                    ListingStatus.ACTIVE, lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Listing listing : batch) {
+                    Places places = Places.of(listing);
+                    places.addTo(fresh, freshCities, freshUniversities);
+                    freshTracked.put(listing.getId(), places);
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("Failed to warm autocomplete, suggestions are unavailable: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                changedDuringWarmUp = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        Set<Long> changed;
+        lock.writeLock().lock();
+        try {
+            trie = fresh;
+            cities = freshCities;
+            universities = freshUniversities;
+            tracked = freshTracked;
+            changed = changedDuringWarmUp;
+            changedDuringWarmUp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Their events went to the old structures, and the batches may have read them before the change
+        for (Long listingId : changed) {
+            try {
+                apply(listingId, load(listingId));
+            } catch (Exception e) {
+                log.warn("Failed to refresh suggestions of listing {} after warm-up: {}", listingId, e.getMessage());
+            }
+        }
+        ready = true;
+        log.info("Autocomplete warmed with {} suggestions in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    // Follow committed listing writes: ACTIVE listings count, everything else does not
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        Places current = event.getChangeType() == ListingChangedEvent.ChangeType.DELETED ? null : load(event.getListingId());
+        apply(event.getListingId(), current);
+    }
+
+    // Place values of a listing as stored, or null unless it is ACTIVE
+    private Places load(Long listingId) {
+        return listingRepository.findById(listingId)
+            .filter(listing -> listing.getStatus() == ListingStatus.ACTIVE)
+            .map(Places::of)
+            .orElse(null);
+    }
+
+    // Swap the values counted for a listing for its current ones (null: no longer counted)
+    private void apply(Long listingId, Places current) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringWarmUp != null) {
+                changedDuringWarmUp.add(listingId);
+            }
+            Places previous = current == null ? tracked.remove(listingId) : tracked.put(listingId, current);
+            if (previous != null) {
+                previous.removeFrom(trie, cities, universities);
+            }
+            if (current != null) {
+                current.addTo(trie, cities, universities);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static SuggestionType parseType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        try {
+            return SuggestionType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown suggestion type: " + type);
+        }
+    }
+
+    private static class Places {
+        final String city;
+        final String state;
+        final String zipCode;
+        final String university;
+
+        Places(String city, String state, String zipCode, String university) {
+            this.city = city;
+            this.state = state;
+            this.zipCode = zipCode;
+            this.university = university;
+        }
+
+        static Places of(Listing listing) {
+            String zip = listing.getZipCode() == null ? null : listing.getZipCode().trim();
+            // Suggest the 5-digit zip, as search matches on it
+            if (zip != null && zip.length() > 5) {
+                zip = zip.substring(0, 5);
+            }
+            return new Places(listing.getCity(), listing.getState(), zip, listing.getNearestUniversity());
+        }
+
+        void addTo(SuggestionTrie trie, TrigramIndex cities, TrigramIndex universities) {
+            trie.add(SuggestionType.CITY, city);
+            trie.add(SuggestionType.STATE, state);
+            trie.add(SuggestionType.ZIP_CODE, zipCode);
+            trie.add(SuggestionType.UNIVERSITY, university);
+            cities.add(city);
+            universities.add(university);
+        }
+
+        void removeFrom(SuggestionTrie trie, TrigramIndex cities, TrigramIndex universities) {
+            trie.remove(SuggestionType.CITY, city);
+            trie.remove(SuggestionType.STATE, state);
+            trie.remove(SuggestionType.ZIP_CODE, zipCode);
+            trie.remove(SuggestionType.UNIVERSITY, university);
+            cities.remove(city);
+            universities.remove(university);
+        }
+    }
+}
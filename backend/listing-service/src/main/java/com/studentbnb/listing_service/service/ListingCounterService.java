@@ -0,0 +1,291 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.tracking.EngagementCounters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Owns listings.view_count and listings.favorite_count.
+ *
+ * Views and favorites are counted in memory (EngagementCounters) once the
+ * write that caused them has committed. A scheduled flush applies the
+ * accumulated deltas with one relative UPDATE per listing, so no request
+ * reads, recounts or locks the listing row, and concurrent writers cannot
+ * overwrite each other's counts. Pending deltas are flushed on shutdown too.
+ *
+ * A background reconciliation compares the stored counts with the
+ * listing_views and listing_favorites rows (minus deltas not yet flushed)
+ * and repairs any drift, e.g. from a crash between commit and flush.
+ * Listings with a write in flight (rows possibly committed, delta not yet
+ * counted) are left for the next run, and deltas are counted under a lock
+ * the reconciliation holds while it reads, so it never sees rows without
+ * their delta. That only covers this instance: deltas another instance has
+ * not flushed yet (at most one flush interval's worth) look like drift, and
+ * correcting them overcounts until the following run. With several
+ * instances, keep the reconcile interval long or enable it on one only.
+ */
+@Service
+@Slf4j
+public class ListingCounterService {
+
+    private static final String INCREMENT_COUNTS_SQL =
+        "UPDATE listings SET view_count = COALESCE(view_count, 0) + ?, " +
+        "favorite_count = GREATEST(COALESCE(favorite_count, 0) + ?, 0) WHERE id = ?";
+
+    private static final String GROUND_TRUTH_SQL =
+        "SELECT l.id, l.view_count, l.favorite_count, " +
+        "(SELECT COUNT(*) FROM listing_views v WHERE v.listing_id = l.id) AS views, " +
+        "(SELECT COUNT(*) FROM listing_favorites f WHERE f.listing_id = l.id) AS favorites " +
+        "FROM listings l WHERE l.id > ? ORDER BY l.id LIMIT ?";
+
+    private static final String SET_COUNTS_SQL =
+        "UPDATE listings SET view_count = ?, favorite_count = ? WHERE id = ?";
+
+    @Value("${app.counters.reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final EngagementCounters counters = new EngagementCounters();
+
+    // Writes per listing whose rows may be committed but whose deltas are not counted yet
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    // Counting a delta takes the read lock, a reconcile batch the write lock
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong flushed = new AtomicLong();
+
+    private final AtomicLong corrected = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        if (meterRegistry != null) {
+            Gauge.builder("listing.counters.tracked", counters, EngagementCounters::size).register(meterRegistry);
+            Gauge.builder("listing.counters.flushed", flushed, AtomicLong::get).register(meterRegistry);
+            Gauge.builder("listing.counters.corrected", corrected, AtomicLong::get).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Run a write that commits listing_views rows and count the views it reports.
+     * Reconciliation leaves the listings alone until the views are counted
+     * @param listingIds listings the write may insert views for
+     * @param write commits the rows and returns the views inserted, keyed by listing
+     */
+    public void recordViews(Collection<Long> listingIds, Supplier<Map<Long, Integer>> write) {
+        listingIds.forEach(this::markInFlight);
+        Map<Long, Integer> viewsByListing = null;
+        try {
+            viewsByListing = write.get();
+        } finally {
+            Map<Long, Integer> inserted = viewsByListing;
+            settle(listingIds, () -> {
+                if (inserted != null) {
+                    inserted.forEach(counters::addViews);
+                }
+            });
+        }
+    }
+
+    public void favoriteAdded(Long listingId) {
+        afterCommit(listingId, () -> counters.addFavorites(listingId, 1));
+    }
+
+    public void favoritesRemoved(Long listingId, long count) {
+        afterCommit(listingId, () -> counters.addFavorites(listingId, -count));
+    }
+
+    public long pendingViews(Long listingId) {
+        return counters.pendingViews(listingId);
+    }
+
+    public long pendingFavorites(Long listingId) {
+        return counters.pendingFavorites(listingId);
+    }
+
+    // Apply all pending deltas in one batch; on failure they are kept for the next run
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval:5s}")
+    public synchronized void flush() {
+        List<EngagementCounters.Delta> deltas = counters.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INCREMENT_COUNTS_SQL, deltas, deltas.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.getViews());
+                    ps.setLong(2, delta.getFavorites());
+                    ps.setLong(3, delta.getListingId());
+                }));
+        } catch (Exception e) {
+            counters.restore(deltas);
+            log.error("Failed to flush counters for {} listings, will retry: {}", deltas.size(), e.getMessage());
+            return;
+        }
+
+        flushed.addAndGet(deltas.size());
+        for (EngagementCounters.Delta delta : deltas) {
+            // Favorite counts are shown on cached listings; view counts may lag
+            if (delta.getFavorites() != 0) {
+                publishCountsChanged(delta.getListingId());
+            }
+        }
+    }
+
+    /**
+     * Recount every listing against listing_views and listing_favorites and
+     * fix the ones that drifted. Runs in id-ordered batches, each holding the
+     * flush lock only while it compares and writes; listings with a write in
+     * flight are skipped.
+     *
+     * @return number of listings corrected
+     */
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:1h}",
+               initialDelayString = "${app.counters.reconcile-initial-delay:10m}")
+    public int reconcile() {
+        int fixed = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            int batchFixed;
+            synchronized (this) {
+                reconcileLock.writeLock().lock();
+                try {
+                    List<Correction> corrections = new ArrayList<>();
+                    jdbcTemplate.query(GROUND_TRUTH_SQL, rs -> {
+                        long id = rs.getLong("id");
+                        ids.add(id);
+                        if (inFlight.containsKey(id)) {
+                            return;
+                        }
+                        long views = rs.getLong("views") - counters.pendingViews(id);
+                        long favorites = rs.getLong("favorites") - counters.pendingFavorites(id);
+                        if (views != rs.getLong("view_count") || favorites != rs.getLong("favorite_count")) {
+                            corrections.add(new Correction(id, Math.max(0, views), Math.max(0, favorites)));
+                        }
+                    }, afterId, reconcileBatchSize);
+
+                    if (!corrections.isEmpty()) {
+                        transactionTemplate.executeWithoutResult(status ->
+                            jdbcTemplate.batchUpdate(SET_COUNTS_SQL, corrections, corrections.size(), (ps, correction) -> {
+                                ps.setLong(1, correction.views);
+                                ps.setLong(2, correction.favorites);
+                                ps.setLong(3, correction.listingId);
+                            }));
+                        corrections.forEach(correction -> publishCountsChanged(correction.listingId));
+                    }
+                    batchFixed = corrections.size();
+                } finally {
+                    reconcileLock.writeLock().unlock();
+                }
+            }
+
+            fixed += batchFixed;
+            if (ids.size() < reconcileBatchSize) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (fixed > 0) {
+            corrected.addAndGet(fixed);
+            log.warn("Reconciled view/favorite counts of {} listings", fixed);
+        }
+        return fixed;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.getChangeType() == ListingChangedEvent.ChangeType.DELETED) {
+            counters.forget(event.getListingId());
+        }
+    }
+
+    // Count only what actually committed; outside a transaction apply right away
+    private void afterCommit(Long listingId, Runnable action) {
+        markInFlight(listingId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(List.of(listingId), action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(List.of(listingId), status == STATUS_COMMITTED ? action : () -> { });
+            }
+        });
+    }
+
+    private void markInFlight(Long listingId) {
+        inFlight.merge(listingId, 1, Integer::sum);
+    }
+
+    // Count a finished write's deltas and take its listings out of flight, never in the middle of a reconcile batch
+    private void settle(Collection<Long> listingIds, Runnable countDeltas) {
+        reconcileLock.readLock().lock();
+        try {
+            countDeltas.run();
+        } finally {
+            listingIds.forEach(id -> inFlight.computeIfPresent(id, (key, writes) -> writes > 1 ? writes - 1 : null));
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    private void publishCountsChanged(Long listingId) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.UPDATED));
+    }
+
+    @AllArgsConstructor
+    private static class Correction {
+        private final long listingId;
+        private final long views;
+        private final long favorites;
+    }
+}
@@ -0,0 +1,230 @@
+package com.studentbnb.listing_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.studentbnb.listing_service.entity.Listing;
+import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.search.AmenityMask;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams listings out as NDJSON or CSV for partners and the data team.
+ * Rows come from a forward-only, read-only cursor fetched in batches of
+ * ListingRepository.EXPORT_FETCH_SIZE and are written to the caller's
+ * stream as they arrive; the persistence context is cleared after every
+ * batch, so memory stays flat however many rows match. Photos, amenities
+ * and preferences are lazy collections and are left out; amenities come
+ * from the listing's amenity mask instead.
+ */
+@Service
+@Slf4j
+public class ListingExportService {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (expected ndjson or csv)");
+        }
+    }
+
+    // Exported fields, in CSV column order
+    private static final List<Column> COLUMNS = List.of(
+        new Column("id", Listing::getId),
+        new Column("landlordId", Listing::getLandlordId),
+        new Column("title", Listing::getTitle),
+        new Column("description", Listing::getDescription),
+        new Column("rent", Listing::getRent),
+        new Column("currency", Listing::getCurrency),
+        new Column("securityDeposit", Listing::getSecurityDeposit),
+        new Column("utilitiesIncluded", Listing::getUtilitiesIncluded),
+        new Column("bedrooms", Listing::getBedrooms),
+        new Column("bathrooms", Listing::getBathrooms),
+        new Column("squareFeet", Listing::getSquareFeet),
+        new Column("propertyType", Listing::getPropertyType),
+        new Column("address", Listing::getAddress),
+        new Column("city", Listing::getCity),
+        new Column("state", Listing::getState),
+        new Column("zipCode", Listing::getZipCode),
+        new Column("latitude", Listing::getLatitude),
+        new Column("longitude", Listing::getLongitude),
+        new Column("distanceToCampusKm", Listing::getDistanceToCampusKm),
+        new Column("nearestUniversity", Listing::getNearestUniversity),
+        new Column("leaseType", Listing::getLeaseType),
+        new Column("leaseDurationMonths", Listing::getLeaseDurationMonths),
+        new Column("availableFrom", Listing::getAvailableFrom),
+        new Column("availableUntil", Listing::getAvailableUntil),
+        new Column("petsAllowed", Listing::getPetsAllowed),
+        new Column("smokingAllowed", Listing::getSmokingAllowed),
+        new Column("furnished", Listing::getFurnished),
+        new Column("amenities", listing -> AmenityMask.toTypes(listing.getAmenityMask() == null ? AmenityMask.NONE : listing.getAmenityMask())),
+        new Column("status", Listing::getStatus),
+        new Column("viewCount", Listing::getViewCount),
+        new Column("favoriteCount", Listing::getFavoriteCount),
+        new Column("createdAt", Listing::getCreatedAt),
+        new Column("updatedAt", Listing::getUpdatedAt)
+    );
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Write every active listing matching the filters to out; returns the number of rows written
+    @Transactional(readOnly = true)
+    public long export(Format format, String city, String state, Long landlordId, LocalDateTime updatedSince,
+                       OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = JSON.createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line, with no separator of the generator's own
+            json.setRootValueSeparator(null);
+        } else {
+            writeCsvHeader(writer);
+        }
+
+        long rows = 0;
+        try (Stream<Listing> listings = listingRepository.streamForExport(
+                ListingStatus.ACTIVE, blankToNull(city), blankToNull(state), landlordId, updatedSince)) {
+            Iterator<Listing> iterator = listings.iterator();
+            while (iterator.hasNext()) {
+                Listing listing = iterator.next();
+                if (json != null) {
+                    writeJson(json, listing);
+                } else {
+                    writeCsv(writer, listing);
+                }
+                if (++rows % ListingRepository.EXPORT_FETCH_SIZE == 0) {
+                    // Hand the batch to the client and drop it from the session
+                    if (json != null) {
+                        json.flush();
+                    }
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        if (json != null) {
+            json.close();
+        }
+        writer.flush();
+        log.info("Exported {} listings as {}", rows, format);
+        return rows;
+    }
+
+    private static void writeJson(JsonGenerator json, Listing listing) throws IOException {
+        json.writeStartObject();
+        for (Column column : COLUMNS) {
+            json.writeFieldName(column.name());
+            Object value = column.value().apply(listing);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Collection<?> values) {
+                json.writeStartArray();
+                for (Object item : values) {
+                    json.writeString(item.toString());
+                }
+                json.writeEndArray();
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Number number) {
+                if (number instanceof Double || number instanceof Float) {
+                    json.writeNumber(number.doubleValue());
+                } else {
+                    json.writeNumber(number.longValue());
+                }
+            } else if (value instanceof Boolean flag) {
+                json.writeBoolean(flag);
+            } else {
+                // Enums, dates and timestamps in their ISO / name form
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsvHeader(Writer writer) throws IOException {
+        writer.write(COLUMNS.stream().map(Column::name).collect(Collectors.joining(",")));
+        writer.write("\r\n");
+    }
+
+    private static void writeCsv(Writer writer, Listing listing) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = COLUMNS.get(i).value().apply(listing);
+            if (value instanceof Collection<?> values) {
+                value = values.stream().map(Object::toString).collect(Collectors.joining("|"));
+            }
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting: fields holding a delimiter, quote or line break are quoted, quotes doubled
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record Column(String name, Function<Listing, Object> value) {
+    }
+}
@@ -1,12 +1,16 @@
 package com.studentbnb.listing_service.service;
 
+import com.studentbnb.listing_service.dto.CursorPageResponse;
 import com.studentbnb.listing_service.dto.ListingResponse;
 import com.studentbnb.listing_service.entity.Listing;
 import com.studentbnb.listing_service.entity.ListingFavorite;
 import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.event.ListingEngagementEvent;
+import com.studentbnb.listing_service.pagination.ListingCursor;
 import com.studentbnb.listing_service.repository.ListingFavoriteRepository;
 import com.studentbnb.listing_service.repository.ListingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +18,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,7 +35,13 @@ public class ListingFavoriteService {
     private ListingRepository listingRepository;
     
     @Autowired
-    private ListingService listingService;
+    private ListingHydrationService hydrationService;
+    
+    @Autowired
+    private ListingCounterService counterService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // Add listing to favorites
     @Transactional
@@ -54,8 +66,10 @@ public class ListingFavoriteService {
         
         ListingFavorite savedFavorite = favoriteRepository.save(favorite);
         
-        // Update favorite count in listing
-        updateListingFavoriteCount(listingId);
+        // Favorite count is bumped in memory after commit and flushed in batches
+        counterService.favoriteAdded(listingId);
+        eventPublisher.publishEvent(new ListingEngagementEvent(
+            listingId, ListingEngagementEvent.EngagementType.FAVORITE, Instant.now()));
         
         return savedFavorite;
     }
@@ -67,10 +81,9 @@ public class ListingFavoriteService {
             throw new IllegalArgumentException("Listing is not in your favorites");
         }
         
-        favoriteRepository.deleteByListingIdAndUserId(listingId, userId);
-        
-        // Update favorite count in listing
-        updateListingFavoriteCount(listingId);
+        // Count only what this call deleted, so racing removals are not counted twice
+        long removed = favoriteRepository.deleteByListingIdAndUserId(listingId, userId);
+        counterService.favoritesRemoved(listingId, removed);
     }
 
     // Check if listing is favorited by user
@@ -78,30 +91,49 @@ public class ListingFavoriteService {
         return favoriteRepository.existsByListingIdAndUserId(listingId, userId);
     }
 
-    // Get user's favorite listings
+    // Get user's favorite listings, newest favorite first (only active listings)
+    @Transactional(readOnly = true)
     public List<ListingResponse> getUserFavorites(Long userId) {
-        List<Long> favoriteListingIds = favoriteRepository.findListingIdsByUserId(userId);
-        
-        return favoriteListingIds.stream()
-            .map(listingId -> listingService.getListingById(listingId))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .filter(listing -> listing.getStatus() == ListingStatus.ACTIVE) // Only return active listings
-            .collect(Collectors.toList());
+        List<ListingFavorite> favorites = favoriteRepository.findWithListingByUserIdAndStatus(userId, ListingStatus.ACTIVE);
+        return hydrationService.hydrate(favorites.stream().map(ListingFavorite::getListing).toList());
     }
 
-    // Get user's favorite listings with pagination
+    // Get user's favorite listings with pagination; inactive listings are left out before paging, so pages stay full
+    @Transactional(readOnly = true)
     public Page<ListingResponse> getUserFavoritesPaginated(Long userId, int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
         
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ListingFavorite> favorites = favoriteRepository.findByUserId(userId, pageable);
+        // Tie-break on id so equal timestamps cannot shuffle rows between pages
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy, "id"));
+        Page<ListingFavorite> favorites = favoriteRepository.findWithListingByUserIdAndStatus(userId, ListingStatus.ACTIVE, pageable);
         
-        return favorites.map(favorite -> {
-            Optional<ListingResponse> listing = listingService.getListingById(favorite.getListing().getId());
-            return listing.orElse(null);
-        }).map(listing -> listing); // Filter out null values would be done in controller
+        return hydrationService.hydrate(favorites.map(ListingFavorite::getListing));
+    }
+
+    // Get user's favorite listings with keyset pagination on (favorite createdAt, favorite id), newest first
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ListingResponse> getUserFavoritesAfter(Long userId, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+        ListingCursor after = cursor == null || cursor.isEmpty() ? null : ListingCursor.decode(cursor, "favoritedAt", true);
+        
+        // Fetch one extra row to learn whether another slice follows
+        List<ListingFavorite> favorites = favoriteRepository.findWithListingByUserIdAndStatusAfter(
+            userId,
+            ListingStatus.ACTIVE,
+            after != null ? (LocalDateTime) after.getValue() : null,
+            after != null ? after.getId() : null,
+            PageRequest.of(0, size + 1));
+        
+        boolean hasNext = favorites.size() > size;
+        List<ListingFavorite> content = hasNext ? favorites.subList(0, size) : favorites;
+        String nextCursor = null;
+        if (hasNext) {
+            ListingFavorite last = content.get(content.size() - 1);
+            nextCursor = new ListingCursor("favoritedAt", true, 0, last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(hydrationService.hydrate(content.stream().map(ListingFavorite::getListing).toList()), size, nextCursor);
     }
 
     // Get favorite count for a listing
@@ -192,18 +224,6 @@ public class ListingFavoriteService {
         favoriteRepository.deleteAll(userFavorites);
         
         // Update favorite counts for all affected listings
-        userFavorites.forEach(favorite -> updateListingFavoriteCount(favorite.getListing().getId()));
-    }
-
-    // Helper method to update listing favorite count
-    private void updateListingFavoriteCount(Long listingId) {
-        Long count = favoriteRepository.countByListingId(listingId);
-        
-        Optional<Listing> listingOpt = listingRepository.findById(listingId);
-        if (listingOpt.isPresent()) {
-            Listing listing = listingOpt.get();
-            listing.setFavoriteCount(count.intValue());
-            listingRepository.save(listing);
-        }
+        userFavorites.forEach(favorite -> counterService.favoritesRemoved(favorite.getListing().getId(), 1));
     }
-}
\ No newline at end of file
+}
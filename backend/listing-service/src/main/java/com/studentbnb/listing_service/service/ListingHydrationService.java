@@ -0,0 +1,176 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.Listing;
+import com.studentbnb.listing_service.entity.ListingAmenity;
+import com.studentbnb.listing_service.entity.ListingPhoto;
+import com.studentbnb.listing_service.repository.ListingAmenityRepository;
+import com.studentbnb.listing_service.repository.ListingPhotoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assembles ListingResponse objects for whole pages of listings.
+ * Photos and amenities for every listing on the page are loaded with one
+ * IN (...) query each, so a page costs a constant number of statements
+ * instead of two extra queries per row.
+ */
+@Service
+public class ListingHydrationService {
+
+    @Autowired
+    private ListingPhotoRepository photoRepository;
+
+    @Autowired
+    private ListingAmenityRepository amenityRepository;
+
+    // Hydrate a single listing
+    public ListingResponse hydrate(Listing listing) {
+        return hydrate(List.of(listing)).get(0);
+    }
+
+    // Hydrate a page of listings, keeping paging metadata
+    public Page<ListingResponse> hydrate(Page<Listing> listings) {
+        return new PageImpl<>(hydrate(listings.getContent()), listings.getPageable(), listings.getTotalElements());
+    }
+
+    // Hydrate a list of listings, preserving input order
+    public List<ListingResponse> hydrate(List<Listing> listings) {
+        if (listings.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> listingIds = new ArrayList<>(listings.size());
+        for (Listing listing : listings) {
+            listingIds.add(listing.getId());
+        }
+
+        // Photos come back ordered by display order, so grouping keeps that order per listing
+        Map<Long, List<ListingPhoto>> photosByListing = new HashMap<>();
+        for (ListingPhoto photo : photoRepository.findByListingIdIn(listingIds)) {
+            photosByListing.computeIfAbsent(photo.getListing().getId(), id -> new ArrayList<>()).add(photo);
+        }
+
+        Map<Long, List<ListingAmenity>> amenitiesByListing = new HashMap<>();
+        for (ListingAmenity amenity : amenityRepository.findAvailableByListingIdIn(listingIds)) {
+            amenitiesByListing.computeIfAbsent(amenity.getListing().getId(), id -> new ArrayList<>()).add(amenity);
+        }
+
+        List<ListingResponse> responses = new ArrayList<>(listings.size());
+        for (Listing listing : listings) {
+            ListingResponse response = toResponse(listing);
+            response.setPhotos(photosByListing.getOrDefault(listing.getId(), Collections.emptyList()));
+            response.setAmenities(amenitiesByListing.getOrDefault(listing.getId(), Collections.emptyList()));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * Hydrate listings into responses that hold no references back into the
+     * persistence context, so they can outlive the session (in-memory indexes).
+     */
+    public List<ListingResponse> hydrateDetached(List<Listing> listings) {
+        List<ListingResponse> responses = hydrate(listings);
+        for (ListingResponse response : responses) {
+            response.setPhotos(detachPhotos(response.getPhotos()));
+            response.setAmenities(detachAmenities(response.getAmenities()));
+        }
+        return responses;
+    }
+
+    private List<ListingPhoto> detachPhotos(List<ListingPhoto> photos) {
+        List<ListingPhoto> copies = new ArrayList<>(photos.size());
+        for (ListingPhoto photo : photos) {
+            ListingPhoto copy = new ListingPhoto();
+            copy.setId(photo.getId());
+            copy.setPhotoUrl(photo.getPhotoUrl());
+            copy.setCardUrl(photo.getCardUrl());
+            copy.setThumbnailUrl(photo.getThumbnailUrl());
+            copy.setCardWebpUrl(photo.getCardWebpUrl());
+            copy.setThumbnailWebpUrl(photo.getThumbnailWebpUrl());
+            copy.setDescription(photo.getDescription());
+            copy.setDisplayOrder(photo.getDisplayOrder());
+            copy.setIsPrimary(photo.getIsPrimary());
+            copy.setCreatedAt(photo.getCreatedAt());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private List<ListingAmenity> detachAmenities(List<ListingAmenity> amenities) {
+        List<ListingAmenity> copies = new ArrayList<>(amenities.size());
+        for (ListingAmenity amenity : amenities) {
+            ListingAmenity copy = new ListingAmenity();
+            copy.setId(amenity.getId());
+            copy.setAmenityType(amenity.getAmenityType());
+            copy.setDescription(amenity.getDescription());
+            copy.setIsAvailable(amenity.getIsAvailable());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    // Copy scalar listing fields; related data is attached by the caller
+    private ListingResponse toResponse(Listing listing) {
+        ListingResponse response = new ListingResponse();
+
+        // Basic listing info
+        response.setId(listing.getId());
+        response.setLandlordId(listing.getLandlordId());
+        response.setTitle(listing.getTitle());
+        response.setDescription(listing.getDescription());
+        response.setRent(listing.getRent());
+        response.setCurrency(listing.getCurrency());
+        response.setSecurityDeposit(listing.getSecurityDeposit());
+        response.setUtilitiesIncluded(listing.getUtilitiesIncluded());
+
+        // Property details
+        response.setBedrooms(listing.getBedrooms());
+        response.setBathrooms(listing.getBathrooms());
+        response.setSquareFeet(listing.getSquareFeet());
+        response.setPropertyType(listing.getPropertyType());
+
+        // Location
+        response.setAddress(listing.getAddress());
+        response.setCity(listing.getCity());
+        response.setState(listing.getState());
+        response.setZipCode(listing.getZipCode());
+        response.setLatitude(listing.getLatitude());
+        response.setLongitude(listing.getLongitude());
+        response.setDistanceToCampusKm(listing.getDistanceToCampusKm());
+        response.setNearestUniversity(listing.getNearestUniversity());
+
+        // Lease details
+        response.setLeaseType(listing.getLeaseType());
+        response.setLeaseDurationMonths(listing.getLeaseDurationMonths());
+        response.setAvailableFrom(listing.getAvailableFrom());
+        response.setAvailableUntil(listing.getAvailableUntil());
+
+        // Preferences
+        response.setPetsAllowed(listing.getPetsAllowed());
+        response.setSmokingAllowed(listing.getSmokingAllowed());
+        response.setFurnished(listing.getFurnished());
+
+        // Contact
+        response.setContactEmail(listing.getContactEmail());
+        response.setContactPhone(listing.getContactPhone());
+
+        // Metadata
+        response.setStatus(listing.getStatus());
+        response.setViewCount(listing.getViewCount());
+        response.setFavoriteCount(listing.getFavoriteCount());
+        response.setCreatedAt(listing.getCreatedAt());
+        response.setUpdatedAt(listing.getUpdatedAt());
+
+        return response;
+    }
+}
@@ -0,0 +1,459 @@
+package com.studentbnb.listing_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studentbnb.listing_service.dto.BulkImportResponse;
+import com.studentbnb.listing_service.dto.CreateListingRequest;
+import com.studentbnb.listing_service.entity.AmenityType;
+import com.studentbnb.listing_service.entity.IdSequences;
+import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import com.studentbnb.listing_service.search.AmenityMask;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk listing import for property managers onboarding many units at once.
+ *
+ * Rows are read as a stream (a JSON array, NDJSON lines or CSV records)
+ * and handled in chunks: a chunk is bean-validated in parallel, then its
+ * valid rows go in as one JDBC batch each for listings, photos and
+ * amenities inside a transaction of its own. If a chunk's batch fails,
+ * its rows are retried one at a time so only the offending rows are
+ * reported. Imported listings start as DRAFT like any new listing, which
+ * no read model holds, so no ListingChangedEvent is published; they join
+ * the read models through STATUS_CHANGED once published.
+ */
+@Service
+@Slf4j
+public class ListingImportService {
+
+    private static final String INSERT_LISTING_SQL =
+        "INSERT INTO listings (id, landlord_id, title, description, rent, currency, security_deposit, utilities_included, " +
+        "bedrooms, bathrooms, square_feet, property_type, address, city, state, zip_code, latitude, longitude, " +
+        "distance_to_campus_km, nearest_university, lease_type, lease_duration_months, available_from, available_until, " +
+        "pets_allowed, smoking_allowed, furnished, contact_email, contact_phone, status, view_count, favorite_count, " +
+        "amenity_mask, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?)";
+
+    private static final String INSERT_PHOTO_SQL =
+        "INSERT INTO listing_photos (id, listing_id, photo_url, display_order, is_primary, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_AMENITY_SQL =
+        "INSERT INTO listing_amenities (id, listing_id, amenity_type, is_available) VALUES (?, ?, ?, true)";
+
+    // Multi-valued CSV columns, split on '|'
+    private static final Set<String> LIST_COLUMNS = Set.of("photoUrls", "amenityTypes");
+
+    @Value("${app.imports.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        // Every chunk commits on its own, whatever the caller is running in
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Import listings already parsed from a JSON array
+    public BulkImportResponse importListings(Long landlordId, List<CreateListingRequest> requests) {
+        Iterator<Row> rows = IntStream.range(0, requests.size())
+            .mapToObj(i -> Row.parsed(i + 1, requests.get(i)))
+            .iterator();
+        return importRows(landlordId, rows);
+    }
+
+    // Import an NDJSON or CSV file, reading it as the import goes
+    public BulkImportResponse importFile(Long landlordId, ListingExportService.Format format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Iterator<Row> rows = format == ListingExportService.Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        try {
+            return importRows(landlordId, rows);
+        } catch (UncheckedReadException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BulkImportResponse importRows(Long landlordId, Iterator<Row> rows) {
+        BulkImportResponse response = new BulkImportResponse();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize) {
+                importChunk(landlordId, chunk, response);
+                chunk.clear();
+            }
+        }
+        importChunk(landlordId, chunk, response);
+
+        response.getErrors().sort(Comparator.comparingInt(BulkImportResponse.RowError::getRow));
+        response.setFailed(response.getReceived() - response.getImported());
+        log.info("Imported {} of {} listings for landlord {}", response.getImported(), response.getReceived(), landlordId);
+        return response;
+    }
+
+    private void importChunk(Long landlordId, List<Row> chunk, BulkImportResponse response) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        response.setReceived(response.getReceived() + chunk.size());
+
+        // Validation is CPU-only and independent per row
+        List<List<BulkImportResponse.RowError>> rowErrors = IntStream.range(0, chunk.size()).parallel()
+            .mapToObj(i -> validate(chunk.get(i)))
+            .toList();
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (rowErrors.get(i).isEmpty()) {
+                valid.add(chunk.get(i));
+            } else {
+                response.getErrors().addAll(rowErrors.get(i));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insert(landlordId, valid, now));
+            response.getListingIds().addAll(ids);
+            response.setImported(response.getImported() + ids.size());
+        } catch (DataAccessException batchFailure) {
+            // Find the rows the database refused by inserting one at a time
+            log.warn("Batch insert of {} listings failed, retrying row by row: {}", valid.size(), batchFailure.getMessage());
+            for (Row row : valid) {
+                try {
+                    List<Long> ids = transactionTemplate.execute(status -> insert(landlordId, List.of(row), now));
+                    response.getListingIds().addAll(ids);
+                    response.setImported(response.getImported() + 1);
+                } catch (DataAccessException e) {
+                    response.getErrors().add(new BulkImportResponse.RowError(row.number, null,
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                }
+            }
+        }
+    }
+
+    private List<BulkImportResponse.RowError> validate(Row row) {
+        if (row.error != null) {
+            return List.of(row.error);
+        }
+        List<BulkImportResponse.RowError> errors = new ArrayList<>();
+        for (ConstraintViolation<CreateListingRequest> violation : validator.validate(row.request)) {
+            errors.add(new BulkImportResponse.RowError(row.number, violation.getPropertyPath().toString(), violation.getMessage()));
+        }
+        errors.sort(Comparator.comparing(BulkImportResponse.RowError::getField));
+        return errors;
+    }
+
+    // Batch-insert listings, then their photos and amenities; returns the new ids in row order
+    private List<Long> insert(Long landlordId, List<Row> rows, LocalDateTime now) {
+        long[] listingIds = idAllocator.next(IdSequences.LISTINGS, rows.size());
+        List<Object[]> listings = new ArrayList<>(rows.size());
+        List<Object[]> photos = new ArrayList<>();
+        List<Object[]> amenities = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            CreateListingRequest r = rows.get(i).request;
+            listings.add(new Object[]{listingIds[i], landlordId, r.getTitle(), r.getDescription(), r.getRent(),
+                r.getCurrency() != null ? r.getCurrency() : "USD", r.getSecurityDeposit(), r.getUtilitiesIncluded(),
+                r.getBedrooms(), r.getBathrooms(), r.getSquareFeet(), r.getPropertyType().name(),
+                r.getAddress(), r.getCity(), r.getState(), r.getZipCode(), r.getLatitude(), r.getLongitude(),
+                r.getDistanceToCampusKm(), r.getNearestUniversity(), r.getLeaseType().name(),
+                r.getLeaseDurationMonths(), r.getAvailableFrom(), r.getAvailableUntil(),
+                r.getPetsAllowed(), r.getSmokingAllowed(), r.getFurnished(), r.getContactEmail(),
+                r.getContactPhone(), ListingStatus.DRAFT.name(), AmenityMask.of(r.getAmenityTypes()), now, now});
+            if (r.getPhotoUrls() != null) {
+                for (int order = 0; order < r.getPhotoUrls().size(); order++) {
+                    // First photo is primary, as for a single create
+                    photos.add(new Object[]{null, listingIds[i], r.getPhotoUrls().get(order), order, order == 0, now});
+                }
+            }
+            if (r.getAmenityTypes() != null) {
+                for (AmenityType type : new LinkedHashSet<>(r.getAmenityTypes())) {
+                    amenities.add(new Object[]{null, listingIds[i], type.name()});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LISTING_SQL, listings, listings.size(), (ps, values) -> bind(ps, values));
+        if (!photos.isEmpty()) {
+            assignIds(IdSequences.LISTING_PHOTOS, photos);
+            jdbcTemplate.batchUpdate(INSERT_PHOTO_SQL, photos, photos.size(), (ps, values) -> bind(ps, values));
+        }
+        if (!amenities.isEmpty()) {
+            assignIds(IdSequences.LISTING_AMENITIES, amenities);
+            jdbcTemplate.batchUpdate(INSERT_AMENITY_SQL, amenities, amenities.size(), (ps, values) -> bind(ps, values));
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (long id : listingIds) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // Fill in the leading id column of each row
+    private void assignIds(String sequence, List<Object[]> rows) {
+        long[] ids = idAllocator.next(sequence, rows.size());
+        for (int i = 0; i < ids.length; i++) {
+            rows.get(i)[0] = ids[i];
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, values[i]);
+        }
+    }
+
+    private static BulkImportResponse.RowError unreadable(int number, Exception e) {
+        Throwable cause = e instanceof JsonMappingException ? e : e.getCause();
+        if (cause instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            String field = mapping.getPath().get(mapping.getPath().size() - 1).getFieldName();
+            return new BulkImportResponse.RowError(number, field, mapping.getOriginalMessage());
+        }
+        String message = e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+        return new BulkImportResponse.RowError(number, null, "Unreadable row: " + message);
+    }
+
+    // One input row: a request, or why it could not be read
+    private static final class Row {
+        final int number;
+        final CreateListingRequest request;
+        final BulkImportResponse.RowError error;
+
+        private Row(int number, CreateListingRequest request, BulkImportResponse.RowError error) {
+            this.number = number;
+            this.request = request;
+            this.error = error;
+        }
+
+        static Row parsed(int number, CreateListingRequest request) {
+            if (request == null) {
+                return new Row(number, null, new BulkImportResponse.RowError(number, null, "Row is empty"));
+            }
+            return new Row(number, request, null);
+        }
+
+        static Row failed(int number, BulkImportResponse.RowError error) {
+            return new Row(number, null, error);
+        }
+    }
+
+    // Reads ahead one row so hasNext() can answer; read failures surface as UncheckedReadException
+    private abstract static class RowReader implements Iterator<Row> {
+        private Row next;
+        private boolean done;
+
+        abstract Row read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedReadException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    // One JSON object per non-blank line
+    private class NdjsonRows extends RowReader {
+        private final BufferedReader reader;
+        private int number;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Row read() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            number++;
+            try {
+                return Row.parsed(number, objectMapper.readValue(line, CreateListingRequest.class));
+            } catch (JsonProcessingException e) {
+                return Row.failed(number, unreadable(number, e));
+            }
+        }
+    }
+
+    // CSV with a header row naming CreateListingRequest fields; list fields are '|'-separated
+    private class CsvRows extends RowReader {
+        private final BufferedReader reader;
+        private String[] header;
+        private int number;
+
+        CsvRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Row read() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord(reader);
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(String::trim).toArray(String[]::new);
+            }
+            List<String> record = readRecord(reader);
+            if (record == null) {
+                return null;
+            }
+            number++;
+            if (record.size() != header.length) {
+                return Row.failed(number, new BulkImportResponse.RowError(number, null,
+                    "Expected " + header.length + " fields but found " + record.size()));
+            }
+
+            Map<String, Object> fields = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                fields.put(header[i], LIST_COLUMNS.contains(header[i]) ? Arrays.asList(value.split("\\|")) : value);
+            }
+            try {
+                return Row.parsed(number, objectMapper.convertValue(fields, CreateListingRequest.class));
+            } catch (IllegalArgumentException e) {
+                return Row.failed(number, unreadable(number, e));
+            }
+        }
+    }
+
+    // Next RFC 4180 record: quoted fields may hold delimiters, doubled quotes and line breaks; null at end of input
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted CSV field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static class UncheckedReadException extends RuntimeException {
+        UncheckedReadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -5,9 +5,11 @@ import com.studentbnb.listing_service.dto.CreateInquiryRequest;
 import com.studentbnb.listing_service.dto.InquiryResponse;
 import com.studentbnb.listing_service.dto.RespondToInquiryRequest;
 import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingEngagementEvent;
 import com.studentbnb.listing_service.repository.ListingInquiryRepository;
 import com.studentbnb.listing_service.repository.ListingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +17,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +32,9 @@ public class ListingInquiryService {
     
     @Autowired
     private ListingRepository listingRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // Create new inquiry
     @Transactional
@@ -53,6 +59,8 @@ public class ListingInquiryService {
         inquiry.setStatus(InquiryStatus.PENDING);
         
         ListingInquiry savedInquiry = inquiryRepository.save(inquiry);
+        eventPublisher.publishEvent(new ListingEngagementEvent(
+            listingId, ListingEngagementEvent.EngagementType.INQUIRY, Instant.now()));
         return convertToResponse(savedInquiry);
     }
 
@@ -4,12 +4,16 @@ package com.studentbnb.listing_service.service;
 import com.studentbnb.listing_service.dto.AddPhotoRequest;
 import com.studentbnb.listing_service.entity.Listing;
 import com.studentbnb.listing_service.entity.ListingPhoto;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
 import com.studentbnb.listing_service.repository.ListingPhotoRepository;
 import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.storage.StoredPhoto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,10 +25,22 @@ public class ListingPhotoService {
     
     @Autowired
     private ListingRepository listingRepository;
+    
+    @Autowired
+    private PhotoAssetService photoAssetService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // Add photo to listing
     @Transactional
     public ListingPhoto addPhoto(Long listingId, Long landlordId, AddPhotoRequest request) {
+        return addPhoto(listingId, landlordId, request, StoredPhoto.of(request.getPhotoUrl()));
+    }
+
+    // Add uploaded photo to listing, recording its variants
+    @Transactional
+    public ListingPhoto addPhoto(Long listingId, Long landlordId, AddPhotoRequest request, StoredPhoto stored) {
         Listing listing = listingRepository.findById(listingId)
             .orElseThrow(() -> new IllegalArgumentException("Listing not found with ID: " + listingId));
         
@@ -46,12 +62,48 @@ public class ListingPhotoService {
         
         ListingPhoto photo = new ListingPhoto();
         photo.setListing(listing);
-        photo.setPhotoUrl(request.getPhotoUrl());
+        applyVariants(photo, stored);
         photo.setDescription(request.getDescription());
         photo.setDisplayOrder(request.getDisplayOrder() != null ? request.getDisplayOrder() : photoCount.intValue());
         photo.setIsPrimary(request.getIsPrimary() != null ? request.getIsPrimary() : (photoCount == 0));
         
-        return photoRepository.save(photo);
+        ListingPhoto savedPhoto = photoRepository.save(photo);
+        publishPhotosChanged(listingId);
+        return savedPhoto;
+    }
+
+    // Add already uploaded photos to a listing in one batch; the first becomes primary
+    @Transactional
+    public List<ListingPhoto> addPhotos(Long listingId, Long landlordId, List<StoredPhoto> storedPhotos) {
+        Listing listing = listingRepository.findById(listingId)
+            .orElseThrow(() -> new IllegalArgumentException("Listing not found with ID: " + listingId));
+
+        // Verify ownership
+        if (!listing.getLandlordId().equals(landlordId)) {
+            throw new IllegalArgumentException("You don't have permission to add photos to this listing");
+        }
+
+        storedPhotos.forEach(stored -> validatePhotoUrl(stored.getPhotoUrl()));
+        if (storedPhotos.isEmpty()) {
+            return List.of();
+        }
+
+        int photoCount = photoRepository.countPhotosByListingId(listingId).intValue();
+        setPrimaryPhoto(listingId, null);
+
+        List<ListingPhoto> photos = new ArrayList<>(storedPhotos.size());
+        for (int i = 0; i < storedPhotos.size(); i++) {
+            ListingPhoto photo = new ListingPhoto();
+            photo.setListing(listing);
+            applyVariants(photo, storedPhotos.get(i));
+            photo.setDisplayOrder(photoCount + i);
+            photo.setIsPrimary(i == 0);
+            photos.add(photo);
+        }
+
+        List<ListingPhoto> savedPhotos = photoRepository.saveAll(photos);
+        publishPhotosChanged(listingId);
+        return savedPhotos;
     }
 
     // Get all photos for a listing
@@ -77,7 +129,11 @@ public class ListingPhotoService {
         
         if (request.getPhotoUrl() != null) {
             validatePhotoUrl(request.getPhotoUrl());
-            photo.setPhotoUrl(request.getPhotoUrl());
+            // A new image makes the old variants stale and lets go of the uploaded one
+            if (!request.getPhotoUrl().equals(photo.getPhotoUrl())) {
+                photoAssetService.release(photo.getContentHash());
+                applyVariants(photo, StoredPhoto.of(request.getPhotoUrl()));
+            }
         }
         
         if (request.getDescription() != null) {
@@ -93,7 +149,9 @@ public class ListingPhotoService {
             photo.setIsPrimary(true);
         }
         
-        return photoRepository.save(photo);
+        ListingPhoto savedPhoto = photoRepository.save(photo);
+        publishPhotosChanged(photo.getListing().getId());
+        return savedPhoto;
     }
 
     // Delete photo
@@ -111,6 +169,7 @@ public class ListingPhotoService {
         Long listingId = photo.getListing().getId();
         
         photoRepository.delete(photo);
+        photoAssetService.release(photo.getContentHash());
         
         // If deleted photo was primary, set another photo as primary
         if (wasPrimary) {
@@ -121,6 +180,8 @@ public class ListingPhotoService {
                 photoRepository.save(newPrimary);
             }
         }
+        
+        publishPhotosChanged(listingId);
     }
 
     // Set primary photo
@@ -147,6 +208,8 @@ public class ListingPhotoService {
             newPrimary.setIsPrimary(true);
             photoRepository.save(newPrimary);
         }
+        
+        publishPhotosChanged(listingId);
     }
 
     // Reorder photos
@@ -172,6 +235,8 @@ public class ListingPhotoService {
             photo.setDisplayOrder(i);
             photoRepository.save(photo);
         }
+        
+        publishPhotosChanged(listingId);
     }
 
     // Delete all photos for a listing
@@ -185,10 +250,26 @@ public class ListingPhotoService {
             throw new IllegalArgumentException("You don't have permission to delete photos for this listing");
         }
         
+        photoRepository.findByListingIdOrderByDisplayOrderAsc(listingId)
+            .forEach(photo -> photoAssetService.release(photo.getContentHash()));
         photoRepository.deleteByListingId(listingId);
+        publishPhotosChanged(listingId);
     }
 
     // Helper methods
+    private void applyVariants(ListingPhoto photo, StoredPhoto stored) {
+        photo.setPhotoUrl(stored.getPhotoUrl());
+        photo.setCardUrl(stored.getCardUrl());
+        photo.setThumbnailUrl(stored.getThumbnailUrl());
+        photo.setCardWebpUrl(stored.getCardWebpUrl());
+        photo.setThumbnailWebpUrl(stored.getThumbnailWebpUrl());
+        photo.setContentHash(stored.getContentHash());
+    }
+
+    private void publishPhotosChanged(Long listingId) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.UPDATED));
+    }
+
     private void validatePhotoUrl(String photoUrl) {
         if (photoUrl == null || photoUrl.trim().isEmpty()) {
             throw new IllegalArgumentException("Photo URL cannot be empty");
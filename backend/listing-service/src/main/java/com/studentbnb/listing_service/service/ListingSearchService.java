@@ -0,0 +1,390 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.CursorPageResponse;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.dto.SearchFacetsResponse;
+import com.studentbnb.listing_service.entity.AmenityType;
+import com.studentbnb.listing_service.entity.Listing;
+import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.pagination.ListingCursor;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.search.AmenityMask;
+import com.studentbnb.listing_service.search.GeoGridIndex;
+import com.studentbnb.listing_service.search.ListingSearchIndex;
+import com.studentbnb.listing_service.search.SuggestionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves listing search from the in-memory ListingSearchIndex.
+ * The index is warmed from the database once the application is ready and
+ * kept current by ListingChangedEvents published after each committed write.
+ * Listings that change while it is warming are read again afterwards, as a
+ * batch may have read them before the change and put back the old row.
+ */
+@Service
+@Slf4j
+public class ListingSearchService {
+
+    private static final int WARMUP_BATCH_SIZE = 500;
+    private static final double MAX_RADIUS_KM = 100;
+
+    private static final String UNMASKED_AMENITIES_SQL =
+        "SELECT l.id, a.amenity_type FROM listings l " +
+        "LEFT JOIN listing_amenities a ON a.listing_id = l.id AND COALESCE(a.is_available, TRUE) = TRUE " +
+        "WHERE l.amenity_mask IS NULL";
+
+    private static final String SET_AMENITY_MASK_SQL =
+        "UPDATE listings SET amenity_mask = ? WHERE id = ? AND amenity_mask IS NULL";
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingHydrationService hydrationService;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    private final ListingSearchIndex index = new ListingSearchIndex();
+
+    // Listings changed while warmUp runs, null when it is not running
+    private Set<Long> changedDuringWarmUp;
+
+    private volatile boolean ready;
+
+    // Search listings from memory, falling back to the database until the index is warm
+    public Page<ListingResponse> search(ListingSearchRequest searchRequest, int page, int size) {
+        resolveLocations(searchRequest);
+        if (!ready) {
+            return listingService.searchListings(searchRequest, page, size);
+        }
+
+        ListingSearchIndex.SearchHits hits = index.search(searchRequest, offsetOf(page, size), size);
+        return new PageImpl<>(hits.getListings(), PageRequest.of(page, size), hits.getTotal());
+    }
+
+    // Filter sidebar counts for a search; these need the index, there is no database fallback
+    public SearchFacetsResponse facets(ListingSearchRequest searchRequest) {
+        if (!ready) {
+            throw new IllegalStateException("Search index is still warming up");
+        }
+        resolveLocations(searchRequest);
+        return index.facets(searchRequest);
+    }
+
+    // Rent and feature statistics of all ACTIVE listings, scanned from the index columns
+    public Map<String, Object> getActiveListingStats() {
+        if (!ready) {
+            throw new IllegalStateException("Search index is still warming up");
+        }
+        return index.stats();
+    }
+
+    // Keyset-paginated search; the cursor carries the sort key of the last listing returned
+    public CursorPageResponse<ListingResponse> searchAfter(ListingSearchRequest searchRequest, String cursor, int size) {
+        resolveLocations(searchRequest);
+        if (!ready) {
+            return listingService.searchListingsAfter(searchRequest, cursor, size);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+
+        String sortBy = ListingSearchIndex.sortField(searchRequest);
+        boolean descending = "desc".equalsIgnoreCase(searchRequest.getSortDirection());
+        ListingSearchIndex.SortKey after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            ListingCursor decoded = ListingCursor.decode(cursor, sortBy, descending);
+            after = new ListingSearchIndex.SortKey(decoded.getBoost(), decoded.getValue(), decoded.getId());
+        }
+
+        // Fetch one extra hit to learn whether another slice follows
+        List<ListingResponse> hits = index.searchAfter(searchRequest, after, size + 1).getListings();
+        boolean hasNext = hits.size() > size;
+        List<ListingResponse> content = hasNext ? hits.subList(0, size) : hits;
+        String nextCursor = null;
+        if (hasNext) {
+            ListingSearchIndex.SortKey last = index.sortKeyOf(searchRequest, content.get(content.size() - 1));
+            nextCursor = new ListingCursor(sortBy, descending, last.getBoost(), last.getValue(), last.getListingId()).encode();
+        }
+        return new CursorPageResponse<>(new ArrayList<>(content), size, nextCursor);
+    }
+
+    // Listings within radiusKm of a coordinate, nearest first
+    public Page<ListingResponse> nearby(Double latitude, Double longitude, Double radiusKm, int page, int size) {
+        validateCoordinates(latitude, longitude);
+        if (radiusKm == null || radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + (int) MAX_RADIUS_KM);
+        }
+
+        if (!ready) {
+            return nearbyFromDatabase(latitude, longitude, radiusKm, page, size);
+        }
+
+        ListingSearchIndex.SearchHits hits = index.nearby(latitude, longitude, radiusKm, offsetOf(page, size), size);
+        List<ListingResponse> content = new ArrayList<>(hits.getListings().size());
+        for (int i = 0; i < hits.getListings().size(); i++) {
+            content.add(withDistance(hits.getListings().get(i), hits.getDistancesKm().get(i)));
+        }
+        return new PageImpl<>(content, PageRequest.of(page, size), hits.getTotal());
+    }
+
+    // Listings inside a map viewport, newest first
+    public Page<ListingResponse> withinBounds(Double minLat, Double maxLat, Double minLon, Double maxLon, int page, int size) {
+        validateCoordinates(minLat, minLon);
+        validateCoordinates(maxLat, maxLon);
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+
+        if (!ready) {
+            List<Listing> listings = listingRepository.findActiveWithinBounds(minLat, maxLat, minLon, maxLon);
+            listings.sort(Comparator.comparing(Listing::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+            return pageOf(hydrationService.hydrate(slice(listings, page, size)), page, size, listings.size());
+        }
+
+        ListingSearchIndex.SearchHits hits = index.withinBounds(minLat, maxLat, minLon, maxLon, offsetOf(page, size), size);
+        return new PageImpl<>(hits.getListings(), PageRequest.of(page, size), hits.getTotal());
+    }
+
+    // Listings available for the whole of [moveIn, moveOut] (only moveIn: on that day), newest first
+    public Page<ListingResponse> available(LocalDate moveIn, LocalDate moveOut, int page, int size) {
+        if (moveIn == null) {
+            throw new IllegalArgumentException("moveIn is required");
+        }
+        LocalDate until = moveOut != null ? moveOut : moveIn;
+        if (until.isBefore(moveIn)) {
+            throw new IllegalArgumentException("moveOut must not be before moveIn");
+        }
+
+        if (!ready) {
+            return listingService.getAvailableListings(moveIn, until, page, size);
+        }
+        PageRequest pageRequest = PageRequest.of(page, size);
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setAvailableFrom(moveIn);
+        request.setAvailableUntil(until);
+        ListingSearchIndex.SearchHits hits = index.search(request, offsetOf(page, size), size);
+        return new PageImpl<>(hits.getListings(), pageRequest, hits.getTotal());
+    }
+
+    // First hit of a page; pages past the end of int are rejected instead of wrapping to a negative offset
+    private static int offsetOf(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must not be negative and size must be at least 1");
+        }
+        try {
+            return Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Page " + page + " of size " + size + " is out of range");
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int indexedCount() {
+        return index.size();
+    }
+
+    // Load every ACTIVE listing into the index
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringWarmUp = new HashSet<>();
+        }
+        index.clear();
+
+        try {
+            backfillAmenityMasks();
+
+            long lastId = 0L;
+            while (true) {
+                List<Listing> batch = listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                    ListingStatus.ACTIVE, lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                hydrationService.hydrateDetached(batch).forEach(index::put);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            // Until nothing changed during the last round, so no stale row is left behind
+            while (true) {
+                Set<Long> changed;
+                synchronized (this) {
+                    changed = changedDuringWarmUp;
+                    changedDuringWarmUp = changed.isEmpty() ? null : new HashSet<>();
+                }
+                if (changed.isEmpty()) {
+                    break;
+                }
+                changed.forEach(this::refresh);
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringWarmUp = null;
+            }
+            // Keep serving search from the database rather than failing startup
+            log.error("Failed to warm search index, searches will use the database: {}", e.getMessage());
+            return;
+        }
+
+        ready = true;
+        log.info("Search index warmed with {} active listings in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    // Listings written before amenity_mask existed get it computed once from listing_amenities
+    private void backfillAmenityMasks() {
+        Map<Long, Long> masks = new LinkedHashMap<>();
+        jdbcTemplate.query(UNMASKED_AMENITIES_SQL, rs -> {
+            long mask = masks.getOrDefault(rs.getLong("id"), AmenityMask.NONE);
+            String type = rs.getString("amenity_type");
+            if (type != null) {
+                try {
+                    mask |= AmenityMask.bit(AmenityType.valueOf(type));
+                } catch (IllegalArgumentException e) {
+                    // Amenity types no longer in the enum do not count
+                }
+            }
+            masks.put(rs.getLong("id"), mask);
+        });
+        if (masks.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(masks.entrySet());
+        jdbcTemplate.batchUpdate(SET_AMENITY_MASK_SQL, updates, WARMUP_BATCH_SIZE, (ps, update) -> {
+            ps.setLong(1, update.getValue());
+            ps.setLong(2, update.getKey());
+        });
+        log.info("Backfilled amenity masks of {} listings", updates.size());
+    }
+
+    // Bounding-box prefilter in SQL, haversine refinement in memory
+    private Page<ListingResponse> nearbyFromDatabase(double latitude, double longitude, double radiusKm, int page, int size) {
+        double latDelta = radiusKm / 111.32;
+        double lonDelta = radiusKm / (111.32 * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        List<Listing> candidates = listingRepository.findActiveWithinBounds(
+            latitude - latDelta, latitude + latDelta, longitude - lonDelta, longitude + lonDelta);
+
+        List<Listing> matches = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        for (Listing listing : candidates) {
+            double km = GeoGridIndex.haversineKm(latitude, longitude, listing.getLatitude(), listing.getLongitude());
+            if (km <= radiusKm) {
+                matches.add(listing);
+                distances.add(km);
+            }
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(distances::get));
+
+        List<Integer> window = slice(order, page, size);
+        List<Listing> pageListings = new ArrayList<>();
+        for (Integer i : window) {
+            pageListings.add(matches.get(i));
+        }
+        List<ListingResponse> content = hydrationService.hydrate(pageListings);
+        for (int i = 0; i < content.size(); i++) {
+            content.get(i).setDistanceKm(distances.get(window.get(i)));
+        }
+        return pageOf(content, page, size, matches.size());
+    }
+
+    // Copy an indexed response so the shared instance is never mutated
+    private ListingResponse withDistance(ListingResponse indexed, double distanceKm) {
+        ListingResponse copy = new ListingResponse();
+        BeanUtils.copyProperties(indexed, copy);
+        copy.setDistanceKm(distanceKm);
+        return copy;
+    }
+
+    // Swap misspelled or abbreviated city and university terms for the values listings carry
+    private void resolveLocations(ListingSearchRequest searchRequest) {
+        searchRequest.setCity(autocompleteService.resolve(SuggestionType.CITY, searchRequest.getCity()));
+        searchRequest.setNearestUniversity(
+            autocompleteService.resolve(SuggestionType.UNIVERSITY, searchRequest.getNearestUniversity()));
+    }
+
+    private void validateCoordinates(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+    }
+
+    private static <T> List<T> slice(List<T> items, int page, int size) {
+        int from = Math.min(items.size(), page * size);
+        int to = Math.min(items.size(), from + size);
+        return items.subList(from, to);
+    }
+
+    private static Page<ListingResponse> pageOf(List<ListingResponse> content, int page, int size, long total) {
+        return new PageImpl<>(content, PageRequest.of(page, size), total);
+    }
+
+    // Keep the index in step with committed listing writes
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        synchronized (this) {
+            if (changedDuringWarmUp != null) {
+                changedDuringWarmUp.add(event.getListingId());
+            }
+        }
+        if (event.getChangeType() == ListingChangedEvent.ChangeType.DELETED) {
+            index.remove(event.getListingId());
+            return;
+        }
+        refresh(event.getListingId());
+    }
+
+    // Index a listing as currently stored
+    private void refresh(Long listingId) {
+        Optional<Listing> listing = listingRepository.findById(listingId);
+        if (listing.isPresent()) {
+            index.put(hydrationService.hydrateDetached(List.of(listing.get())).get(0));
+        } else {
+            index.remove(listingId);
+        }
+    }
+}
@@ -2,28 +2,44 @@ package com.studentbnb.listing_service.service;
 
 
 
+import com.studentbnb.listing_service.cache.ListingResponseCache;
 import com.studentbnb.listing_service.dto.CreateListingRequest;
+import com.studentbnb.listing_service.dto.CursorPageResponse;
 import com.studentbnb.listing_service.dto.ListingResponse;
 import com.studentbnb.listing_service.dto.ListingSearchRequest;
 import com.studentbnb.listing_service.dto.UpdateListingRequest;
 import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.pagination.ListingCursor;
 import com.studentbnb.listing_service.repository.*;
+import com.studentbnb.listing_service.search.AmenityMask;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class ListingService {
 
+    // Sort fields that can back a keyset cursor (non-null columns, tie-broken by id)
+    private static final Set<String> CURSOR_SORT_FIELDS = Set.of("createdAt", "rent", "viewCount", "favoriteCount");
+
     @Autowired
     private ListingRepository listingRepository;
     
@@ -38,6 +54,21 @@ public class ListingService {
     
     @Autowired
     private ListingViewRepository viewRepository;
+    
+    @Autowired
+    private ListingHydrationService hydrationService;
+    
+    @Autowired
+    private PhotoAssetService photoAssetService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ListingResponseCache listingCache;
+    
+    @Autowired
+    private ListingViewTracker viewTracker;
 
     // Create new listing
     @Transactional
@@ -48,6 +79,7 @@ public class ListingService {
         listing.setLandlordId(landlordId);
         mapRequestToListing(request, listing);
         listing.setStatus(ListingStatus.DRAFT);
+        listing.setAmenityMask(AmenityMask.of(request.getAmenityTypes()));
         
         Listing savedListing = listingRepository.save(listing);
         
@@ -61,30 +93,39 @@ public class ListingService {
             addAmenitiesToListing(savedListing, request.getAmenityTypes());
         }
         
+        eventPublisher.publishEvent(new ListingChangedEvent(savedListing.getId(), ListingChangedEvent.ChangeType.CREATED));
         return convertToResponse(savedListing);
     }
 
     // Get listing by ID
     public Optional<ListingResponse> getListingById(Long id) {
-        Optional<Listing> listing = listingRepository.findById(id);
-        return listing.map(this::convertToResponse);
+        return listingCache.get(id, this::loadListingResponse);
     }
 
-    // Get listing by ID with view tracking
-    @Transactional
+    // Get listings by ID in the order given, loading all cache misses together; missing IDs are skipped
+    public List<ListingResponse> getListingsByIds(List<Long> ids) {
+        Map<Long, ListingResponse> found = listingCache.getAll(ids, this::loadListingResponses);
+        List<ListingResponse> listings = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            ListingResponse listing = found.get(id);
+            if (listing != null) {
+                listings.add(listing);
+            }
+        }
+        return listings;
+    }
+
+    // Get listing by ID with view tracking (the view itself is written in the background)
+    @Transactional(readOnly = true)
     public Optional<ListingResponse> getListingByIdWithView(Long id, Long userId, String ipAddress, String userAgent) {
-        Optional<Listing> listingOpt = listingRepository.findById(id);
+        Optional<ListingResponse> listing = listingCache.get(id, this::loadListingResponse);
         
-        if (listingOpt.isPresent()) {
-            Listing listing = listingOpt.get();
-            
+        if (listing.isPresent()) {
             // Track view
-            trackListingView(listing, userId, ipAddress, userAgent);
-            
-            return Optional.of(convertToResponse(listing));
+            trackListingView(id, userId, ipAddress, userAgent);
         }
         
-        return Optional.empty();
+        return listing;
     }
 
     // Update listing
@@ -101,6 +142,7 @@ public class ListingService {
         mapUpdateRequestToListing(request, listing);
         Listing savedListing = listingRepository.save(listing);
         
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.UPDATED));
         return convertToResponse(savedListing);
     }
 
@@ -115,15 +157,16 @@ public class ListingService {
             throw new IllegalArgumentException("You don't have permission to delete this listing");
         }
         
+        // Photos go with the listing; uploaded images nothing else uses go from storage
+        listing.getPhotos().forEach(photo -> photoAssetService.release(photo.getContentHash()));
         listingRepository.delete(listing);
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.DELETED));
     }
 
     // Get landlord's listings
     public List<ListingResponse> getLandlordListings(Long landlordId) {
         List<Listing> listings = listingRepository.findByLandlordId(landlordId);
-        return listings.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return hydrationService.hydrate(listings);
     }
 
     // Get active listings with pagination
@@ -134,7 +177,12 @@ public class ListingService {
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Listing> listings = listingRepository.findActiveListings(pageable);
         
-        return listings.map(this::convertToResponse);
+        return hydrationService.hydrate(listings);
+    }
+
+    // Get active listings with keyset pagination
+    public CursorPageResponse<ListingResponse> getActiveListingsAfter(String cursor, int size, String sortBy, String sortDir) {
+        return scrollActiveListings(sortBy, sortDir.equalsIgnoreCase("desc"), cursor, size);
     }
 
     // Search listings
@@ -150,26 +198,64 @@ public class ListingService {
             searchRequest.getMaxBedrooms(),
             searchRequest.getPetsAllowed(),
             searchRequest.getFurnished(),
+            AmenityMask.of(searchRequest.getRequiredAmenities()),
+            moveIn(searchRequest),
+            moveOut(searchRequest),
             pageable
         );
         
-        return listings.map(this::convertToResponse);
+        return hydrationService.hydrate(listings);
+    }
+
+    // Search listings with keyset pagination, newest first
+    public CursorPageResponse<ListingResponse> searchListingsAfter(ListingSearchRequest searchRequest, String cursor, int size) {
+        validateCursorSize(size);
+        ListingCursor after = cursor == null || cursor.isEmpty() ? null : ListingCursor.decode(cursor, "createdAt", true);
+        
+        // Fetch one extra row to learn whether another slice follows
+        List<Listing> listings = listingRepository.searchListingsAfter(
+            searchRequest.getCity(),
+            searchRequest.getPropertyType(),
+            searchRequest.getMinRent(),
+            searchRequest.getMaxRent(),
+            searchRequest.getMinBedrooms(),
+            searchRequest.getMaxBedrooms(),
+            searchRequest.getPetsAllowed(),
+            searchRequest.getFurnished(),
+            AmenityMask.of(searchRequest.getRequiredAmenities()),
+            moveIn(searchRequest),
+            moveOut(searchRequest),
+            after != null ? (LocalDateTime) after.getValue() : null,
+            after != null ? after.getId() : null,
+            PageRequest.of(0, size + 1)
+        );
+        
+        boolean hasNext = listings.size() > size;
+        List<Listing> content = hasNext ? listings.subList(0, size) : listings;
+        String nextCursor = null;
+        if (hasNext) {
+            Listing last = content.get(content.size() - 1);
+            nextCursor = new ListingCursor("createdAt", true, 0, last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(hydrationService.hydrate(content), size, nextCursor);
     }
 
     // Get listings near campus
     public List<ListingResponse> getListingsNearCampus(Double maxDistance) {
         List<Listing> listings = listingRepository.findNearCampus(maxDistance);
-        return listings.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return hydrationService.hydrate(listings);
+    }
+
+    // Get listings available for the whole of [moveIn, moveOut], newest first
+    public Page<ListingResponse> getAvailableListings(LocalDate moveIn, LocalDate moveOut, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return hydrationService.hydrate(listingRepository.findAvailableThrough(moveIn, moveOut, pageable));
     }
 
     // Get listings by university
     public List<ListingResponse> getListingsByUniversity(String university) {
         List<Listing> listings = listingRepository.findByUniversity(university);
-        return listings.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return hydrationService.hydrate(listings);
     }
 
     // Change listing status
@@ -186,6 +272,7 @@ public class ListingService {
         listing.setStatus(status);
         Listing savedListing = listingRepository.save(listing);
         
+        eventPublisher.publishEvent(new ListingChangedEvent(listingId, ListingChangedEvent.ChangeType.STATUS_CHANGED));
         return convertToResponse(savedListing);
     }
 
@@ -193,17 +280,95 @@ public class ListingService {
     public Page<ListingResponse> getRecentListings(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Listing> listings = listingRepository.findRecentListings(pageable);
-        return listings.map(this::convertToResponse);
+        return hydrationService.hydrate(listings);
     }
 
     // Get popular listings
     public Page<ListingResponse> getPopularListings(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Listing> listings = listingRepository.findMostViewed(pageable);
-        return listings.map(this::convertToResponse);
+        return hydrationService.hydrate(listings);
+    }
+
+    // Get popular listings in a city and/or near a university, either of which may be null
+    public Page<ListingResponse> getPopularListings(String city, String university, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Listing> listings = listingRepository.findMostViewedIn(city, university, pageable);
+        return hydrationService.hydrate(listings);
+    }
+
+    // Get recent listings with keyset pagination on (createdAt, id)
+    public CursorPageResponse<ListingResponse> getRecentListingsAfter(String cursor, int size) {
+        return scrollActiveListings("createdAt", true, cursor, size);
+    }
+
+    // Get popular listings with keyset pagination on (viewCount, id)
+    public CursorPageResponse<ListingResponse> getPopularListingsAfter(String cursor, int size) {
+        return scrollActiveListings("viewCount", true, cursor, size);
     }
 
     // Helper methods
+    // Cache loader: a detached response that is safe to share between requests
+    private Optional<ListingResponse> loadListingResponse(Long id) {
+        return listingRepository.findById(id)
+            .map(listing -> hydrationService.hydrateDetached(List.of(listing)).get(0));
+    }
+
+    private Map<Long, ListingResponse> loadListingResponses(Set<? extends Long> ids) {
+        Map<Long, ListingResponse> responses = new HashMap<>();
+        for (ListingResponse response : hydrationService.hydrateDetached(listingRepository.findAllById(List.copyOf(ids)))) {
+            responses.put(response.getId(), response);
+        }
+        return responses;
+    }
+    
+    private CursorPageResponse<ListingResponse> scrollActiveListings(String sortBy, boolean descending, String cursor, int size) {
+        if (!CURSOR_SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + String.join(", ", CURSOR_SORT_FIELDS));
+        }
+        validateCursorSize(size);
+        
+        ScrollPosition position = cursor == null || cursor.isEmpty()
+            ? ScrollPosition.keyset()
+            : ListingCursor.decode(cursor, sortBy, descending).toScrollPosition();
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        
+        Window<Listing> window = listingRepository.findByStatus(
+            ListingStatus.ACTIVE, position, Sort.by(direction, sortBy, "id"), Limit.of(size));
+        
+        List<Listing> content = window.getContent();
+        String nextCursor = null;
+        if (window.hasNext() && !content.isEmpty()) {
+            Listing last = content.get(content.size() - 1);
+            nextCursor = new ListingCursor(sortBy, descending, 0, sortValue(last, sortBy), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(hydrationService.hydrate(content), size, nextCursor);
+    }
+    
+    private Comparable<?> sortValue(Listing listing, String sortBy) {
+        return switch (sortBy) {
+            case "rent" -> listing.getRent();
+            case "viewCount" -> listing.getViewCount();
+            case "favoriteCount" -> listing.getFavoriteCount();
+            default -> listing.getCreatedAt();
+        };
+    }
+    
+    // Search window bounds; with only one date given the window is that day
+    private static LocalDate moveIn(ListingSearchRequest searchRequest) {
+        return searchRequest.getAvailableFrom() != null ? searchRequest.getAvailableFrom() : searchRequest.getAvailableUntil();
+    }
+
+    private static LocalDate moveOut(ListingSearchRequest searchRequest) {
+        return searchRequest.getAvailableUntil() != null ? searchRequest.getAvailableUntil() : searchRequest.getAvailableFrom();
+    }
+
+    private void validateCursorSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+    }
+    
     private void validateCreateListingRequest(CreateListingRequest request) {
         if (request.getTitle() == null || request.getTitle().trim().length() < 10) {
             throw new IllegalArgumentException("Title must be at least 10 characters long");
@@ -284,88 +449,13 @@ public class ListingService {
         }
     }
 
-    private void trackListingView(Listing listing, Long userId, String ipAddress, String userAgent) {
-        // Check if view was already recorded recently (prevent spam)
-        Long recentViews = viewRepository.countRecentViews(
-            listing.getId(), 
-            userId, 
-            ipAddress, 
-            java.time.LocalDateTime.now().minusHours(1)
-        );
-        
-        if (recentViews == 0) {
-            ListingView view = new ListingView();
-            view.setListing(listing);
-            view.setUserId(userId);
-            view.setIpAddress(ipAddress);
-            view.setUserAgent(userAgent);
-            viewRepository.save(view);
-            
-            // Update view count
-            listing.setViewCount(listing.getViewCount() + 1);
-            listingRepository.save(listing);
-        }
+    private void trackListingView(Long listingId, Long userId, String ipAddress, String userAgent) {
+        // Repeat views within the hour are filtered in memory (prevent spam); new ones
+        // are queued for the batched writer, and view_count follows via the counters
+        viewTracker.record(listingId, userId, ipAddress, userAgent);
     }
 
     private ListingResponse convertToResponse(Listing listing) {
-        ListingResponse response = new ListingResponse();
-        
-        // Basic listing info
-        response.setId(listing.getId());
-        response.setLandlordId(listing.getLandlordId());
-        response.setTitle(listing.getTitle());
-        response.setDescription(listing.getDescription());
-        response.setRent(listing.getRent());
-        response.setCurrency(listing.getCurrency());
-        response.setSecurityDeposit(listing.getSecurityDeposit());
-        response.setUtilitiesIncluded(listing.getUtilitiesIncluded());
-        
-        // Property details
-        response.setBedrooms(listing.getBedrooms());
-        response.setBathrooms(listing.getBathrooms());
-        response.setSquareFeet(listing.getSquareFeet());
-        response.setPropertyType(listing.getPropertyType());
-        
-        // Location
-        response.setAddress(listing.getAddress());
-        response.setCity(listing.getCity());
-        response.setState(listing.getState());
-        response.setZipCode(listing.getZipCode());
-        response.setLatitude(listing.getLatitude());
-        response.setLongitude(listing.getLongitude());
-        response.setDistanceToCampusKm(listing.getDistanceToCampusKm());
-        response.setNearestUniversity(listing.getNearestUniversity());
-        
-        // Lease details
-        response.setLeaseType(listing.getLeaseType());
-        response.setLeaseDurationMonths(listing.getLeaseDurationMonths());
-        response.setAvailableFrom(listing.getAvailableFrom());
-        response.setAvailableUntil(listing.getAvailableUntil());
-        
-        // Preferences
-        response.setPetsAllowed(listing.getPetsAllowed());
-        response.setSmokingAllowed(listing.getSmokingAllowed());
-        response.setFurnished(listing.getFurnished());
-        
-        // Contact
-        response.setContactEmail(listing.getContactEmail());
-        response.setContactPhone(listing.getContactPhone());
-        
-        // Metadata
-        response.setStatus(listing.getStatus());
-        response.setViewCount(listing.getViewCount());
-        response.setFavoriteCount(listing.getFavoriteCount());
-        response.setCreatedAt(listing.getCreatedAt());
-        response.setUpdatedAt(listing.getUpdatedAt());
-        
-        // Load photos
-        List<ListingPhoto> photos = photoRepository.findByListingIdOrderByDisplayOrderAsc(listing.getId());
-        response.setPhotos(photos);
-        
-        // Load amenities
-        List<ListingAmenity> amenities = amenityRepository.findByListingIdAndIsAvailableTrue(listing.getId());
-        response.setAmenities(amenities);
-        
-        return response;
+        return hydrationService.hydrate(listing);
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.IdSequences;
+import com.studentbnb.listing_service.event.ListingEngagementEvent;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import com.studentbnb.listing_service.tracking.OverflowPolicy;
+import com.studentbnb.listing_service.tracking.SlidingWindowViewFilter;
+import com.studentbnb.listing_service.tracking.ViewEvent;
+import com.studentbnb.listing_service.tracking.ViewEventQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Write-behind pipeline for listing page views.
+ *
+ * The GET path checks an in-memory sliding-window filter for a repeat view
+ * from the same viewer and otherwise only enqueues a ViewEvent; it never
+ * queries or writes listing_views. A scheduled writer drains the queue
+ * in batches and inserts the listing_views rows with one JDBC batch, row
+ * by row if the database refuses one of them. The views that were written
+ * are handed to ListingCounterService, which owns view_count, so concurrent
+ * views never serialize on the listing row.
+ */
+@Service
+@Slf4j
+public class ListingViewTracker {
+
+    private static final int USER_AGENT_MAX_LENGTH = 255;
+
+    // Longest textual IPv6 address; the client-supplied X-Forwarded-For is cut to it
+    private static final int IP_ADDRESS_MAX_LENGTH = 45;
+
+    // Views of a listing deleted before the flush are skipped rather than failing the batch
+    private static final String INSERT_VIEW_SQL =
+        "INSERT INTO listing_views (id, listing_id, user_id, ip_address, user_agent, viewed_at) " +
+        "SELECT ?, ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM listings WHERE id = ?)";
+
+    @Value("${app.views.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${app.views.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.views.overflow-policy:DROP_NEWEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.views.dedupe-window:1h}")
+    private Duration dedupeWindow;
+
+    @Value("${app.views.dedupe-buckets:6}")
+    private int dedupeBuckets;
+
+    @Value("${app.views.dedupe-expected-views:10000000}")
+    private long dedupeExpectedViews;
+
+    @Value("${app.views.dedupe-false-positive-rate:0.01}")
+    private double dedupeFalsePositiveRate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private ListingCounterService counterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private ViewEventQueue queue;
+
+    private SlidingWindowViewFilter recentViews;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        queue = new ViewEventQueue(queueCapacity, overflowPolicy);
+        recentViews = new SlidingWindowViewFilter(dedupeWindow, dedupeBuckets, dedupeExpectedViews,
+            dedupeFalsePositiveRate, Clock.systemUTC());
+        log.info("View dedupe filter: {} window in {} buckets, {} KB",
+            dedupeWindow, dedupeBuckets, recentViews.sizeInBytes() / 1024);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        if (meterRegistry != null) {
+            Gauge.builder("listing.views.queue.size", queue, ViewEventQueue::size).register(meterRegistry);
+            Gauge.builder("listing.views.dropped", queue, ViewEventQueue::droppedCount).register(meterRegistry);
+            Gauge.builder("listing.views.written", written, AtomicLong::get).register(meterRegistry);
+            Gauge.builder("listing.views.failed", failed, AtomicLong::get).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Record a view without touching the database; returns false if it was a repeat or the queue dropped it.
+     * A full queue is checked for before the filter marks the viewer as seen, since a view dropped after
+     * that could not be recorded again for the rest of the window. Requests racing for the last free
+     * slots can still lose a view that way, which best-effort tracking accepts.
+     */
+    public boolean record(Long listingId, Long userId, String ipAddress, String userAgent) {
+        if (queue.isFull()) {
+            queue.recordDrop();
+            return false;
+        }
+        ipAddress = truncate(ipAddress, IP_ADDRESS_MAX_LENGTH);
+        if (!recentViews.firstView(listingId, userId, ipAddress)) {
+            return false;
+        }
+        userAgent = truncate(userAgent, USER_AGENT_MAX_LENGTH);
+        if (!queue.offer(new ViewEvent(listingId, userId, ipAddress, userAgent, LocalDateTime.now()))) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ListingEngagementEvent(
+            listingId, ListingEngagementEvent.EngagementType.VIEW, Instant.now()));
+        return true;
+    }
+
+    // Drain everything queued so far, one batch per transaction
+    @Scheduled(fixedDelayString = "${app.views.flush-interval:1s}")
+    public synchronized void flush() {
+        recentViews.tick();
+
+        List<ViewEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        log.info("View tracker stopped: {} views written, {} dropped, {} failed",
+            written.get(), queue.droppedCount(), failed.get());
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    public long droppedCount() {
+        return queue.droppedCount();
+    }
+
+    private void writeBatch(List<ViewEvent> batch) {
+        try {
+            long[] ids = idAllocator.next(IdSequences.LISTING_VIEWS, batch.size());
+            Set<Long> listingIds = batch.stream().map(ViewEvent::getListingId).collect(Collectors.toSet());
+            // Counted as part of the write, so reconciliation never sees the rows without their deltas
+            counterService.recordViews(listingIds, () -> insert(batch, ids));
+        } catch (Exception e) {
+            // Views are best effort; never retry a batch that may keep failing
+            failed.addAndGet(batch.size());
+            log.error("Failed to write {} listing views: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // One JDBC batch; if the database refuses a row, one row at a time so the rest still go in
+    private Map<Long, Integer> insert(List<ViewEvent> batch, long[] ids) {
+        List<Integer> positions = IntStream.range(0, batch.size()).boxed().toList();
+        try {
+            Map<Long, Integer> viewsByListing = countInserted(batch, positions, insertRows(batch, ids, positions));
+            written.addAndGet(batch.size());
+            return viewsByListing;
+        } catch (DataIntegrityViolationException batchFailure) {
+            log.warn("Batch insert of {} listing views failed, retrying row by row: {}", batch.size(), batchFailure.getMessage());
+        }
+
+        Map<Long, Integer> viewsByListing = new HashMap<>();
+        for (Integer position : positions) {
+            try {
+                List<Integer> row = List.of(position);
+                countInserted(batch, row, insertRows(batch, ids, row)).forEach((listingId, views) ->
+                    viewsByListing.merge(listingId, views, Integer::sum));
+                written.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                failed.incrementAndGet();
+                log.error("Failed to write a view of listing {}: {}", batch.get(position).getListingId(), e.getMessage());
+            }
+        }
+        return viewsByListing;
+    }
+
+    private int[][] insertRows(List<ViewEvent> batch, long[] ids, List<Integer> positions) {
+        return transactionTemplate.execute(status ->
+            jdbcTemplate.batchUpdate(INSERT_VIEW_SQL, positions, positions.size(), (ps, i) -> {
+                ViewEvent event = batch.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setLong(2, event.getListingId());
+                if (event.getUserId() != null) {
+                    ps.setLong(3, event.getUserId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setString(4, event.getIpAddress());
+                ps.setString(5, event.getUserAgent());
+                ps.setTimestamp(6, Timestamp.valueOf(event.getViewedAt()));
+                ps.setLong(7, event.getListingId());
+            }));
+    }
+
+    // Rows skipped for deleted listings report 0; drivers that cannot tell report SUCCESS_NO_INFO
+    private Map<Long, Integer> countInserted(List<ViewEvent> batch, List<Integer> positions, int[][] inserted) {
+        Map<Long, Integer> viewsByListing = new HashMap<>();
+        int i = 0;
+        for (int[] counts : inserted) {
+            for (int count : counts) {
+                if (count != 0) {
+                    viewsByListing.merge(batch.get(positions.get(i)).getListingId(), 1, Integer::sum);
+                }
+                i++;
+            }
+        }
+        return viewsByListing;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
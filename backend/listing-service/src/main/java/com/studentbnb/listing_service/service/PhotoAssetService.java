@@ -0,0 +1,118 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.PhotoAsset;
+import com.studentbnb.listing_service.entity.PhotoCleanupTask;
+import com.studentbnb.listing_service.repository.PhotoAssetRepository;
+import com.studentbnb.listing_service.repository.PhotoCleanupTaskRepository;
+import com.studentbnb.listing_service.storage.StoredPhoto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reference counts of uploaded images (PhotoAsset). An upload takes a
+ * reference before its ListingPhoto exists, and whoever removes the photo,
+ * or gives up on adding it, releases that reference again; releasing the
+ * last one queues a PhotoCleanupTask in the same transaction, so the image
+ * is deleted from storage in the background once that commits. Each upload
+ * stores its own copy under a fresh name, so a queued deletion only ever
+ * removes the copy it was queued for.
+ */
+@Service
+public class PhotoAssetService {
+
+    @Autowired
+    private PhotoAssetRepository assetRepository;
+
+    @Autowired
+    private PhotoCleanupTaskRepository cleanupTaskRepository;
+
+    // Take a reference to the stored image with this content, if there is one
+    @Transactional
+    public Optional<StoredPhoto> acquire(String contentHash) {
+        if (assetRepository.addReference(contentHash) == 0) {
+            return Optional.empty();
+        }
+        return assetRepository.findById(contentHash).map(this::toStoredPhoto);
+    }
+
+    /**
+     * Record a freshly stored image, holding one reference to it
+     * @param stored stored variants, with their content hash
+     * @param storageName name the copy was stored under
+     * @return the registered variants; if a concurrent upload of the same image registered first,
+     *         this takes a reference to that one instead and queues this copy for deletion
+     * @throws org.springframework.dao.DataIntegrityViolationException if a concurrent upload registers
+     *         the same image between the check and the insert; acquire it and discard this copy instead
+     */
+    @Transactional
+    public StoredPhoto register(StoredPhoto stored, String storageName) {
+        if (assetRepository.addReference(stored.getContentHash()) > 0) {
+            Optional<StoredPhoto> registered = assetRepository.findById(stored.getContentHash()).map(this::toStoredPhoto);
+            if (registered.isPresent()) {
+                queueCleanup(stored.getContentHash(), stored.getPhotoUrl());
+                return registered.get();
+            }
+            return stored;
+        }
+        PhotoAsset asset = new PhotoAsset();
+        asset.setContentHash(stored.getContentHash());
+        asset.setStorageName(storageName);
+        asset.setPhotoUrl(stored.getPhotoUrl());
+        asset.setCardUrl(stored.getCardUrl());
+        asset.setThumbnailUrl(stored.getThumbnailUrl());
+        asset.setCardWebpUrl(stored.getCardWebpUrl());
+        asset.setThumbnailWebpUrl(stored.getThumbnailWebpUrl());
+        asset.setReferenceCount(1);
+        assetRepository.saveAndFlush(asset);
+        return stored;
+    }
+
+    // Drop one reference; photos that were linked rather than uploaded have no content hash and hold none
+    @Transactional
+    public void release(String contentHash) {
+        if (contentHash == null) {
+            return;
+        }
+        Optional<String> photoUrl = assetRepository.findPhotoUrl(contentHash);
+        if (photoUrl.isEmpty() || assetRepository.removeReference(contentHash) == 0) {
+            return;
+        }
+        if (assetRepository.deleteUnreferenced(contentHash) > 0) {
+            queueCleanup(contentHash, photoUrl.get());
+        }
+    }
+
+    // Queue a stored copy no asset points at for deletion, e.g. one that lost a concurrent upload of the same image
+    @Transactional
+    public void discard(StoredPhoto stored) {
+        queueCleanup(stored.getContentHash(), stored.getPhotoUrl());
+    }
+
+    // Full-size URLs of the copies currently registered for these images
+    @Transactional(readOnly = true)
+    public Set<String> registeredUrls(Collection<String> contentHashes) {
+        return assetRepository.findAllById(contentHashes).stream()
+            .map(PhotoAsset::getPhotoUrl)
+            .collect(Collectors.toSet());
+    }
+
+    private void queueCleanup(String contentHash, String photoUrl) {
+        PhotoCleanupTask task = new PhotoCleanupTask();
+        task.setContentHash(contentHash);
+        task.setPhotoUrl(photoUrl);
+        task.setNextAttemptAt(LocalDateTime.now());
+        cleanupTaskRepository.save(task);
+    }
+
+    private StoredPhoto toStoredPhoto(PhotoAsset asset) {
+        return new StoredPhoto(asset.getPhotoUrl(), asset.getCardUrl(), asset.getThumbnailUrl(),
+            asset.getCardWebpUrl(), asset.getThumbnailWebpUrl(), asset.getContentHash());
+    }
+}
@@ -0,0 +1,151 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.PhotoCleanupTask;
+import com.studentbnb.listing_service.repository.PhotoCleanupTaskRepository;
+import com.studentbnb.listing_service.storage.PhotoStorage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works off the photo_cleanup_tasks queue that PhotoAssetService fills when
+ * the last photo using an uploaded image goes away, so requests never wait
+ * for photo storage and a failed deletion is retried instead of orphaning
+ * the image.
+ *
+ * Due tasks are deleted in batches through PhotoStorage.deleteAll, which
+ * uses the backend's bulk API where it has one. When a batch fails, its
+ * images are deleted one by one to single out the failing ones, which are
+ * retried with exponential backoff (base-backoff doubling per attempt, up
+ * to max-backoff). An image uploaded again after its release is stored as a
+ * new copy under a new name, so deleting the queued copy cannot reach it;
+ * copies an asset still points at (possible only for ones stored under the
+ * bare content hash) are kept. Deleting an image twice is harmless, so
+ * several instances may share the queue.
+ */
+@Service
+@Slf4j
+public class PhotoCleanupService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Value("${app.storage.cleanup.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.storage.cleanup.base-backoff:1m}")
+    private Duration baseBackoff;
+
+    @Value("${app.storage.cleanup.max-backoff:6h}")
+    private Duration maxBackoff;
+
+    @Autowired
+    private PhotoCleanupTaskRepository taskRepository;
+
+    @Autowired
+    private PhotoAssetService photoAssetService;
+
+    @Autowired
+    private PhotoStorage photoStorage;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong deleted = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            Gauge.builder("photo.cleanup.deleted", deleted, AtomicLong::get).register(meterRegistry);
+            Gauge.builder("photo.cleanup.failed", failed, AtomicLong::get).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Delete every image whose task is due, a batch at a time
+     * @return number of images deleted
+     */
+    @Scheduled(fixedDelayString = "${app.storage.cleanup.interval:30s}")
+    public synchronized int processQueue() {
+        int total = 0;
+        List<PhotoCleanupTask> due;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            due = taskRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(now, PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                total += processBatch(due, now);
+            }
+            // Failed tasks move into the future, so a full batch always means more work is due
+        } while (due.size() == batchSize);
+        return total;
+    }
+
+    private int processBatch(List<PhotoCleanupTask> tasks, LocalDateTime now) {
+        Set<String> registered = photoAssetService.registeredUrls(
+            tasks.stream().map(PhotoCleanupTask::getContentHash).filter(hash -> hash != null).toList());
+
+        List<PhotoCleanupTask> done = new ArrayList<>();
+        List<PhotoCleanupTask> pending = new ArrayList<>();
+        for (PhotoCleanupTask task : tasks) {
+            (registered.contains(task.getPhotoUrl()) ? done : pending).add(task);
+        }
+
+        List<PhotoCleanupTask> retries = new ArrayList<>();
+        try {
+            photoStorage.deleteAll(pending.stream().map(PhotoCleanupTask::getPhotoUrl).toList());
+            done.addAll(pending);
+        } catch (Exception batchFailure) {
+            for (PhotoCleanupTask task : pending) {
+                try {
+                    photoStorage.delete(task.getPhotoUrl());
+                    done.add(task);
+                } catch (Exception e) {
+                    scheduleRetry(task, e, now);
+                    retries.add(task);
+                }
+            }
+        }
+
+        taskRepository.deleteAllInBatch(done);
+        taskRepository.saveAll(retries);
+
+        int deletedCount = done.size() - (tasks.size() - pending.size());
+        deleted.addAndGet(deletedCount);
+        failed.addAndGet(retries.size());
+        if (!retries.isEmpty()) {
+            log.warn("Deleted {} images from photo storage, {} will be retried", deletedCount, retries.size());
+        } else {
+            log.info("Deleted {} images from photo storage", deletedCount);
+        }
+        return deletedCount;
+    }
+
+    // Double the wait with every failed attempt, up to max-backoff
+    private void scheduleRetry(PhotoCleanupTask task, Exception failure, LocalDateTime now) {
+        int attempts = task.getAttempts() + 1;
+        Duration backoff = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+
+        String error = String.valueOf(failure.getMessage());
+        task.setAttempts(attempts);
+        task.setNextAttemptAt(now.plus(backoff));
+        task.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        log.warn("Failed to delete {} (attempt {}), retrying in {}: {}", task.getPhotoUrl(), attempts, backoff, error);
+    }
+}
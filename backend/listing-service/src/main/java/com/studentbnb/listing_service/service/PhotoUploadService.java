@@ -0,0 +1,312 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.storage.PhotoStorage;
+import com.studentbnb.listing_service.storage.StoredPhoto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PhotoUploadService {
+
+    private final PhotoStorage photoStorage;
+
+    private final PhotoAssetService photoAssetService;
+
+    // Uploads of one request in flight at a time
+    @Value("${app.upload.max-concurrent-uploads:4}")
+    private int maxConcurrentUploads;
+
+    // Threads shared by all requests' uploads
+    @Value("${app.upload.upload-threads:16}")
+    private int uploadThreads;
+
+    private ExecutorService uploadExecutor;
+
+    // Where multipart files are moved before being handed to photo storage
+    private Path spoolDirectory;
+
+    @PostConstruct
+    void init() {
+        try {
+            spoolDirectory = Files.createTempDirectory("photo-uploads-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create photo upload directory", e);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        uploadExecutor = Executors.newFixedThreadPool(uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "photo-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdownNow();
+        spoolDirectory.toFile().delete();
+    }
+
+    /**
+     * Upload image and its variants to photo storage, or reuse the stored copy of an identical image.
+     * Either way the caller holds a reference to the image and must hand it to a ListingPhoto or
+     * release it with releaseImagesQuietly
+     * @param file MultipartFile to upload
+     * @return URLs of the stored variants
+     * @throws IOException if upload fails
+     */
+    public StoredPhoto uploadImage(MultipartFile file) throws IOException {
+        log.info("Uploading image: {}", file.getOriginalFilename());
+
+        // Validate file
+        String format = validateImage(file);
+
+        return upload(file, format);
+    }
+
+    /**
+     * Upload multiple images to photo storage, at most app.upload.max-concurrent-uploads at a time.
+     * Every file is validated before the first upload starts; if any upload fails, the ones
+     * that succeeded are released again
+     * @param files Array of MultipartFiles to upload
+     * @return Stored photos, in the order of the files
+     * @throws IOException if upload fails
+     */
+    public StoredPhoto[] uploadImages(MultipartFile[] files) throws IOException {
+        log.info("Uploading {} images", files.length);
+
+        String[] formats = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            formats[i] = validateImage(files[i]);
+        }
+
+        StoredPhoto[] photos = new StoredPhoto[files.length];
+        CompletionService<Integer> uploads = new ExecutorCompletionService<>(uploadExecutor);
+        List<Future<Integer>> started = new ArrayList<>();
+        try {
+            // Keep a window of uploads in flight, starting the next one as each finishes
+            int next = 0;
+            for (; next < Math.min(maxConcurrentUploads, files.length); next++) {
+                started.add(submitUpload(uploads, files, formats, photos, next));
+            }
+            for (int finished = 0; finished < files.length; finished++) {
+                uploads.take().get();
+                if (next < files.length) {
+                    started.add(submitUpload(uploads, files, formats, photos, next++));
+                }
+            }
+            return photos;
+
+        } catch (ExecutionException e) {
+            discardUploads(started, photos);
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to upload image", e.getCause());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discardUploads(started, photos);
+            throw new IOException("Interrupted while uploading images", e);
+        }
+    }
+
+    /**
+     * Release uploaded images that did not make it into a listing; images nothing else uses are queued
+     * for deletion from photo storage. Logs instead of failing on the ones that cannot be released
+     * @param photos Stored photos to release; null entries are skipped
+     */
+    public void releaseImagesQuietly(StoredPhoto[] photos) {
+        for (StoredPhoto photo : photos) {
+            if (photo == null) {
+                continue;
+            }
+            try {
+                photoAssetService.release(photo.getContentHash());
+            } catch (RuntimeException e) {
+                log.warn("Left orphaned image in photo storage: {}", photo.getPhotoUrl(), e);
+            }
+        }
+    }
+
+    private Future<Integer> submitUpload(CompletionService<Integer> uploads, MultipartFile[] files, String[] formats,
+                                         StoredPhoto[] photos, int index) {
+        return uploads.submit(() -> {
+            photos[index] = upload(files[index], formats[index]);
+            return index;
+        });
+    }
+
+    // Wait out the uploads still running, then release every image that made it
+    private void discardUploads(List<Future<Integer>> started, StoredPhoto[] photos) {
+        for (Future<Integer> upload : started) {
+            try {
+                upload.get();
+            } catch (ExecutionException e) {
+                // Already failed, nothing to delete
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        releaseImagesQuietly(photos);
+    }
+
+    private StoredPhoto upload(MultipartFile file, String format) throws IOException {
+        // Landlords reuse photos across units; hashing the temp file is far cheaper than uploading it again
+        String contentHash = contentHash(file);
+        Optional<StoredPhoto> existing = photoAssetService.acquire(contentHash);
+        if (existing.isPresent()) {
+            log.info("Reusing stored image {} for {}", existing.get().getPhotoUrl(), file.getOriginalFilename());
+            return existing.get();
+        }
+
+        // A copy of its own, so a pending deletion of an earlier copy of this image cannot remove it
+        String storageName = contentHash + "-" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+
+        // Storage backends read a File from disk in small chunks, while the Cloudinary SDK reads byte[]
+        // and InputStream sources fully into the heap, so move the multipart temp file over and pass that
+        File spooled = spoolDirectory.resolve(UUID.randomUUID() + ".upload").toFile();
+        StoredPhoto stored;
+        try {
+            file.transferTo(spooled);
+            stored = photoStorage.store(spooled, format, storageName);
+        } finally {
+            Files.deleteIfExists(spooled.toPath());
+        }
+        stored.setContentHash(contentHash);
+
+        try {
+            return photoAssetService.register(stored, storageName);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent upload of the same image registered its copy first; use that one and drop ours
+            Optional<StoredPhoto> registered = photoAssetService.acquire(contentHash);
+            if (registered.isPresent()) {
+                photoAssetService.discard(stored);
+                return registered.get();
+            }
+            return photoAssetService.register(stored, storageName);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a file's content, read through a small buffer
+     * @param file MultipartFile to hash
+     * @return 64 lowercase hex digits
+     * @throws IOException if the file cannot be read
+     */
+    static String contentHash(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = file.getInputStream()) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Validate image file
+     * @param file MultipartFile to validate
+     * @return the image format, as sniffImageFormat reports it
+     * @throws IllegalArgumentException if file is invalid
+     * @throws IOException if the file cannot be read
+     */
+    private String validateImage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+
+        // Check file size (max 10MB)
+        long maxSize = 10 * 1024 * 1024; // 10MB
+        if (file.getSize() > maxSize) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of 10MB");
+        }
+
+        // Check the format from the file's magic bytes, not the client-supplied content type
+        String format = sniffImageFormat(file);
+        if (format == null) {
+            throw new IllegalArgumentException("Invalid image format. Allowed: JPEG, PNG, GIF, WebP");
+        }
+        return format;
+    }
+
+    /**
+     * Identify an image format from the first bytes of the file
+     * @param file MultipartFile to inspect; only its header is read
+     * @return "jpeg", "png", "gif" or "webp", or null if it is none of them
+     */
+    static String sniffImageFormat(MultipartFile file) throws IOException {
+        byte[] header = new byte[12];
+        int length;
+        try (InputStream in = file.getInputStream()) {
+            length = in.readNBytes(header, 0, header.length);
+        }
+
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "jpeg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        String ascii = new String(header, 0, length, StandardCharsets.ISO_8859_1);
+        if (ascii.startsWith("GIF87a") || ascii.startsWith("GIF89a")) {
+            return "gif";
+        }
+        if (length == 12 && ascii.startsWith("RIFF") && ascii.endsWith("WEBP")) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
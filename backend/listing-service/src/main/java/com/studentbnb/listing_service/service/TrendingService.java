@@ -0,0 +1,256 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.Listing;
+import com.studentbnb.listing_service.entity.ListingStatus;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.event.ListingEngagementEvent;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.trending.TrendingScores;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves trending listings from the in-memory TrendingScores.
+ *
+ * Views, favorites and inquiries arrive as ListingEngagementEvents and add
+ * to a listing's exponentially decayed score, so a listing that was busy
+ * last semester fades out after a few half-lives. Listing metadata (city,
+ * university, status) follows ListingChangedEvents. On startup the scores
+ * are rebuilt from the engagement tables over a lookback window; until
+ * then requests fall back to lifetime view counts from the database.
+ * Listings that change during the rebuild are read again once it is done.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    private static final int WARMUP_BATCH_SIZE = 500;
+
+    // Replayed engagement is grouped per hour and counted at the middle of it; it ends where live events begin
+    private static final String[] ENGAGEMENT_HISTORY_SQL = {
+        "SELECT listing_id, DATE_TRUNC('hour', viewed_at) AS hour_start, COUNT(*) AS events FROM listing_views " +
+            "WHERE viewed_at >= ? AND viewed_at < ? GROUP BY listing_id, DATE_TRUNC('hour', viewed_at)",
+        "SELECT listing_id, DATE_TRUNC('hour', created_at) AS hour_start, COUNT(*) AS events FROM listing_favorites " +
+            "WHERE created_at >= ? AND created_at < ? GROUP BY listing_id, DATE_TRUNC('hour', created_at)",
+        "SELECT listing_id, DATE_TRUNC('hour', created_at) AS hour_start, COUNT(*) AS events FROM listing_inquiries " +
+            "WHERE created_at >= ? AND created_at < ? GROUP BY listing_id, DATE_TRUNC('hour', created_at)"
+    };
+
+    private static final long HALF_HOUR_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    @Value("${app.trending.half-life:24h}")
+    private Duration halfLife;
+
+    @Value("${app.trending.top-k:100}")
+    private int topK;
+
+    @Value("${app.trending.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${app.trending.favorite-weight:5}")
+    private double favoriteWeight;
+
+    @Value("${app.trending.inquiry-weight:10}")
+    private double inquiryWeight;
+
+    @Value("${app.trending.warmup-lookback:72h}")
+    private Duration warmupLookback;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingService listingService;
+
+    private volatile TrendingScores scores;
+
+    // Listings changed while warmUp runs, null when it is not running
+    private Set<Long> changedDuringWarmUp;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        scores = new TrendingScores(halfLife.toMillis(), topK, System.currentTimeMillis());
+    }
+
+    /**
+     * Trending listings, optionally within one city and/or near one
+     * university. Answered from the top-K rankings, so at most K listings
+     * are ever returned across all pages. Ranked listings that are gone or
+     * no longer ACTIVE are dropped before paging, so pages stay full and the
+     * total counts only listings that can be shown.
+     */
+    public Page<ListingResponse> getTrendingListings(String city, String university, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+        if (!ready) {
+            return mostViewedFromDatabase(city, university, page, size);
+        }
+
+        List<TrendingScores.Scored> ranked = scores.top(city, university, topK, System.currentTimeMillis());
+
+        // At most K listings, mostly cached; the misses are loaded together, not one listing at a time
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (TrendingScores.Scored scored : ranked) {
+            ids.add(scored.getListingId());
+        }
+        List<ListingResponse> listings = new ArrayList<>(ids.size());
+        for (ListingResponse listing : listingService.getListingsByIds(ids)) {
+            if (listing.getStatus() == ListingStatus.ACTIVE) {
+                listings.add(listing);
+            }
+        }
+
+        int from = (int) Math.min(listings.size(), (long) page * size);
+        int to = Math.min(listings.size(), from + size);
+        return new PageImpl<>(new ArrayList<>(listings.subList(from, to)), PageRequest.of(page, size), listings.size());
+    }
+
+    public double getScore(Long listingId) {
+        return scores.score(listingId, System.currentTimeMillis());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rebuild from scratch: register every ACTIVE listing, then replay recent
+     * engagement. The new scores go live first so listing changes made during
+     * the rebuild land in them; engagement from then on is recorded live, so
+     * the replay stops at the moment the rebuild started to count nothing twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        TrendingScores scores = new TrendingScores(halfLife.toMillis(), topK, started);
+        synchronized (this) {
+            changedDuringWarmUp = new HashSet<>();
+        }
+        this.scores = scores;
+
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<Listing> batch = listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                    ListingStatus.ACTIVE, lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(listing -> track(scores, listing));
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            // A batch may have read a listing before a change whose event already reached the scores
+            while (true) {
+                Set<Long> changed;
+                synchronized (this) {
+                    changed = changedDuringWarmUp;
+                    changedDuringWarmUp = changed.isEmpty() ? null : new HashSet<>();
+                }
+                if (changed.isEmpty()) {
+                    break;
+                }
+                changed.forEach(listingId -> refresh(scores, listingId));
+            }
+
+            Timestamp since = new Timestamp(started - warmupLookback.toMillis());
+            Timestamp until = new Timestamp(started);
+            double[] weights = {viewWeight, favoriteWeight, inquiryWeight};
+            for (int i = 0; i < ENGAGEMENT_HISTORY_SQL.length; i++) {
+                double weight = weights[i];
+                jdbcTemplate.query(ENGAGEMENT_HISTORY_SQL[i], rs -> {
+                    long at = rs.getTimestamp("hour_start").getTime() + HALF_HOUR_MILLIS;
+                    scores.record(rs.getLong("listing_id"), weight * rs.getLong("events"), Math.min(at, started));
+                }, since, until);
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringWarmUp = null;
+            }
+            // Keep serving lifetime popularity from the database rather than failing startup
+            log.error("Failed to warm trending scores, popular listings will use the database: {}", e.getMessage());
+            return;
+        }
+
+        ready = true;
+        log.info("Trending scores warmed for {} active listings in {} ms", scores.size(), System.currentTimeMillis() - started);
+    }
+
+    // Only committed engagement counts
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(ListingEngagementEvent event) {
+        double weight = switch (event.getEngagementType()) {
+            case VIEW -> viewWeight;
+            case FAVORITE -> favoriteWeight;
+            case INQUIRY -> inquiryWeight;
+        };
+        scores.record(event.getListingId(), weight, event.getOccurredAt().toEpochMilli());
+    }
+
+    // Follow city, university and status changes of committed listing writes
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        synchronized (this) {
+            if (changedDuringWarmUp != null) {
+                changedDuringWarmUp.add(event.getListingId());
+            }
+        }
+        if (event.getChangeType() == ListingChangedEvent.ChangeType.DELETED) {
+            scores.remove(event.getListingId());
+            return;
+        }
+        refresh(scores, event.getListingId());
+    }
+
+    // Track a listing as currently stored
+    private void refresh(TrendingScores scores, Long listingId) {
+        Optional<Listing> listing = listingRepository.findById(listingId);
+        if (listing.isPresent()) {
+            track(scores, listing.get());
+        } else {
+            scores.remove(listingId);
+        }
+    }
+
+    private static void track(TrendingScores scores, Listing listing) {
+        scores.put(listing.getId(), listing.getCity(), listing.getNearestUniversity(),
+            listing.getStatus() == ListingStatus.ACTIVE);
+    }
+
+    private Page<ListingResponse> mostViewedFromDatabase(String city, String university, int page, int size) {
+        String cityKey = city == null || city.isBlank() ? null : city.trim();
+        String universityKey = university == null || university.isBlank() ? null : university.trim();
+        return listingService.getPopularListings(cityKey, universityKey, page, size);
+    }
+}
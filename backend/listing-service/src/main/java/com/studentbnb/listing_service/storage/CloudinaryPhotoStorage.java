@@ -0,0 +1,145 @@
+package com.studentbnb.listing_service.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
+import com.cloudinary.utils.ObjectUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Photos stored in Cloudinary. Only the full-size image is uploaded (shrunk
+ * to PhotoVariant.FULL on the way in); the smaller variants are delivery
+ * URLs with a transformation, which Cloudinary renders on first request and
+ * caches, so they cost no extra upload.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CloudinaryPhotoStorage implements PhotoStorage {
+
+    private static final int DELETE_BATCH_SIZE = 100;
+
+    private final Cloudinary cloudinary;
+
+    @Override
+    public StoredPhoto store(File image, String format, String storageName) throws IOException {
+        // The folder is part of the public ID; passing it as "folder" as well would have accounts in
+        // fixed-folder mode prepend it a second time
+        Map uploadResult = cloudinary.uploader().upload(image, ObjectUtils.asMap(
+                "public_id", "studentbnb/listings/" + storageName,
+                "resource_type", "auto",
+                "transformation", new Transformation()
+                        .width(PhotoVariant.FULL.getWidth())
+                        .height(PhotoVariant.FULL.getHeight())
+                        .crop("limit")
+                        .quality("auto:good")
+                        .fetchFormat("auto")
+        ));
+
+        String url = (String) uploadResult.get("secure_url");
+        // Variants address the public ID Cloudinary actually assigned, not the one requested
+        String publicId = (String) uploadResult.get("public_id");
+        log.info("Image uploaded successfully: {}", url);
+
+        return new StoredPhoto(
+                url,
+                variantUrl(publicId, PhotoVariant.CARD, "jpg"),
+                variantUrl(publicId, PhotoVariant.THUMBNAIL, "jpg"),
+                variantUrl(publicId, PhotoVariant.CARD, "webp"),
+                variantUrl(publicId, PhotoVariant.THUMBNAIL, "webp"),
+                null);
+    }
+
+    @Override
+    public void delete(String photoUrl) throws IOException {
+        log.info("Deleting image from Cloudinary: {}", photoUrl);
+
+        try {
+            // Extract public ID from URL; destroying it also drops the derived variants
+            String publicId = extractPublicId(photoUrl);
+
+            if (publicId != null) {
+                Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("invalidate", true));
+                log.info("Image deleted successfully: {}", result);
+            } else {
+                log.warn("Could not extract public ID from URL: {}", photoUrl);
+            }
+        } catch (Exception e) {
+            log.error("Error deleting image: {}", e.getMessage());
+            throw new IOException("Failed to delete image from Cloudinary", e);
+        }
+    }
+
+    @Override
+    public void deleteAll(List<String> photoUrls) throws IOException {
+        List<String> publicIds = new ArrayList<>();
+        for (String photoUrl : photoUrls) {
+            String publicId = extractPublicId(photoUrl);
+            if (publicId != null) {
+                publicIds.add(publicId);
+            } else {
+                log.warn("Could not extract public ID from URL: {}", photoUrl);
+            }
+        }
+
+        // The Admin API deletes up to 100 resources per call, derived variants included
+        for (int from = 0; from < publicIds.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = publicIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, publicIds.size()));
+            try {
+                cloudinary.api().deleteResources(batch, ObjectUtils.asMap("invalidate", true));
+            } catch (Exception e) {
+                log.error("Error deleting images: {}", e.getMessage());
+                throw new IOException("Failed to delete images from Cloudinary", e);
+            }
+            log.info("Deleted {} images", batch.size());
+        }
+    }
+
+    private String variantUrl(String publicId, PhotoVariant variant, String format) {
+        return cloudinary.url()
+                .secure(true)
+                .transformation(new Transformation()
+                        .width(variant.getWidth())
+                        .height(variant.getHeight())
+                        .crop(variant.isCrop() ? "fill" : "limit")
+                        .quality("auto"))
+                .format(format)
+                .generate(publicId);
+    }
+
+    /**
+     * Extract public ID from Cloudinary URL
+     * Example: https://res.cloudinary.com/dwjhoilfe/image/upload/v123456/studentbnb/listings/uuid.jpg
+     * Returns: studentbnb/listings/uuid
+     */
+    private String extractPublicId(String imageUrl) {
+        try {
+            if (imageUrl.contains("/upload/")) {
+                String[] parts = imageUrl.split("/upload/");
+                if (parts.length > 1) {
+                    String pathAfterUpload = parts[1];
+                    // Remove version number if present (v1234567/)
+                    pathAfterUpload = pathAfterUpload.replaceFirst("v\\d+/", "");
+                    // Remove file extension
+                    int lastDot = pathAfterUpload.lastIndexOf('.');
+                    if (lastDot > 0) {
+                        return pathAfterUpload.substring(0, lastDot);
+                    }
+                    return pathAfterUpload;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error extracting public ID from URL: {}", imageUrl, e);
+        }
+        return null;
+    }
+}
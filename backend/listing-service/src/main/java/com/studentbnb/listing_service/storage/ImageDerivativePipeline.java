@@ -0,0 +1,213 @@
+package com.studentbnb.listing_service.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders every PhotoVariant of an uploaded image as JPEG, plus WebP for
+ * the thumbnail and card when an ImageIO WebP writer is on the classpath.
+ * Decoding a photo takes a full raster in memory, so rendering runs on a
+ * fixed pool of workers and callers wait for their turn; sources are
+ * decoded subsampled when far larger than the full-size box, and images
+ * over MAX_PIXELS are rejected from their header before any decoding.
+ */
+public class ImageDerivativePipeline implements AutoCloseable {
+
+    public static final long MAX_PIXELS = 40_000_000L;
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final ExecutorService workers;
+    private final boolean webpAvailable;
+
+    public ImageDerivativePipeline(int workerCount) {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "photo-render-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        webpAvailable = ImageIO.getImageWritersByFormatName("webp").hasNext();
+    }
+
+    public boolean isWebpAvailable() {
+        return webpAvailable;
+    }
+
+    // <name>_<suffix>.<extension>, e.g. 3f2a..._card.webp
+    public static String fileName(String name, PhotoVariant variant, String extension) {
+        return name + "_" + variant.getSuffix() + "." + extension;
+    }
+
+    /**
+     * Render all variants of source into directory
+     * @return the files written
+     * @throws IllegalArgumentException if source is not a readable image or too large
+     * @throws IOException if decoding or writing fails
+     */
+    public List<Path> render(File source, Path directory, String name) throws IOException {
+        Future<List<Path>> rendering = workers.submit(() -> renderNow(source, directory, name));
+        try {
+            return rendering.get();
+        } catch (InterruptedException e) {
+            rendering.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering image", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to render image", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private List<Path> renderNow(File source, Path directory, String name) throws IOException {
+        BufferedImage original = decode(source);
+        List<Path> written = new ArrayList<>();
+        try {
+            // Each variant is scaled from the next larger one, which is cheaper and looks the same
+            BufferedImage full = scale(original, PhotoVariant.FULL);
+            BufferedImage card = scale(full, PhotoVariant.CARD);
+            BufferedImage thumbnail = scale(card, PhotoVariant.THUMBNAIL);
+
+            written.add(writeJpeg(full, directory.resolve(fileName(name, PhotoVariant.FULL, "jpg"))));
+            written.add(writeJpeg(card, directory.resolve(fileName(name, PhotoVariant.CARD, "jpg"))));
+            written.add(writeJpeg(thumbnail, directory.resolve(fileName(name, PhotoVariant.THUMBNAIL, "jpg"))));
+            if (webpAvailable) {
+                written.add(writeWebp(card, directory.resolve(fileName(name, PhotoVariant.CARD, "webp"))));
+                written.add(writeWebp(thumbnail, directory.resolve(fileName(name, PhotoVariant.THUMBNAIL, "webp"))));
+            }
+            return written;
+
+        } catch (IOException | RuntimeException e) {
+            for (Path file : written) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        }
+    }
+
+    private static BufferedImage decode(File source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image is too large (max " + MAX_PIXELS / 1_000_000 + " megapixels)");
+                }
+
+                // Skip rows and columns the full-size variant would throw away anyway
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width / (PhotoVariant.FULL.getWidth() * 2), height / (PhotoVariant.FULL.getHeight() * 2)));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Shrink to fit the variant's box, cropping the centre to fill it for cropped variants; never enlarges
+    static BufferedImage scale(BufferedImage source, PhotoVariant variant) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = variant.isCrop()
+            ? Math.max((double) variant.getWidth() / width, (double) variant.getHeight() / height)
+            : Math.min((double) variant.getWidth() / width, (double) variant.getHeight() / height);
+        scale = Math.min(scale, 1.0);
+
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        if (variant.isCrop()) {
+            targetWidth = Math.min(targetWidth, variant.getWidth());
+            targetHeight = Math.min(targetHeight, variant.getHeight());
+        }
+
+        // Region of the source that ends up in the target
+        int cropWidth = Math.min(width, (int) Math.round(targetWidth / scale));
+        int cropHeight = Math.min(height, (int) Math.round(targetHeight / scale));
+        BufferedImage current = source.getSubimage((width - cropWidth) / 2, (height - cropHeight) / 2, cropWidth, cropHeight);
+
+        // Halve step by step first; a single bilinear pass over a large ratio aliases badly
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    // Opaque RGB copy at the given size, transparent areas filled white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static Path writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        return write(writer, param, image, file);
+    }
+
+    private static Path writeWebp(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("webp").next();
+        return write(writer, writer.getDefaultWriteParam(), image, file);
+    }
+
+    private static Path write(ImageWriter writer, ImageWriteParam param, BufferedImage image, Path file) throws IOException {
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,103 @@
+package com.studentbnb.listing_service.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * Photos rendered by ImageDerivativePipeline into
+ * app.storage.local.directory/listings and served by WebConfig under
+ * /uploads. app.storage.local.base-url is what clients see, so it can point
+ * at a CDN in front of this service.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@Slf4j
+public class LocalPhotoStorage implements PhotoStorage {
+
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{32}|[0-9a-f]{64}(-[0-9a-f]{16})?");
+
+    @Value("${app.storage.local.directory:uploads}")
+    private String directory;
+
+    @Value("${app.storage.local.base-url:http://localhost:8082/uploads}")
+    private String baseUrl;
+
+    // 0 means one worker per core
+    @Value("${app.storage.image-workers:0}")
+    private int imageWorkers;
+
+    private Path listingsDirectory;
+    private ImageDerivativePipeline pipeline;
+
+    @PostConstruct
+    void init() {
+        listingsDirectory = Paths.get(directory, "listings").toAbsolutePath();
+        try {
+            Files.createDirectories(listingsDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create photo directory " + listingsDirectory, e);
+        }
+        pipeline = new ImageDerivativePipeline(imageWorkers > 0 ? imageWorkers : Runtime.getRuntime().availableProcessors());
+        log.info("Storing listing photos in {} (WebP variants: {})", listingsDirectory, pipeline.isWebpAvailable());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pipeline.close();
+    }
+
+    @Override
+    public StoredPhoto store(File image, String format, String storageName) throws IOException {
+        String name = storageName;
+        pipeline.render(image, listingsDirectory, name);
+
+        String url = url(name, PhotoVariant.FULL, "jpg");
+        log.info("Image stored successfully: {}", url);
+
+        boolean webp = pipeline.isWebpAvailable();
+        return new StoredPhoto(
+                url,
+                url(name, PhotoVariant.CARD, "jpg"),
+                url(name, PhotoVariant.THUMBNAIL, "jpg"),
+                webp ? url(name, PhotoVariant.CARD, "webp") : null,
+                webp ? url(name, PhotoVariant.THUMBNAIL, "webp") : null,
+                null);
+    }
+
+    @Override
+    public void delete(String photoUrl) throws IOException {
+        String prefix = baseUrl + "/listings/";
+        String fileName = photoUrl.startsWith(prefix) ? photoUrl.substring(prefix.length()) : "";
+        int end = fileName.indexOf('_');
+        String name = end > 0 ? fileName.substring(0, end) : fileName;
+        // Only names this storage generates (older photos used random 32-digit names or the bare hash),
+        // so a crafted URL cannot reach other files
+        if (!NAME.matcher(name).matches()) {
+            log.warn("Not a locally stored photo: {}", photoUrl);
+            return;
+        }
+
+        for (PhotoVariant variant : PhotoVariant.values()) {
+            for (String extension : new String[]{"jpg", "webp"}) {
+                Files.deleteIfExists(listingsDirectory.resolve(ImageDerivativePipeline.fileName(name, variant, extension)));
+            }
+        }
+        log.info("Image deleted successfully: {}", photoUrl);
+    }
+
+    private String url(String name, PhotoVariant variant, String extension) {
+        return baseUrl + "/listings/" + ImageDerivativePipeline.fileName(name, variant, extension);
+    }
+}
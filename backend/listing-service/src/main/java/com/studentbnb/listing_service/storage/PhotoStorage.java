@@ -0,0 +1,43 @@
+package com.studentbnb.listing_service.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where uploaded listing photos and their derived variants live. The
+ * backend is picked with app.storage.backend: "cloudinary" (default) or
+ * "local", which renders the variants itself and serves them from
+ * /uploads.
+ */
+public interface PhotoStorage {
+
+    /**
+     * Store an image and every PhotoVariant of it
+     * @param image validated image file; the caller deletes it afterwards
+     * @param format format sniffed from the file, "jpeg", "png", "gif" or "webp"
+     * @param storageName name to store the image under, unique to this copy (the content hash plus
+     *                    a nonce), so deleting another copy of the same image never removes this one
+     * @return URLs of the stored variants, without a content hash
+     * @throws IOException if the image cannot be stored
+     */
+    StoredPhoto store(File image, String format, String storageName) throws IOException;
+
+    /**
+     * Delete a stored image and all of its variants
+     * @param photoUrl full-size URL returned by store
+     * @throws IOException if deletion fails
+     */
+    void delete(String photoUrl) throws IOException;
+
+    /**
+     * Delete many stored images, in as few calls as the backend allows
+     * @param photoUrls full-size URLs returned by store
+     * @throws IOException if any deletion fails; the others may or may not have been deleted
+     */
+    default void deleteAll(List<String> photoUrls) throws IOException {
+        for (String photoUrl : photoUrls) {
+            delete(photoUrl);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.studentbnb.listing_service.storage;
+
+/**
+ * Sizes every uploaded listing photo is rendered at. Thumbnails and cards
+ * are cropped to fill their box so result grids line up; the full-size
+ * variant keeps the original aspect ratio and only shrinks to fit.
+ */
+public enum PhotoVariant {
+    THUMBNAIL("thumb", 320, 240, true),
+    CARD("card", 640, 480, true),
+    FULL("full", 1200, 900, false);
+
+    private final String suffix;
+    private final int width;
+    private final int height;
+    private final boolean crop;
+
+    PhotoVariant(String suffix, int width, int height, boolean crop) {
+        this.suffix = suffix;
+        this.width = width;
+        this.height = height;
+        this.crop = crop;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isCrop() {
+        return crop;
+    }
+}
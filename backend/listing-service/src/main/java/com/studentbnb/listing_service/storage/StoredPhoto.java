@@ -0,0 +1,25 @@
+package com.studentbnb.listing_service.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// URLs of one stored photo's variants; the WebP ones are null where the backend cannot produce WebP,
+// the content hash null for photos that were not uploaded
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredPhoto {
+
+    private String photoUrl;
+    private String cardUrl;
+    private String thumbnailUrl;
+    private String cardWebpUrl;
+    private String thumbnailWebpUrl;
+    private String contentHash;
+
+    // A photo known only by its full-size URL, e.g. one linked rather than uploaded
+    public static StoredPhoto of(String photoUrl) {
+        return new StoredPhoto(photoUrl, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,102 @@
+package com.studentbnb.listing_service.tracking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory view and favorite count deltas per listing, waiting to be
+ * flushed to the listings table.
+ *
+ * Each listing gets a pair of LongAdders, so concurrent increments of a
+ * popular listing land on separate cells instead of contending on one value
+ * (or on its database row). drain() takes the current sums and subtracts
+ * exactly what it took, so increments racing a drain carry over to the next
+ * one rather than being lost.
+ *
+ * Cells are kept until the listing is deleted; there is one small pair per
+ * listing that has ever been viewed or favorited by this instance.
+ */
+public class EngagementCounters {
+
+    private final Map<Long, Cells> cells = new ConcurrentHashMap<>();
+
+    public void addViews(Long listingId, long delta) {
+        if (delta != 0) {
+            cellsFor(listingId).views.add(delta);
+        }
+    }
+
+    public void addFavorites(Long listingId, long delta) {
+        if (delta != 0) {
+            cellsFor(listingId).favorites.add(delta);
+        }
+    }
+
+    public long pendingViews(Long listingId) {
+        Cells listing = cells.get(listingId);
+        return listing == null ? 0 : listing.views.sum();
+    }
+
+    public long pendingFavorites(Long listingId) {
+        Cells listing = cells.get(listingId);
+        return listing == null ? 0 : listing.favorites.sum();
+    }
+
+    // Take every non-zero delta, leaving the counters at whatever arrived meanwhile
+    public List<Delta> drain() {
+        List<Delta> deltas = new ArrayList<>();
+        cells.forEach((listingId, listing) -> {
+            long views = listing.views.sum();
+            long favorites = listing.favorites.sum();
+            if (views == 0 && favorites == 0) {
+                return;
+            }
+            listing.views.add(-views);
+            listing.favorites.add(-favorites);
+            deltas.add(new Delta(listingId, views, favorites));
+        });
+        return deltas;
+    }
+
+    // Put drained deltas back, e.g. when writing them failed
+    public void restore(List<Delta> deltas) {
+        for (Delta delta : deltas) {
+            addViews(delta.getListingId(), delta.getViews());
+            addFavorites(delta.getListingId(), delta.getFavorites());
+        }
+    }
+
+    public void forget(Long listingId) {
+        cells.remove(listingId);
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    private Cells cellsFor(Long listingId) {
+        Cells listing = cells.get(listingId);
+        return listing != null ? listing : cells.computeIfAbsent(listingId, id -> new Cells());
+    }
+
+    private static class Cells {
+        final LongAdder views = new LongAdder();
+        final LongAdder favorites = new LongAdder();
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Delta {
+        private final Long listingId;
+        private final long views;
+        private final long favorites;
+    }
+}
@@ -0,0 +1,10 @@
+package com.studentbnb.listing_service.tracking;
+
+/**
+ * What a full ViewEventQueue does with a new event. Either way the caller
+ * never blocks; tracking is best effort and page views must stay fast.
+ */
+public enum OverflowPolicy {
+    DROP_NEWEST, // Reject the incoming event
+    DROP_OLDEST  // Evict the oldest queued event to make room
+}
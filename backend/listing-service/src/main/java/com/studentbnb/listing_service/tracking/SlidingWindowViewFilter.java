@@ -0,0 +1,230 @@
+package com.studentbnb.listing_service.tracking;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers "was this listing already viewed by this viewer in the last
+ * window?" in memory, replacing a COUNT query against listing_views.
+ *
+ * The window is split into buckets, and each bucket is a cache-line blocked
+ * Bloom filter: the key hash picks one 512-bit block and all of the key's
+ * probe bits fall inside it. The filters of all buckets are interleaved, so
+ * the blocks a key maps to sit next to each other in memory. A lookup
+ * builds the key's probe bits once as an 8-word mask and then checks each
+ * live bucket with eight ANDs over adjacent cache lines.
+ *
+ * Views are added to the current bucket. The owner calls tick() periodically
+ * (well under a bucket width); once the clock has moved into a new bucket the
+ * oldest one is cleared and reused. Reading the clock there rather than per
+ * view keeps it off the hot path. Memory is fixed up front by the expected
+ * view rate, and a repeat is recognised for at least the full window (up to
+ * one bucket longer). A false positive only means a new view goes uncounted.
+ */
+public class SlidingWindowViewFilter {
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = WORDS_PER_BLOCK * 64;
+
+    // Extra bits per key so blocking still meets the requested rate
+    private static final double BLOCKING_OVERHEAD = 1.2;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int slots;
+    private final long blocksPerSlot;
+    private final int hashCount;
+
+    // Layout: [block][slot][word], so one key's blocks in every slot are contiguous
+    private final long[] words;
+
+    // Bucket number (epoch millis / bucketMillis) held by each slot
+    private final long[] slotBuckets;
+    private volatile long currentBucket;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    /**
+     * @param window            how long a repeat view is suppressed
+     * @param buckets           number of slices the window is split into
+     * @param expectedPerWindow views expected per window, used to size the filters
+     * @param falsePositiveRate target chance that a new view is taken for a repeat
+     */
+    public SlidingWindowViewFilter(Duration window, int buckets, long expectedPerWindow,
+                                   double falsePositiveRate, Clock clock) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Buckets must be at least 1");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.clock = clock;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+
+        // One extra slot so the oldest live bucket still covers a full window;
+        // a lookup probes every slot, so each gets a share of the error budget
+        this.slots = buckets + 1;
+        long perBucket = Math.max(1, expectedPerWindow / buckets);
+        double bitsPerKey = -Math.log(falsePositiveRate / slots) / (Math.log(2) * Math.log(2));
+        long bits = (long) Math.ceil(perBucket * bitsPerKey * BLOCKING_OVERHEAD);
+        long maxBlocks = (Integer.MAX_VALUE - 8) / ((long) WORDS_PER_BLOCK * slots);
+        this.blocksPerSlot = Math.min(maxBlocks, Math.max(1, (bits + BLOCK_BITS - 1) / BLOCK_BITS));
+        this.hashCount = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey * Math.log(2))));
+        this.words = new long[(int) (blocksPerSlot * slots * WORDS_PER_BLOCK)];
+
+        this.slotBuckets = new long[slots];
+        Arrays.fill(slotBuckets, Long.MIN_VALUE);
+        this.currentBucket = clock.millis() / bucketMillis;
+        slotBuckets[slot(currentBucket)] = currentBucket;
+    }
+
+    /**
+     * Record a view and report whether it is the first one from this viewer
+     * in the window. Viewers are identified by user id when signed in,
+     * otherwise by IP address.
+     */
+    public boolean firstView(long listingId, Long userId, String ipAddress) {
+        long hash = keyHash(listingId, userId, ipAddress);
+        long[] mask = probeMask(hash);
+        int base = blockBase(hash);
+        long bucket = currentBucket;
+
+        if (seen(base, mask, bucket)) {
+            return false;
+        }
+
+        // Returns false if every bit was already set by a racing duplicate
+        int offset = base + slot(bucket) * WORDS_PER_BLOCK;
+        boolean changed = false;
+        for (int w = 0; w < WORDS_PER_BLOCK; w++) {
+            if (mask[w] != 0) {
+                changed |= setBits(offset + w, mask[w]);
+            }
+        }
+        return changed;
+    }
+
+    // Lookup without recording, e.g. to measure the false positive rate
+    public boolean seenRecently(long listingId, Long userId, String ipAddress) {
+        long hash = keyHash(listingId, userId, ipAddress);
+        return seen(blockBase(hash), probeMask(hash), currentBucket);
+    }
+
+    // Rotate into the bucket for the current time, clearing the slot that fell out of the window
+    public void tick() {
+        long bucket = clock.millis() / bucketMillis;
+        if (bucket <= currentBucket) {
+            return;
+        }
+
+        rotationLock.lock();
+        try {
+            if (bucket > currentBucket) {
+                int slot = slot(bucket);
+                int stride = slots * WORDS_PER_BLOCK;
+                for (int offset = slot * WORDS_PER_BLOCK; offset < words.length; offset += stride) {
+                    for (int w = 0; w < WORDS_PER_BLOCK; w++) {
+                        WORDS.setOpaque(words, offset + w, 0L);
+                    }
+                }
+                slotBuckets[slot] = bucket;
+                currentBucket = bucket;
+            }
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private boolean seen(int base, long[] mask, long bucket) {
+        for (int slot = 0; slot < slots; slot++) {
+            long slotBucket = slotBuckets[slot];
+            if (slotBucket == Long.MIN_VALUE || bucket - slotBucket >= slots) {
+                continue;
+            }
+            int offset = base + slot * WORDS_PER_BLOCK;
+            boolean all = true;
+            for (int w = 0; w < WORDS_PER_BLOCK && all; w++) {
+                all = (words[offset + w] & mask[w]) == mask[w];
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The key's probe bits within its block, grouped by word (double hashing inside the block)
+    private long[] probeMask(long hash) {
+        long[] mask = new long[WORDS_PER_BLOCK];
+        int h1 = (int) hash;
+        int h2 = secondHash(hash);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            mask[bit >>> 6] |= 1L << bit;
+        }
+        return mask;
+    }
+
+    // Multiply-shift maps the high 32 hash bits onto a block without a division
+    private int blockBase(long hash) {
+        long block = ((hash >>> 32) * blocksPerSlot) >>> 32;
+        return (int) (block * slots * WORDS_PER_BLOCK);
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) slots);
+    }
+
+    private boolean setBits(int index, long mask) {
+        while (true) {
+            long current = (long) WORDS.getOpaque(words, index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+            if (WORDS.compareAndSet(words, index, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    // Odd, so successive probes never collapse onto one bit
+    private static int secondHash(long hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) | 1;
+    }
+
+    // 64-bit hash of (listing, viewer); FNV-1a over the IP, finished with a murmur-style mix
+    static long keyHash(long listingId, Long userId, String ipAddress) {
+        long viewer;
+        if (userId != null) {
+            viewer = userId * 0xC2B2AE3D27D4EB4FL + 1;
+        } else {
+            viewer = 0xCBF29CE484222325L;
+            if (ipAddress != null) {
+                for (int i = 0; i < ipAddress.length(); i++) {
+                    viewer ^= ipAddress.charAt(i);
+                    viewer *= 0x100000001B3L;
+                }
+            }
+        }
+        return mix(mix(listingId) ^ viewer);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,22 @@
+package com.studentbnb.listing_service.tracking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A listing page view waiting to be written to listing_views.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ViewEvent {
+
+    private final Long listingId;
+    private final Long userId;
+    private final String ipAddress;
+    private final String userAgent;
+    private final LocalDateTime viewedAt;
+}
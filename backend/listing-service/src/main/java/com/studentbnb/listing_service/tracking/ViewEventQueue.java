@@ -0,0 +1,87 @@
+package com.studentbnb.listing_service.tracking;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, non-blocking multi-producer queue of view events.
+ *
+ * Producers are request threads and must never wait, so the queue is a
+ * lock-free ConcurrentLinkedQueue with a CAS-maintained size bound instead of
+ * a lock-based BlockingQueue. Under concurrent overflow the bound may be
+ * overshot by at most the number of racing producers.
+ */
+public class ViewEventQueue {
+
+    private final ConcurrentLinkedQueue<ViewEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+
+    public ViewEventQueue(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    // Enqueue without blocking; returns false if the event was dropped
+    public boolean offer(ViewEvent event) {
+        if (size.incrementAndGet() <= capacity) {
+            queue.offer(event);
+            return true;
+        }
+        size.decrementAndGet();
+
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && queue.poll() != null) {
+            // One out, one in: the size is unchanged
+            dropped.increment();
+            queue.offer(event);
+            return true;
+        }
+
+        dropped.increment();
+        return false;
+    }
+
+    // Whether offer would currently reject a new event; under DROP_OLDEST it never does
+    public boolean isFull() {
+        return overflowPolicy == OverflowPolicy.DROP_NEWEST && size.get() >= capacity;
+    }
+
+    // Count an event the caller dropped without offering it, having seen the queue full
+    public void recordDrop() {
+        dropped.increment();
+    }
+
+    // Move up to maxEvents into sink, oldest first; returns how many were moved
+    public int drainTo(List<ViewEvent> sink, int maxEvents) {
+        int drained = 0;
+        while (drained < maxEvents) {
+            ViewEvent event = queue.poll();
+            if (event == null) {
+                break;
+            }
+            size.decrementAndGet();
+            sink.add(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,384 @@
+package com.studentbnb.listing_service.trending;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Exponentially decayed engagement score per listing, with the top K
+ * listings kept overall, per city and per university.
+ *
+ * An event of weight w at time t adds w * 2^((t - landmark) / halfLife) to
+ * the listing's stored score; the decayed score at time now is the stored
+ * score times 2^(-(now - landmark) / halfLife). Decay scales every score by
+ * the same factor, so the ranking of stored scores never changes as time
+ * passes and only events have to touch the rankings. Stored scores grow
+ * with time, so the landmark is moved forward (rescaling everything) long
+ * before they could overflow.
+ *
+ * Since stored scores only ever increase, a listing can only enter a top K
+ * by its own event, and each ranking is a bounded min-heap updated in
+ * O(log K) per event. Listings that stop being eligible (deleted, inactive,
+ * moved to another city) are taken out and the ranking is refilled from
+ * the remaining listings of that group.
+ */
+public class TrendingScores {
+
+    // Rescale once stored scores reach 2^64 times their decayed value
+    private static final double REBASE_HALF_LIVES = 64;
+
+    private final double halfLifeMillis;
+    private final int topK;
+    private final Map<Long, Tracked> listings = new ConcurrentHashMap<>();
+    private final Ranking overall;
+    private final Map<String, Ranking> byCity = new ConcurrentHashMap<>();
+    private final Map<String, Ranking> byUniversity = new ConcurrentHashMap<>();
+
+    // Events share the read lock; rebasing and regrouping take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long landmarkMillis;
+
+    public TrendingScores(long halfLifeMillis, int topK, long nowMillis) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        if (topK < 1) {
+            throw new IllegalArgumentException("Top K must be at least 1");
+        }
+        this.halfLifeMillis = halfLifeMillis;
+        this.topK = topK;
+        this.overall = new Ranking(topK);
+        this.landmarkMillis = nowMillis;
+    }
+
+    /**
+     * Register a listing or update the city, university and eligibility it
+     * is ranked under. Its score so far is kept.
+     */
+    public void put(Long listingId, String city, String university, boolean eligible) {
+        String cityKey = key(city);
+        String universityKey = key(university);
+
+        lock.writeLock().lock();
+        try {
+            Tracked tracked = listings.computeIfAbsent(listingId, Tracked::new);
+            boolean unchanged = tracked.eligible == eligible
+                && equal(tracked.city, cityKey) && equal(tracked.university, universityKey);
+            if (unchanged) {
+                return;
+            }
+
+            withdraw(tracked);
+            tracked.city = cityKey;
+            tracked.university = universityKey;
+            tracked.eligible = eligible;
+            if (eligible && tracked.score > 0) {
+                offer(tracked, tracked.score);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long listingId) {
+        lock.writeLock().lock();
+        try {
+            Tracked tracked = listings.remove(listingId);
+            if (tracked != null) {
+                tracked.eligible = false;
+                withdraw(tracked);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add an engagement event. Events for listings that were never put are
+     * ignored, as are non-positive weights.
+     */
+    public void record(Long listingId, double weight, long atMillis) {
+        if (weight <= 0) {
+            return;
+        }
+        if ((atMillis - landmarkMillis) / halfLifeMillis > REBASE_HALF_LIVES) {
+            rebase(atMillis);
+        }
+
+        lock.readLock().lock();
+        try {
+            Tracked tracked = listings.get(listingId);
+            if (tracked == null) {
+                return;
+            }
+            double increment = weight * Math.pow(2, (atMillis - landmarkMillis) / halfLifeMillis);
+            double score;
+            synchronized (tracked) {
+                tracked.score += increment;
+                score = tracked.score;
+            }
+            if (tracked.eligible) {
+                offer(tracked, score);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top listings by decayed score at nowMillis, best first. With a
+     * university the university's ranking is used (and filtered by city if
+     * one is given too), with only a city the city's, otherwise the overall
+     * ranking. Never returns more than K listings.
+     */
+    public List<Scored> top(String city, String university, int limit, long nowMillis) {
+        String cityKey = key(city);
+        String universityKey = key(university);
+        Ranking ranking = universityKey != null ? byUniversity.get(universityKey)
+            : cityKey != null ? byCity.get(cityKey)
+            : overall;
+        if (ranking == null) {
+            return List.of();
+        }
+
+        // Held so a concurrent rebase cannot pair old scores with the new landmark
+        lock.readLock().lock();
+        try {
+            double decay = Math.pow(2, -(nowMillis - landmarkMillis) / halfLifeMillis);
+            List<Scored> result = new ArrayList<>(Math.min(limit, topK));
+            for (Ranking.Entry entry : ranking.snapshot()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (universityKey != null && cityKey != null && !cityKey.equals(entry.tracked.city)) {
+                    continue;
+                }
+                result.add(new Scored(entry.tracked.listingId, entry.score * decay));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Current decayed score of one listing, 0 if unknown
+    public double score(Long listingId, long nowMillis) {
+        lock.readLock().lock();
+        try {
+            Tracked tracked = listings.get(listingId);
+            if (tracked == null) {
+                return 0;
+            }
+            synchronized (tracked) {
+                return tracked.score * Math.pow(2, -(nowMillis - landmarkMillis) / halfLifeMillis);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return listings.size();
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    // Move the landmark to nowMillis and scale every stored score down to match
+    void rebase(long nowMillis) {
+        lock.writeLock().lock();
+        try {
+            double halfLives = Math.floor((nowMillis - landmarkMillis) / halfLifeMillis);
+            if (halfLives <= 0) {
+                return;
+            }
+            double factor = Math.pow(2, -halfLives);
+            for (Tracked tracked : listings.values()) {
+                tracked.score *= factor;
+            }
+            overall.scale(factor);
+            byCity.values().forEach(ranking -> ranking.scale(factor));
+            byUniversity.values().forEach(ranking -> ranking.scale(factor));
+            landmarkMillis += (long) (halfLives * halfLifeMillis);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void offer(Tracked tracked, double score) {
+        overall.offer(tracked, score);
+        if (tracked.city != null) {
+            byCity.computeIfAbsent(tracked.city, city -> new Ranking(topK)).offer(tracked, score);
+        }
+        if (tracked.university != null) {
+            byUniversity.computeIfAbsent(tracked.university, university -> new Ranking(topK)).offer(tracked, score);
+        }
+    }
+
+    // Take a listing out of its rankings and refill each from the rest of its group; caller holds the write lock
+    private void withdraw(Tracked tracked) {
+        if (overall.remove(tracked)) {
+            refill(overall, tracked, candidate -> true);
+        }
+        Ranking city = tracked.city == null ? null : byCity.get(tracked.city);
+        if (city != null && city.remove(tracked)) {
+            String cityKey = tracked.city;
+            refill(city, tracked, candidate -> cityKey.equals(candidate.city));
+        }
+        Ranking university = tracked.university == null ? null : byUniversity.get(tracked.university);
+        if (university != null && university.remove(tracked)) {
+            String universityKey = tracked.university;
+            refill(university, tracked, candidate -> universityKey.equals(candidate.university));
+        }
+    }
+
+    private void refill(Ranking ranking, Tracked withdrawn, Predicate<Tracked> group) {
+        for (Tracked candidate : listings.values()) {
+            if (candidate != withdrawn && candidate.eligible && candidate.score > 0 && group.test(candidate)) {
+                ranking.offer(candidate, candidate.score);
+            }
+        }
+    }
+
+    private static String key(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static class Tracked {
+        final Long listingId;
+        volatile String city;
+        volatile String university;
+        volatile boolean eligible;
+        double score;
+
+        Tracked(Long listingId) {
+            this.listingId = listingId;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the K highest stored scores in one group. Readers
+     * get an immutable best-first snapshot that is rebuilt only after the
+     * ranking changed.
+     */
+    private static class Ranking {
+
+        private static final Comparator<Entry> WORST_FIRST = Comparator
+            .comparingDouble((Entry entry) -> entry.score)
+            .thenComparing(entry -> entry.tracked.listingId);
+
+        private final int capacity;
+        private final PriorityQueue<Entry> heap;
+        private final Map<Long, Entry> members = new HashMap<>();
+        private volatile List<Entry> snapshot = List.of();
+        private volatile boolean dirty;
+
+        Ranking(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity, WORST_FIRST);
+        }
+
+        synchronized void offer(Tracked tracked, double score) {
+            Entry entry = members.get(tracked.listingId);
+            if (entry != null) {
+                // A racing event may already have offered a higher score
+                if (score <= entry.score) {
+                    return;
+                }
+                heap.remove(entry);
+                entry.score = score;
+                heap.add(entry);
+            } else if (heap.size() < capacity) {
+                add(new Entry(tracked, score));
+            } else {
+                Entry worst = heap.peek();
+                if (WORST_FIRST.compare(new Entry(tracked, score), worst) <= 0) {
+                    return;
+                }
+                heap.poll();
+                members.remove(worst.tracked.listingId);
+                add(new Entry(tracked, score));
+            }
+            dirty = true;
+        }
+
+        synchronized boolean remove(Tracked tracked) {
+            Entry entry = members.remove(tracked.listingId);
+            if (entry == null) {
+                return false;
+            }
+            heap.remove(entry);
+            dirty = true;
+            return true;
+        }
+
+        // Uniform scaling keeps the heap order intact
+        synchronized void scale(double factor) {
+            for (Entry entry : heap) {
+                entry.score *= factor;
+            }
+            dirty = true;
+        }
+
+        List<Entry> snapshot() {
+            if (!dirty) {
+                return snapshot;
+            }
+            synchronized (this) {
+                if (dirty) {
+                    List<Entry> sorted = new ArrayList<>(heap.size());
+                    for (Entry entry : heap) {
+                        sorted.add(new Entry(entry.tracked, entry.score));
+                    }
+                    sorted.sort(WORST_FIRST.reversed());
+                    snapshot = List.copyOf(sorted);
+                    dirty = false;
+                }
+                return snapshot;
+            }
+        }
+
+        private void add(Entry entry) {
+            heap.add(entry);
+            members.put(entry.tracked.listingId, entry);
+        }
+
+        private static class Entry {
+            final Tracked tracked;
+            double score;
+
+            Entry(Tracked tracked, double score) {
+                this.tracked = tracked;
+                this.score = score;
+            }
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Scored {
+        private final Long listingId;
+        private final double score;
+    }
+}
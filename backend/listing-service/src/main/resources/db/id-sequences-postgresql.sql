@@ -0,0 +1,30 @@
+-- Moves every listing-service table from IDENTITY ids to a pooled sequence
+-- (<table>_seq, INCREMENT BY 50, see IdSequences). Safe to run on every
+-- start: sequences are created once, identity is dropped once, and each
+-- sequence is only ever moved forward past the highest existing id.
+-- Tables that do not exist yet are left to Hibernate to create.
+DO $$
+DECLARE
+    t text;
+    seq text;
+    next_id bigint;
+    last bigint;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['listings', 'listing_photos', 'listing_amenities', 'listing_preferences',
+                             'listing_views', 'listing_favorites', 'listing_inquiries', 'photo_cleanup_tasks'] LOOP
+        seq := t || '_seq';
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', seq);
+        IF to_regclass(t) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+            -- Plain SQL inserts keep working; nextval() hands out block starts, which pooled-lo never reuses
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, seq);
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) + 1 FROM %I', t) INTO next_id;
+            -- last_value is NULL until the first nextval(); after that [last_value, last_value + 50) may be
+            -- handed out by a running instance, so only move past ids the sequence never issued
+            SELECT last_value INTO last FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = seq;
+            IF last IS NULL OR next_id > last + 50 THEN
+                PERFORM setval(seq, next_id, false);
+            END IF;
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,9 @@
+-- Amenity bitmask of listings (see Listing and AmenityMask). Existing rows stay NULL
+-- until ListingSearchService backfills them from listing_amenities on warm-up.
+-- Safe to run on every start; left to Hibernate when the table does not exist yet.
+DO $$
+BEGIN
+    IF to_regclass('listings') IS NOT NULL THEN
+        ALTER TABLE listings ADD COLUMN IF NOT EXISTS amenity_mask bigint;
+    END IF;
+END $$;
@@ -0,0 +1,8 @@
+-- Index behind the favorites feed (see ListingFavorite and ListingFavoriteService).
+-- Safe to run on every start; left to Hibernate when the table does not exist yet.
+DO $$
+BEGIN
+    IF to_regclass('listing_favorites') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_listing_favorites_user_created ON listing_favorites (user_id, created_at, id);
+    END IF;
+END $$;
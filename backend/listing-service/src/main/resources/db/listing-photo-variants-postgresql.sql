@@ -0,0 +1,11 @@
+-- Variant URL columns of listing_photos (see ListingPhoto and PhotoStorage).
+-- Safe to run on every start; left to Hibernate when the table does not exist yet.
+DO $$
+BEGIN
+    IF to_regclass('listing_photos') IS NOT NULL THEN
+        ALTER TABLE listing_photos ADD COLUMN IF NOT EXISTS card_url varchar(1000);
+        ALTER TABLE listing_photos ADD COLUMN IF NOT EXISTS thumbnail_url varchar(1000);
+        ALTER TABLE listing_photos ADD COLUMN IF NOT EXISTS card_webp_url varchar(1000);
+        ALTER TABLE listing_photos ADD COLUMN IF NOT EXISTS thumbnail_webp_url varchar(1000);
+    END IF;
+END $$;
@@ -0,0 +1,23 @@
+-- Content-addressed photo assets and their reference counts (see PhotoAsset and PhotoAssetService).
+-- Safe to run on every start.
+CREATE TABLE IF NOT EXISTS photo_assets (
+    content_hash varchar(64) PRIMARY KEY,
+    photo_url varchar(1000) NOT NULL,
+    card_url varchar(1000),
+    thumbnail_url varchar(1000),
+    card_webp_url varchar(1000),
+    thumbnail_webp_url varchar(1000),
+    storage_name varchar(100),
+    reference_count integer NOT NULL,
+    created_at timestamp(6)
+);
+
+-- Tables created before copies were stored under a name of their own
+ALTER TABLE photo_assets ADD COLUMN IF NOT EXISTS storage_name varchar(100);
+
+DO $$
+BEGIN
+    IF to_regclass('listing_photos') IS NOT NULL THEN
+        ALTER TABLE listing_photos ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+    END IF;
+END $$;
@@ -0,0 +1,13 @@
+-- Queue of images to delete from photo storage (see PhotoCleanupTask and PhotoCleanupService).
+-- Safe to run on every start; the id sequence comes from id-sequences-postgresql.sql.
+CREATE TABLE IF NOT EXISTS photo_cleanup_tasks (
+    id bigint PRIMARY KEY DEFAULT nextval('photo_cleanup_tasks_seq'),
+    content_hash varchar(64),
+    photo_url varchar(1000) NOT NULL,
+    attempts integer NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    last_error varchar(500),
+    created_at timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_photo_cleanup_tasks_next_attempt_at ON photo_cleanup_tasks (next_attempt_at);
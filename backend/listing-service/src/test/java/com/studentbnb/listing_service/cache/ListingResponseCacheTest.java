@@ -0,0 +1,132 @@
+package com.studentbnb.listing_service.cache;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingResponseCacheTest {
+
+    private ListingResponseCache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = newCache(Duration.ofMinutes(5), 64L * 1024 * 1024);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_LoadsOnceThenServesFromMemory() {
+        ListingResponse first = cache.get(1L, this::load).orElseThrow();
+        ListingResponse second = cache.get(1L, this::load).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_DoesNotCacheMissingListings() {
+        assertTrue(cache.get(404L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(cache.get(404L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void listingChangedEvent_InvalidatesOnlyThatListing() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        cache.onListingChanged(new ListingChangedEvent(1L, ListingChangedEvent.ChangeType.UPDATED));
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getAll_LoadsMissesTogetherAndCachesThem() {
+        cache.get(1L, this::load);
+
+        Map<Long, ListingResponse> found = cache.getAll(List.of(1L, 2L, 404L), this::loadAll);
+        cache.getAll(List.of(1L, 2L), this::loadAll);
+
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getAll_DoesNotCacheResponsesInvalidatedWhileLoading() {
+        // Listing 1 changes after the bulk load read it but before the load returns
+        Map<Long, ListingResponse> found = cache.getAll(List.of(1L, 2L), ids -> {
+            Map<Long, ListingResponse> loaded = loadAll(ids);
+            cache.onListingChanged(new ListingChangedEvent(1L, ListingChangedEvent.ChangeType.UPDATED));
+            return loaded;
+        });
+        assertEquals(2, found.size());
+
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void maximumWeight_EvictsWhenOverBudget() {
+        ListingResponse sample = load(0L).orElseThrow();
+        int weight = ListingResponseCache.estimateBytes(sample);
+        ListingResponseCache small = newCache(Duration.ofMinutes(5), weight * 10L);
+
+        for (long id = 1; id <= 100; id++) {
+            small.get(id, this::load);
+        }
+        small.cleanUp();
+
+        assertTrue(small.stats().evictionCount() > 0);
+        assertTrue(small.stats().evictionWeight() >= 90L * weight);
+    }
+
+    private ListingResponseCache newCache(Duration ttl, long maxWeightBytes) {
+        ListingResponseCache responseCache = new ListingResponseCache();
+        ReflectionTestUtils.setField(responseCache, "ttl", ttl);
+        ReflectionTestUtils.setField(responseCache, "maxWeightBytes", maxWeightBytes);
+        ReflectionTestUtils.setField(responseCache, "meterRegistry", meterRegistry);
+        responseCache.init();
+        return responseCache;
+    }
+
+    private Map<Long, ListingResponse> loadAll(Set<? extends Long> ids) {
+        Map<Long, ListingResponse> loaded = new HashMap<>();
+        for (Long id : ids) {
+            if (id != 404L) {
+                loaded.put(id, load(id).orElseThrow());
+            }
+        }
+        return loaded;
+    }
+
+    private Optional<ListingResponse> load(Long id) {
+        loads.incrementAndGet();
+        ListingResponse response = new ListingResponse();
+        response.setId(id);
+        response.setTitle("Listing " + id);
+        response.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        return Optional.of(response);
+    }
+}
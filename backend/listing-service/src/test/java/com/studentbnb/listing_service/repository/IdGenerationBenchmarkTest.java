@@ -0,0 +1,182 @@
+package com.studentbnb.listing_service.repository;
+
+import com.studentbnb.listing_service.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of IDENTITY ids against pooled sequence ids, in the H2
+ * test database. The first two runs replay, over plain JDBC on twin scratch
+ * tables, the statements Hibernate issues per strategy: IDENTITY executes
+ * each insert on its own and reads the generated key back; the pooled
+ * sequence costs one sequence call per IdSequences.ALLOCATION_SIZE rows and
+ * sends inserts in batches of hibernate.jdbc.batch_size (20). The third run
+ * persists real Listing entities, as mapped now, for the cost of the full
+ * entity path on top. H2 in memory has no network round trip, which is
+ * most of what batching saves against PostgreSQL, so the gap here is a
+ * lower bound and only the round trip count is asserted. Excluded from the
+ * default build; run with:
+ * mvn test -Pbenchmark -Dtest=IdGenerationBenchmarkTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class IdGenerationBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int ENTITY_ROWS = 10_000;
+    private static final int BATCH_SIZE = 20;
+    private static final String DESCRIPTION = "A bright and quiet room close to campus with plenty of natural light.";
+
+    private static final String COLUMNS =
+        "landlord_id BIGINT, title VARCHAR(100), description VARCHAR(2000), rent DECIMAL(10, 2), city VARCHAR(255), " +
+        "created_at TIMESTAMP";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void identityVersusPooledSequenceInserts() {
+        jdbcTemplate.execute("CREATE TABLE bench_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + COLUMNS + ")");
+        jdbcTemplate.execute("CREATE TABLE bench_pooled (id BIGINT PRIMARY KEY, " + COLUMNS + ")");
+        jdbcTemplate.execute("CREATE SEQUENCE bench_pooled_seq START WITH 1 INCREMENT BY " + IdSequences.ALLOCATION_SIZE);
+
+        // Warm up both paths before timing
+        insertWithIdentity(2_000);
+        insertWithPooledSequence(2_000);
+        jdbcTemplate.execute("TRUNCATE TABLE bench_identity");
+        jdbcTemplate.execute("TRUNCATE TABLE bench_pooled");
+
+        long identityStarted = System.nanoTime();
+        long identityStatements = insertWithIdentity(ROWS);
+        double identityMillis = (System.nanoTime() - identityStarted) / 1e6;
+
+        long pooledStarted = System.nanoTime();
+        long pooledStatements = insertWithPooledSequence(ROWS);
+        double pooledMillis = (System.nanoTime() - pooledStarted) / 1e6;
+
+        long entityStarted = System.nanoTime();
+        for (int i = 0; i < ENTITY_ROWS; i++) {
+            entityManager.persist(createListing(i));
+            if ((i + 1) % 1_000 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        double entityMillis = (System.nanoTime() - entityStarted) / 1e6;
+
+        System.out.printf("Inserting %,d rows%n", ROWS);
+        System.out.printf("  IDENTITY, one insert per row:     %7.0f ms, %,7.0f rows/s, %,d round trips%n",
+            identityMillis, ROWS / identityMillis * 1000, identityStatements);
+        System.out.printf("  pooled sequence, batches of %d:   %7.0f ms, %,7.0f rows/s, %,d round trips%n",
+            BATCH_SIZE, pooledMillis, ROWS / pooledMillis * 1000, pooledStatements);
+        System.out.printf("  %,d Listing entities via Hibernate: %7.0f ms, %,7.0f rows/s%n",
+            ENTITY_ROWS, entityMillis, ENTITY_ROWS / entityMillis * 1000);
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_identity", Long.class));
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_pooled", Long.class));
+        assertTrue(pooledStatements * 10 < identityStatements);
+    }
+
+    // What Hibernate does for IDENTITY: execute every insert alone and read its key back
+    private long insertWithIdentity(int rows) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long sum = 0;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO bench_identity (landlord_id, title, description, rent, city, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)", Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < rows; i++) {
+                    bind(insert, 1, i);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                        sum += keys.getLong(1);
+                    }
+                }
+            }
+            assertTrue(sum > 0);
+            return (long) rows;
+        });
+    }
+
+    // What Hibernate does for a pooled-lo sequence: a sequence call per block, inserts sent in batches
+    private long insertWithPooledSequence(int rows) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long roundTrips = 0;
+            try (PreparedStatement sequence = connection.prepareStatement("SELECT NEXT VALUE FOR bench_pooled_seq");
+                 PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO bench_pooled (id, landlord_id, title, description, rent, city, created_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)")) {
+                long next = 0;
+                long end = 0;
+                for (int i = 0; i < rows; i++) {
+                    if (next == end) {
+                        try (ResultSet value = sequence.executeQuery()) {
+                            value.next();
+                            next = value.getLong(1);
+                            end = next + IdSequences.ALLOCATION_SIZE;
+                        }
+                        roundTrips++;
+                    }
+                    insert.setLong(1, next++);
+                    bind(insert, 2, i);
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        roundTrips++;
+                    }
+                }
+                if (rows % BATCH_SIZE != 0) {
+                    insert.executeBatch();
+                    roundTrips++;
+                }
+            }
+            return roundTrips;
+        });
+    }
+
+    private static void bind(PreparedStatement insert, int first, int i) throws java.sql.SQLException {
+        insert.setLong(first, 1 + i % 100);
+        insert.setString(first + 1, "Room number " + i);
+        insert.setString(first + 2, DESCRIPTION);
+        insert.setBigDecimal(first + 3, new BigDecimal("950.00"));
+        insert.setString(first + 4, "Boston");
+    }
+
+    private static Listing createListing(int i) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L + i % 100);
+        listing.setTitle("Room number " + i);
+        listing.setDescription(DESCRIPTION);
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        return listing;
+    }
+}
@@ -0,0 +1,99 @@
+package com.studentbnb.listing_service.repository;
+
+import com.studentbnb.listing_service.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(SequenceIdAllocator.class)
+class SequenceIdAllocatorTest {
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void entityInserts_AreBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Listing> listings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            listings.add(createListing("Batched listing " + i));
+        }
+        listingRepository.saveAll(listings);
+        entityManager.flush();
+
+        // One insert statement reused across batches of 20, plus one sequence call per 50 ids
+        assertTrue(statistics.getPrepareStatementCount() <= 5, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(120, listingRepository.count());
+    }
+
+    @Test
+    void allocatedIds_NeverCollideWithEntityIds() {
+        Set<Long> ids = new HashSet<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 30; i++) {
+                ids.add(listingRepository.save(createListing("Entity listing " + round + " " + i)).getId());
+            }
+            entityManager.flush();
+            for (long id : idAllocator.next(IdSequences.LISTINGS, 70)) {
+                jdbcTemplate.update("INSERT INTO listings (id, landlord_id, title, description, rent, currency, security_deposit, " +
+                    "bedrooms, bathrooms, property_type, address, city, state, zip_code, lease_type, status) " +
+                    "VALUES (?, 1, 'Raw listing', 'Raw', 900, 'USD', 500, 1, 1, 'APARTMENT', '1 Main Street', 'Boston', " +
+                    "'MA', '02115', 'ACADEMIC_YEAR', 'DRAFT')", id);
+                ids.add(id);
+            }
+        }
+
+        assertEquals(3 * (30 + 70), ids.size());
+        assertEquals(ids.size(), listingRepository.count());
+    }
+
+    private Listing createListing(String title) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle(title);
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        return listing;
+    }
+}
@@ -0,0 +1,70 @@
+package com.studentbnb.listing_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void covering_WholeWindowAndSingleDay() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.put(0, BASE, BASE.plusDays(100));
+        index.put(1, BASE.plusDays(30), null);
+        index.put(2, null, BASE.plusDays(60));
+        index.put(3, BASE.plusDays(10), BASE.plusDays(20));
+
+        assertArrayEquals(new int[]{0, 2}, index.covering(BASE.plusDays(5), BASE.plusDays(60)));
+        assertArrayEquals(new int[]{0, 2, 3}, index.covering(BASE.plusDays(20), BASE.plusDays(20)));
+        assertArrayEquals(new int[]{1}, index.covering(BASE.plusDays(200), BASE.plusDays(900)));
+
+        index.remove(2);
+        index.put(3, BASE, BASE.plusDays(365));
+        assertArrayEquals(new int[]{0, 3}, index.covering(BASE.plusDays(5), BASE.plusDays(60)));
+    }
+
+    @Test
+    void covering_MatchesABruteForceScanAcrossRebuilds() {
+        Random random = new Random(7);
+        AvailabilityIndex index = new AvailabilityIndex();
+        LocalDate[] from = new LocalDate[3000];
+        LocalDate[] until = new LocalDate[3000];
+
+        for (int round = 0; round < 6; round++) {
+            // Each round rewrites or drops a random slice, so queries see tree, stale and pending entries together
+            for (int i = 0; i < 1500; i++) {
+                int docId = random.nextInt(from.length);
+                if (random.nextInt(5) == 0) {
+                    index.remove(docId);
+                    from[docId] = null;
+                    until[docId] = null;
+                    continue;
+                }
+                LocalDate start = random.nextInt(8) == 0 ? null : BASE.plusDays(random.nextInt(365));
+                LocalDate end = random.nextInt(8) == 0 ? null : BASE.plusDays(random.nextInt(365) + 180);
+                index.put(docId, start, end);
+                from[docId] = start == null ? LocalDate.MIN : start;
+                until[docId] = end == null ? LocalDate.MAX : end;
+            }
+
+            for (int q = 0; q < 50; q++) {
+                LocalDate moveIn = BASE.plusDays(random.nextInt(500));
+                LocalDate moveOut = moveIn.plusDays(random.nextInt(200));
+                List<Integer> expected = new ArrayList<>();
+                for (int docId = 0; docId < from.length; docId++) {
+                    if (from[docId] != null && !from[docId].isAfter(moveIn) && !until[docId].isBefore(moveOut)) {
+                        expected.add(docId);
+                    }
+                }
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), index.covering(moveIn, moveOut));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.studentbnb.listing_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridIndexTest {
+
+    @Test
+    void withinRadius_MatchesBruteForce() {
+        Random random = new Random(42);
+        int points = 200_000;
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        GeoGridIndex grid = new GeoGridIndex();
+
+        // Scatter points over a metro-sized area around Boston
+        for (int i = 0; i < points; i++) {
+            lats[i] = 42.20 + random.nextDouble() * 0.30;
+            lons[i] = -71.30 + random.nextDouble() * 0.40;
+            grid.put(i, lats[i], lons[i]);
+        }
+
+        for (double radius : new double[] {0.5, 2, 10}) {
+            double lat = 42.35;
+            double lon = -71.08;
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < points; i++) {
+                if (GeoGridIndex.haversineKm(lat, lon, lats[i], lons[i]) <= radius) {
+                    expected.add(i);
+                }
+            }
+
+            Set<Integer> actual = new HashSet<>();
+            grid.withinRadius(lat, lon, radius, (docId, km) -> {
+                assertTrue(km <= radius);
+                actual.add(docId);
+            });
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void withinRadius_CrossesAntimeridian() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(1, -17.0, 179.999);
+        grid.put(2, -17.0, -179.999);
+        grid.put(3, -17.0, 178.0);
+
+        Set<Integer> found = new HashSet<>();
+        grid.withinRadius(-17.0, 180.0, 5, (docId, km) -> found.add(docId));
+
+        assertEquals(Set.of(1, 2), found);
+    }
+
+    @Test
+    void withinBox_AndRemove() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(1, 40.7128, -74.0060);
+        grid.put(2, 40.7306, -73.9352);
+        grid.put(3, 34.0522, -118.2437);
+
+        Set<Integer> found = new HashSet<>();
+        grid.withinBox(40.0, 41.0, -74.5, -73.5, (docId, km) -> found.add(docId));
+        assertEquals(Set.of(1, 2), found);
+
+        grid.remove(2, 40.7306, -73.9352);
+        found.clear();
+        grid.withinBox(40.0, 41.0, -74.5, -73.5, (docId, km) -> found.add(docId));
+        assertEquals(Set.of(1), found);
+    }
+}
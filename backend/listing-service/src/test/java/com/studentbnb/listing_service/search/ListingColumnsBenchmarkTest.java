@@ -0,0 +1,121 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.dto.SearchFacetsResponse;
+import com.studentbnb.listing_service.entity.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Filtered facet counting over the ListingColumns against the same scan
+ * over Listing entities, the shape the JPA path hands back (BigDecimal
+ * rent, boxed numbers, amenity collections). The entity scan runs on
+ * entities already in memory, so it is a lower bound for the JPA path.
+ * Excluded from the default build; run with:
+ * mvn test -Pbenchmark -Dtest=ListingColumnsBenchmarkTest
+ */
+@Tag("benchmark")
+class ListingColumnsBenchmarkTest {
+
+    private static final int LISTINGS = 200_000;
+    private static final int ROUNDS = 50;
+
+    @Test
+    void filteredFacetsFromColumnsVersusEntities() {
+        Random random = new Random(42);
+        AmenityType[] amenityTypes = AmenityType.values();
+        List<Listing> entities = new ArrayList<>(LISTINGS);
+        ListingSearchIndex index = new ListingSearchIndex();
+        for (long id = 1; id <= LISTINGS; id++) {
+            Listing listing = new Listing();
+            listing.setId(id);
+            listing.setStatus(ListingStatus.ACTIVE);
+            listing.setCity(random.nextBoolean() ? "Boston" : "Cambridge");
+            listing.setPropertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)]);
+            listing.setLeaseType(LeaseType.values()[random.nextInt(LeaseType.values().length)]);
+            listing.setBedrooms(random.nextInt(5));
+            listing.setFurnished(random.nextBoolean());
+            listing.setRent(BigDecimal.valueOf(50_000 + random.nextInt(300_000), 2));
+            listing.setSquareFeet(BigDecimal.valueOf(300 + random.nextInt(1500)));
+            List<ListingAmenity> amenities = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                ListingAmenity amenity = new ListingAmenity();
+                amenity.setAmenityType(amenityTypes[random.nextInt(amenityTypes.length)]);
+                amenities.add(amenity);
+            }
+            listing.setAmenities(amenities);
+            entities.add(listing);
+
+            ListingResponse response = new ListingResponse();
+            BeanUtils.copyProperties(listing, response);
+            index.put(response);
+        }
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setMinRent(new BigDecimal("800"));
+        request.setMaxRent(new BigDecimal("2000"));
+        request.setMinSquareFeet(new BigDecimal("500"));
+        request.setRequiredAmenities(List.of(AmenityType.WIFI));
+
+        SearchFacetsResponse fromColumns = index.facets(request);
+        Map<PropertyType, Long> fromEntities = entityFacets(entities, request);
+        assertEquals(fromEntities, fromColumns.getPropertyTypes());
+
+        double columnMillis = time(() -> index.facets(request));
+        double entityMillis = time(() -> entityFacets(entities, request));
+        System.out.printf("Filtered facets over %,d listings (%,d matches): columns %.2f ms, entities %.2f ms (%.1fx)%n",
+            LISTINGS, fromColumns.getTotal(), columnMillis, entityMillis, entityMillis / columnMillis);
+
+        assertTrue(columnMillis < entityMillis, "columns " + columnMillis + " ms, entities " + entityMillis + " ms");
+    }
+
+    // What filtering and counting looks like on entities: BigDecimal compares and a walk over each amenity list
+    private static Map<PropertyType, Long> entityFacets(List<Listing> listings, ListingSearchRequest request) {
+        Map<PropertyType, Long> counts = new EnumMap<>(PropertyType.class);
+        for (PropertyType type : PropertyType.values()) {
+            counts.put(type, 0L);
+        }
+        Map<AmenityType, Long> amenityCounts = new EnumMap<>(AmenityType.class);
+        for (Listing listing : listings) {
+            if (listing.getRent().compareTo(request.getMinRent()) < 0 || listing.getRent().compareTo(request.getMaxRent()) > 0) {
+                continue;
+            }
+            if (listing.getSquareFeet() == null || listing.getSquareFeet().compareTo(request.getMinSquareFeet()) < 0) {
+                continue;
+            }
+            boolean hasAll = request.getRequiredAmenities().stream()
+                .allMatch(required -> listing.getAmenities().stream().anyMatch(a -> a.getAmenityType() == required));
+            if (!hasAll) {
+                continue;
+            }
+            counts.merge(listing.getPropertyType(), 1L, Long::sum);
+            for (ListingAmenity amenity : listing.getAmenities()) {
+                amenityCounts.merge(amenity.getAmenityType(), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static double time(Supplier<?> run) {
+        for (int i = 0; i < ROUNDS; i++) {
+            run.get();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            run.get();
+        }
+        return (System.nanoTime() - started) / 1e6 / ROUNDS;
+    }
+}
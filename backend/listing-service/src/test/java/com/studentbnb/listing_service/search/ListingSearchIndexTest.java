@@ -0,0 +1,346 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.dto.SearchFacetsResponse;
+import com.studentbnb.listing_service.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingSearchIndexTest {
+
+    private ListingSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ListingSearchIndex();
+
+        ListingResponse boston = listing(1L, "Sunny studio near Northeastern", "Boston", "MA", "02115",
+            PropertyType.STUDIO, 0, 1, "1200.00");
+        boston.setNearestUniversity("Northeastern University");
+        boston.setPetsAllowed(true);
+        boston.setAmenities(amenities(AmenityType.WIFI, AmenityType.GYM_FITNESS_CENTER));
+        boston.setAvailableFrom(LocalDate.of(2025, 8, 1));
+        boston.setAvailableUntil(LocalDate.of(2026, 5, 31));
+
+        ListingResponse cambridge = listing(2L, "Quiet two bedroom apartment", "Cambridge", "MA", "02139-4307",
+            PropertyType.APARTMENT, 2, 1, "2400.00");
+        cambridge.setNearestUniversity("MIT");
+        cambridge.setAmenities(amenities(AmenityType.WIFI, AmenityType.DISHWASHER, AmenityType.GYM_FITNESS_CENTER));
+
+        ListingResponse annArbor = listing(3L, "Spacious house with yard", "Ann Arbor", "MI", "48104",
+            PropertyType.HOUSE, 4, 2, "3200.00");
+        annArbor.setNearestUniversity("University of Michigan");
+        annArbor.setSmokingAllowed(true);
+        annArbor.setAmenities(amenities(AmenityType.GARDEN_YARD));
+
+        index.put(boston);
+        index.put(cambridge);
+        index.put(annArbor);
+    }
+
+    @Test
+    void search_NoFilters_ReturnsAllNewestFirst() {
+        ListingSearchIndex.SearchHits hits = index.search(new ListingSearchRequest(), 0, 10);
+
+        assertEquals(3, hits.getTotal());
+        assertEquals(List.of(3L, 2L, 1L), ids(hits));
+    }
+
+    @Test
+    void search_CategoricalFiltersIntersect() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setState("ma");
+        request.setRequiredAmenities(List.of(AmenityType.WIFI, AmenityType.GYM_FITNESS_CENTER));
+        request.setMinBedrooms(1);
+
+        assertEquals(List.of(2L), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void search_RequiredAmenitiesAloneAndIgnoringUnavailable() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setRequiredAmenities(List.of(AmenityType.GYM_FITNESS_CENTER));
+        assertEquals(List.of(2L, 1L), ids(index.search(request, 0, 10)));
+
+        // A gym marked unavailable no longer satisfies the filter
+        ListingResponse cambridge = index.get(2L).orElseThrow();
+        cambridge.getAmenities().get(2).setIsAvailable(false);
+        index.put(cambridge);
+        assertEquals(List.of(1L), ids(index.search(request, 0, 10)));
+
+        request.setRequiredAmenities(List.of(AmenityType.GARDEN_YARD, AmenityType.WIFI));
+        assertEquals(List.of(), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void search_KeywordsCityZipAndUniversity() {
+        ListingSearchRequest keywords = new ListingSearchRequest();
+        keywords.setKeywords("Quiet APARTMENT");
+        assertEquals(List.of(2L), ids(index.search(keywords, 0, 10)));
+
+        ListingSearchRequest city = new ListingSearchRequest();
+        city.setCity("ann arbor");
+        assertEquals(List.of(3L), ids(index.search(city, 0, 10)));
+
+        ListingSearchRequest zip = new ListingSearchRequest();
+        zip.setZipCode("02139");
+        assertEquals(List.of(2L), ids(index.search(zip, 0, 10)));
+
+        ListingSearchRequest university = new ListingSearchRequest();
+        university.setNearestUniversity("michigan");
+        assertEquals(List.of(3L), ids(index.search(university, 0, 10)));
+    }
+
+    @Test
+    void search_KeywordsRankByRelevanceUnlessSortedOtherwise() {
+        ListingResponse older = listing(4L, "Quiet apartments on a quiet street", "Boston", "MA", "02115",
+            PropertyType.APARTMENT, 1, 1, "2600.00");
+        older.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        index.put(older);
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setKeywords("the quiet apartment");
+        assertEquals(List.of(4L, 2L), ids(index.search(request, 0, 10)));
+
+        ListingSearchIndex.SortKey first = index.sortKeyOf(request, index.get(4L).orElseThrow());
+        assertEquals(List.of(2L), ids(index.searchAfter(request, first, 10)));
+
+        request.setSortBy("rent");
+        request.setSortDirection("asc");
+        assertEquals(List.of(2L, 4L), ids(index.search(request, 0, 10)));
+
+        // Keywords combine with structured filters
+        request.setCity("Boston");
+        assertEquals(List.of(4L), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void search_RangeAndBooleanFilters() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setMaxRent(new BigDecimal("2500"));
+        request.setSmokingAllowed(false);
+        request.setSortBy("rent");
+        request.setSortDirection("asc");
+
+        assertEquals(List.of(1L, 2L), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void search_RangeFiltersSkipListingsWithoutAValue() {
+        ListingResponse cambridge = index.get(2L).orElseThrow();
+        cambridge.setSecurityDeposit(new BigDecimal("1000.00"));
+        cambridge.setSquareFeet(new BigDecimal("850.50"));
+        cambridge.setDistanceToCampusKm(1.5);
+        index.put(cambridge);
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setMaxSecurityDeposit(new BigDecimal("1000"));
+        request.setMinSquareFeet(new BigDecimal("850.5"));
+        request.setMaxDistanceToCampus(2.0);
+        assertEquals(List.of(2L), ids(index.search(request, 0, 10)));
+
+        request.setMinRent(new BigDecimal("2400.01"));
+        assertTrue(ids(index.search(request, 0, 10)).isEmpty());
+    }
+
+    @Test
+    void search_AvailabilityWindow() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setPropertyType(PropertyType.STUDIO);
+        request.setAvailableFrom(LocalDate.of(2025, 9, 1));
+        request.setAvailableUntil(LocalDate.of(2026, 5, 1));
+        assertEquals(List.of(1L), ids(index.search(request, 0, 10)));
+
+        request.setAvailableUntil(LocalDate.of(2026, 8, 1));
+        assertTrue(ids(index.search(request, 0, 10)).isEmpty());
+
+        // Without another filter the window comes from the availability tree; open windows always qualify
+        request.setPropertyType(null);
+        assertEquals(List.of(3L, 2L), ids(index.search(request, 0, 10)));
+        request.setAvailableUntil(null);
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void search_PreferredAmenitiesBoostRanking() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setPreferredAmenities(List.of(AmenityType.WIFI, AmenityType.GYM_FITNESS_CENTER, AmenityType.DISHWASHER));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(index.search(request, 0, 10)));
+    }
+
+    @Test
+    void facets_CountEveryDimensionForTheCurrentFilters() {
+        SearchFacetsResponse all = index.facets(new ListingSearchRequest());
+        assertEquals(3, all.getTotal());
+        assertEquals(1L, all.getPropertyTypes().get(PropertyType.STUDIO));
+        assertEquals(0L, all.getPropertyTypes().get(PropertyType.CONDO));
+        assertEquals(3L, all.getLeaseTypes().get(LeaseType.ACADEMIC_YEAR));
+        assertEquals(1L, all.getBedrooms().get(4));
+        assertEquals(2L, all.getAmenities().get(AmenityType.WIFI));
+        assertEquals(ListingColumns.RENT_BUCKETS, all.getRentBuckets().size());
+        assertEquals(1L, all.getRentBuckets().get(4).getCount());
+        assertEquals(new BigDecimal(1000), all.getRentBuckets().get(4).getMinRent());
+        assertNull(all.getRentBuckets().get(ListingColumns.RENT_BUCKETS - 1).getMaxRent());
+        assertEquals(1L, all.getRentBuckets().get(ListingColumns.RENT_BUCKETS - 1).getCount());
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setState("ma");
+        request.setMaxRent(new BigDecimal("2000"));
+        SearchFacetsResponse filtered = index.facets(request);
+        assertEquals(1, filtered.getTotal());
+        assertEquals(0L, filtered.getPropertyTypes().get(PropertyType.APARTMENT));
+        assertEquals(1L, filtered.getAmenities().get(AmenityType.GYM_FITNESS_CENTER));
+        assertEquals(0L, filtered.getAmenities().get(AmenityType.DISHWASHER));
+    }
+
+    @Test
+    void stats_SummariseRentAndFeatures() {
+        Map<String, Object> stats = index.stats();
+
+        assertEquals(3, stats.get("activeListings"));
+        assertEquals(new BigDecimal("2266.67"), stats.get("averageRent"));
+        assertEquals(new BigDecimal("2400.00"), stats.get("medianRent"));
+        assertEquals(new BigDecimal("1200.00"), stats.get("minRent"));
+        assertEquals(2.0, stats.get("averageBedrooms"));
+        assertEquals(1, stats.get("petsAllowed"));
+    }
+
+    @Test
+    void search_PagesThroughResults() {
+        ListingSearchIndex.SearchHits second = index.search(new ListingSearchRequest(), 1, 1);
+        ListingSearchIndex.SearchHits beyond = index.search(new ListingSearchRequest(), 5, 1);
+
+        assertEquals(3, second.getTotal());
+        assertEquals(List.of(2L), ids(second));
+        assertEquals(3, beyond.getTotal());
+        assertTrue(beyond.getListings().isEmpty());
+    }
+
+    @Test
+    void search_HugePagesAreBoundedByTheCandidatesAndOverflowIsRejected() {
+        locate(1L, 42.3398, -71.0892);
+        ListingSearchIndex.SearchHits all = index.search(new ListingSearchRequest(), 0, Integer.MAX_VALUE);
+        ListingSearchIndex.SearchHits near = index.nearby(42.3370, -71.0900, 5, 0, Integer.MAX_VALUE);
+
+        assertEquals(List.of(3L, 2L, 1L), ids(all));
+        assertEquals(List.of(1L), ids(near));
+        assertThrows(IllegalArgumentException.class,
+            () -> index.search(new ListingSearchRequest(), Integer.MAX_VALUE, 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> index.searchAfter(new ListingSearchRequest(), null, Integer.MIN_VALUE));
+    }
+
+    @Test
+    void searchAfter_ContinuesStrictlyAfterCursorKey() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setPreferredAmenities(List.of(AmenityType.WIFI, AmenityType.GYM_FITNESS_CENTER, AmenityType.DISHWASHER));
+
+        List<ListingResponse> first = index.searchAfter(request, null, 1).getListings();
+        assertEquals(List.of(2L), first.stream().map(ListingResponse::getId).toList());
+
+        ListingSearchIndex.SortKey after = index.sortKeyOf(request, first.get(0));
+        assertEquals(3, after.getBoost());
+        assertEquals(List.of(1L, 3L), ids(index.searchAfter(request, after, 5)));
+
+        // Nothing sorts after the last listing's key
+        ListingSearchIndex.SortKey last = new ListingSearchIndex.SortKey(0, LocalDateTime.of(2025, 1, 4, 0, 0), 3L);
+        assertTrue(ids(index.searchAfter(request, last, 5)).isEmpty());
+    }
+
+    @Test
+    void put_ReplacesAndDropsInactiveListings() {
+        ListingResponse moved = listing(1L, "Sunny studio near Northeastern", "Providence", "RI", "02906",
+            PropertyType.STUDIO, 0, 1, "1100.00");
+        index.put(moved);
+
+        ListingSearchRequest boston = new ListingSearchRequest();
+        boston.setCity("Boston");
+        assertTrue(ids(index.search(boston, 0, 10)).isEmpty());
+
+        ListingSearchRequest providence = new ListingSearchRequest();
+        providence.setCity("Providence");
+        assertEquals(List.of(1L), ids(index.search(providence, 0, 10)));
+
+        moved.setStatus(ListingStatus.INACTIVE);
+        index.put(moved);
+        assertEquals(2, index.size());
+        assertTrue(ids(index.search(providence, 0, 10)).isEmpty());
+
+        index.remove(2L);
+        assertEquals(List.of(3L), ids(index.search(new ListingSearchRequest(), 0, 10)));
+    }
+
+    @Test
+    void nearby_OrdersByDistanceAndFiltersByRadius() {
+        locate(1L, 42.3398, -71.0892);   // Northeastern
+        locate(2L, 42.3601, -71.0942);   // MIT
+        locate(3L, 42.2808, -83.7430);   // Ann Arbor
+
+        ListingSearchIndex.SearchHits hits = index.nearby(42.3370, -71.0900, 5, 0, 10);
+
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(1L, 2L), ids(hits));
+        assertTrue(hits.getDistancesKm().get(0) < hits.getDistancesKm().get(1));
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setLatitude(42.3370);
+        request.setLongitude(-71.0900);
+        request.setRadiusKm(1.0);
+        assertEquals(List.of(1L), ids(index.search(request, 0, 10)));
+    }
+
+    private void locate(Long id, double latitude, double longitude) {
+        // Indexed documents are immutable snapshots, so re-put a copy
+        ListingResponse listing = new ListingResponse();
+        BeanUtils.copyProperties(index.get(id).orElseThrow(), listing);
+        listing.setLatitude(latitude);
+        listing.setLongitude(longitude);
+        index.put(listing);
+    }
+
+    private List<Long> ids(ListingSearchIndex.SearchHits hits) {
+        return hits.getListings().stream().map(ListingResponse::getId).toList();
+    }
+
+    private List<ListingAmenity> amenities(AmenityType... types) {
+        List<ListingAmenity> amenities = new ArrayList<>();
+        for (AmenityType type : types) {
+            ListingAmenity amenity = new ListingAmenity();
+            amenity.setAmenityType(type);
+            amenities.add(amenity);
+        }
+        return amenities;
+    }
+
+    private ListingResponse listing(Long id, String title, String city, String state, String zip,
+                                    PropertyType type, int bedrooms, int bathrooms, String rent) {
+        ListingResponse listing = new ListingResponse();
+        listing.setId(id);
+        listing.setTitle(title);
+        listing.setDescription("Well kept place for students, walking distance to shops and transit.");
+        listing.setCity(city);
+        listing.setState(state);
+        listing.setZipCode(zip);
+        listing.setPropertyType(type);
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setBedrooms(bedrooms);
+        listing.setBathrooms(bathrooms);
+        listing.setRent(new BigDecimal(rent));
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(id));
+        listing.setAmenities(new ArrayList<>());
+        return listing;
+    }
+}
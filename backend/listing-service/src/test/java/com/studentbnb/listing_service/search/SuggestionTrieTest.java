@@ -0,0 +1,77 @@
+package com.studentbnb.listing_service.search;
+
+import com.studentbnb.listing_service.dto.AutocompleteSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie();
+        for (int i = 0; i < 5; i++) {
+            trie.add(SuggestionType.CITY, "Boston");
+        }
+        for (int i = 0; i < 3; i++) {
+            trie.add(SuggestionType.UNIVERSITY, "Boston University");
+        }
+        trie.add(SuggestionType.CITY, "Bothell");
+        trie.add(SuggestionType.CITY, "Ann Arbor");
+        trie.add(SuggestionType.UNIVERSITY, "University of Michigan");
+        trie.add(SuggestionType.UNIVERSITY, "University of Michigan");
+        trie.add(SuggestionType.ZIP_CODE, "02115");
+    }
+
+    @Test
+    void complete_RanksByListingCount() {
+        List<AutocompleteSuggestion> suggestions = trie.complete("bo", null, 10);
+
+        assertEquals(List.of("Boston", "Boston University", "Bothell"), values(suggestions));
+        assertEquals(5, suggestions.get(0).getListingCount());
+        assertEquals(SuggestionType.UNIVERSITY, suggestions.get(1).getType());
+        assertEquals(List.of("Boston", "Boston University"), values(trie.complete("BOST", null, 2)));
+    }
+
+    @Test
+    void complete_MatchesAnyWordStartOnce() {
+        assertEquals(List.of("University of Michigan"), values(trie.complete("mich", null, 10)));
+        assertEquals(List.of("Boston University", "University of Michigan"), values(trie.complete("univ", null, 10)));
+        assertEquals(List.of("Ann Arbor"), values(trie.complete("arb", null, 10)));
+        assertEquals(List.of("02115"), values(trie.complete("021", null, 10)));
+        assertTrue(trie.complete("x", null, 10).isEmpty());
+    }
+
+    @Test
+    void complete_FiltersByTypeAndCompletedWords() {
+        assertEquals(List.of("Boston", "Bothell"), values(trie.complete("bo", SuggestionType.CITY, 10)));
+        assertEquals(List.of("Boston University"), values(trie.complete("boston ", null, 10)));
+    }
+
+    @Test
+    void remove_DecrementsAndDropsAtZero() {
+        trie.remove(SuggestionType.CITY, "Bothell");
+        for (int i = 0; i < 3; i++) {
+            trie.remove(SuggestionType.CITY, "boston");
+        }
+
+        List<AutocompleteSuggestion> suggestions = trie.complete("bo", null, 10);
+        assertEquals(List.of("Boston University", "Boston"), values(suggestions));
+        assertEquals(2, suggestions.get(1).getListingCount());
+
+        trie.remove(SuggestionType.UNIVERSITY, "University of Michigan");
+        trie.remove(SuggestionType.UNIVERSITY, "University of Michigan");
+        assertTrue(trie.complete("mich", null, 10).isEmpty());
+        assertEquals(List.of("Boston University"), values(trie.complete("univ", null, 10)));
+        assertEquals(4, trie.size());
+    }
+
+    private List<String> values(List<AutocompleteSuggestion> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestion::getValue).toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.studentbnb.listing_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    @Test
+    void analyze_DropsStopWordsAndStems() {
+        assertEquals(List.of("furnish", "apartment", "walk", "campu"),
+            TextAnalyzer.analyze("The furnished apartments, walking to campus"));
+        assertEquals(List.of("no", "smoke", "cozi", "studi"), TextAnalyzer.analyze("No smoking; cozy studies"));
+        assertEquals(List.of("2br", "hop", "hope", "agree"), TextAnalyzer.analyze("2BR hopping hoping agreed"));
+    }
+
+    @Test
+    void match_RequiresEveryTermAndRanksByBm25() {
+        TextIndex index = new TextIndex();
+        index.put(0, "Sunny studio", "A sunny studio close to campus.");
+        index.put(1, "Quiet room", "Quiet room in a shared house, sunny garden.");
+        index.put(2, "Large house", "Spacious house with a garden and parking.");
+        index.put(3, "Studio", "Basement studio.");
+
+        TextIndex.Matches sunny = index.match(TextAnalyzer.analyze("sunny"));
+        assertArrayEquals(new int[]{0, 1}, sunny.getDocIds());
+        // Sunny in the title and twice overall beats a single mention in the description
+        assertTrue(sunny.scoreOf(0) > sunny.scoreOf(1));
+
+        TextIndex.Matches garden = index.match(TextAnalyzer.analyze("house gardens"));
+        assertArrayEquals(new int[]{1, 2}, garden.getDocIds());
+        assertTrue(garden.scoreOf(2) > garden.scoreOf(1));
+
+        assertEquals(0, index.match(TextAnalyzer.analyze("sunny basement")).getDocIds().length);
+        assertEquals(0, index.match(TextAnalyzer.analyze("penthouse")).getDocIds().length);
+        assertEquals(0.0, sunny.scoreOf(3));
+    }
+
+    @Test
+    void put_ReplacesAndRemoveRetiresAcrossCompactions() {
+        TextIndex index = new TextIndex();
+        for (int round = 0; round < 5; round++) {
+            for (int docId = 0; docId < 1000; docId++) {
+                index.put(docId, "Room " + round, docId % 2 == 0 ? "Near the park" : "Near the lake");
+            }
+        }
+        index.remove(1);
+
+        assertEquals(999, index.size());
+        assertEquals(500, index.match(TextAnalyzer.analyze("park 4")).getDocIds().length);
+        assertEquals(499, index.match(TextAnalyzer.analyze("lake")).getDocIds().length);
+        assertEquals(0, index.match(TextAnalyzer.analyze("room 3")).getDocIds().length);
+        // Compaction keeps retired entries below half, so at most two 2-byte pairs per live document and term
+        assertTrue(index.postingBytes() < 2 * 1000 * 4 * 2, "posting bytes " + index.postingBytes());
+    }
+}
@@ -0,0 +1,70 @@
+package com.studentbnb.listing_service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        for (int i = 0; i < 3; i++) {
+            index.add("Boston");
+        }
+        index.add("Bolton");
+        index.add("Ann Arbor");
+        index.add("University of Michigan");
+        index.add("Michigan State University");
+        index.add("Boston University");
+    }
+
+    @Test
+    void bestMatch_ToleratesTyposAndTranspositions() {
+        assertEquals("Boston", index.bestMatch("Bostn"));
+        assertEquals("Boston", index.bestMatch("bsoton"));
+        assertEquals("Ann Arbor", index.bestMatch("ann arbr"));
+        assertNull(index.bestMatch("Chicago"));
+        assertNull(index.bestMatch(" "));
+    }
+
+    @Test
+    void bestMatch_ExpandsAbbreviationsInOrder() {
+        assertEquals("University of Michigan", index.bestMatch("univ of michigan"));
+        assertEquals("Michigan State University", index.bestMatch("michigan state univ"));
+        assertEquals("Boston University", index.bestMatch("boston univ"));
+    }
+
+    @Test
+    void bestMatch_PrefersFewerEditsThenFewerWordsThenMoreListings() {
+        // "Bolston" is one edit from both "Boston" and "Bolton"; more listings use Boston
+        assertEquals("Boston", index.bestMatch("Bolston"));
+        index.remove("Boston");
+        index.remove("Boston");
+        index.remove("Boston");
+        assertEquals("Bolton", index.bestMatch("Bolston"));
+        assertEquals("Boston University", index.bestMatch("Bostn"));
+    }
+
+    @Test
+    void containsWords_OnlyForWordsAsWritten() {
+        assertTrue(index.containsWords("michigan"));
+        assertTrue(index.containsWords("State Michigan"));
+        assertFalse(index.containsWords("univ"));
+
+        index.remove("Ann Arbor");
+        assertFalse(index.containsWords("arbor"));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void distance_StopsBeyondTheLimit() {
+        assertEquals(1, TrigramIndex.distance("bostn", "boston", 2));
+        assertEquals(1, TrigramIndex.distance("bsoton", "boston", 2));
+        assertEquals(-1, TrigramIndex.distance("chicago", "boston", 2));
+        assertEquals(-1, TrigramIndex.distance("bo", "boston", 2));
+    }
+}
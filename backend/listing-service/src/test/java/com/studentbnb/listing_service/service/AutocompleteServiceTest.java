@@ -0,0 +1,148 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.AutocompleteSuggestion;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.search.SuggestionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the listener reads listings in a transaction of its own, so they must be committed
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AutocompleteService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AutocompleteServiceTest {
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    private final List<Listing> listings = new ArrayList<>();
+
+    private Listing draft;
+
+    @BeforeEach
+    void setUp() {
+        persistListing("Boston", "02115-1234", "Northeastern University", ListingStatus.ACTIVE);
+        persistListing("Boston", "02116", "Boston University", ListingStatus.ACTIVE);
+        draft = persistListing("Cambridge", "02139", "MIT", ListingStatus.DRAFT);
+
+        autocompleteService.warmUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listingRepository.deleteAll(listings);
+    }
+
+    @Test
+    void suggest_CountsActiveListingsOnly() {
+        List<AutocompleteSuggestion> suggestions = autocompleteService.suggest("bos", null, 10);
+
+        assertEquals("Boston", suggestions.get(0).getValue());
+        assertEquals(2, suggestions.get(0).getListingCount());
+        assertEquals(List.of("02115", "02116"),
+            autocompleteService.suggest("021", "zip_code", 10).stream().map(AutocompleteSuggestion::getValue).toList());
+        assertTrue(autocompleteService.suggest("camb", null, 10).isEmpty());
+    }
+
+    @Test
+    void onListingChanged_FollowsStatusAndDeletes() {
+        draft.setStatus(ListingStatus.ACTIVE);
+        draft = listingRepository.save(draft);
+        autocompleteService.onListingChanged(new ListingChangedEvent(draft.getId(), ListingChangedEvent.ChangeType.UPDATED));
+
+        assertEquals(SuggestionType.CITY, autocompleteService.suggest("camb", null, 10).get(0).getType());
+        assertEquals("MIT", autocompleteService.suggest("mit", "university", 10).get(0).getValue());
+
+        autocompleteService.onListingChanged(new ListingChangedEvent(draft.getId(), ListingChangedEvent.ChangeType.DELETED));
+        assertTrue(autocompleteService.suggest("camb", null, 10).isEmpty());
+    }
+
+    @Test
+    void warmUp_KeepsChangesCommittedWhileItRuns() {
+        // A listing is taken down right after the batch holding it was read
+        Listing withdrawn = listings.get(0);
+        boolean[] changed = {false};
+        ListingRepository interrupted = (ListingRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{ListingRepository.class}, (proxy, method, args) -> {
+                Object result = method.invoke(listingRepository, args);
+                if (method.getName().equals("findByStatusAndIdGreaterThanOrderByIdAsc") && !changed[0]) {
+                    changed[0] = true;
+                    withdrawn.setStatus(ListingStatus.INACTIVE);
+                    listingRepository.save(withdrawn);
+                    autocompleteService.onListingChanged(new ListingChangedEvent(withdrawn.getId(), ListingChangedEvent.ChangeType.UPDATED));
+                }
+                return result;
+            });
+
+        ReflectionTestUtils.setField(autocompleteService, "listingRepository", interrupted);
+        try {
+            autocompleteService.warmUp();
+        } finally {
+            ReflectionTestUtils.setField(autocompleteService, "listingRepository", listingRepository);
+        }
+
+        assertTrue(changed[0]);
+        assertEquals(1, autocompleteService.suggest("bos", "city", 10).get(0).getListingCount());
+        assertTrue(autocompleteService.suggest("north", null, 10).isEmpty());
+    }
+
+    @Test
+    void resolve_RewritesOnlyUnknownTerms() {
+        assertEquals("Boston", autocompleteService.resolve(SuggestionType.CITY, "Bostn"));
+        assertEquals("Northeastern University", autocompleteService.resolve(SuggestionType.UNIVERSITY, "northeastrn univ"));
+        assertEquals("boston", autocompleteService.resolve(SuggestionType.UNIVERSITY, "boston"));
+        // Draft listings are not in the vocabulary
+        assertEquals("Cambrige", autocompleteService.resolve(SuggestionType.CITY, "Cambrige"));
+        assertThrows(IllegalArgumentException.class, () -> autocompleteService.resolve(SuggestionType.STATE, "MA"));
+    }
+
+    @Test
+    void suggest_RejectsBadTypeAndLimit() {
+        assertThrows(IllegalArgumentException.class, () -> autocompleteService.suggest("bos", "country", 10));
+        assertThrows(IllegalArgumentException.class, () -> autocompleteService.suggest("bos", null, 0));
+        assertTrue(autocompleteService.suggest(" ", null, 10).isEmpty());
+    }
+
+    private Listing persistListing(String city, String zipCode, String university, ListingStatus status) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room in " + city + " near campus");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("900.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity(city);
+        listing.setState("MA");
+        listing.setZipCode(zipCode);
+        listing.setNearestUniversity(university);
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(status);
+        listing = listingRepository.save(listing);
+        listings.add(listing);
+        return listing;
+    }
+}
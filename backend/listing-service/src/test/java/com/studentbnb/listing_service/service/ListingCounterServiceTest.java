@@ -0,0 +1,150 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ListingCounterService.class)
+class ListingCounterServiceTest {
+
+    @Autowired
+    private ListingCounterService counterService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long listingId;
+
+    @BeforeEach
+    void setUp() {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room near campus with desk");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setViewCount(3);
+        listing.setFavoriteCount(2);
+        entityManager.persist(listing);
+        entityManager.flush();
+        entityManager.clear();
+        listingId = listing.getId();
+    }
+
+    @Test
+    void flush_AppliesDeltasOnTopOfStoredCounts() {
+        counterService.recordViews(Set.of(listingId), () -> Map.of(listingId, 5));
+
+        // Another instance flushing in between must not be overwritten
+        jdbcTemplate.update("UPDATE listings SET view_count = 10 WHERE id = ?", listingId);
+        assertEquals(5, counterService.pendingViews(listingId));
+
+        counterService.flush();
+
+        assertEquals(15, viewCount());
+        assertEquals(2, favoriteCount());
+        assertEquals(0, counterService.pendingViews(listingId));
+    }
+
+    @Test
+    void favoriteChanges_CountOnlyOnceCommitted() {
+        counterService.favoriteAdded(listingId);
+        assertEquals(0, counterService.pendingFavorites(listingId));
+
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+        assertEquals(0, counterService.pendingFavorites(listingId));
+
+        // Outside a transaction there is nothing to wait for
+        counterService.favoriteAdded(listingId);
+        counterService.favoriteAdded(listingId);
+        counterService.favoritesRemoved(listingId, 1);
+        assertEquals(1, counterService.pendingFavorites(listingId));
+    }
+
+    @Test
+    void reconcile_RepairsDriftButLeavesPendingDeltas() {
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO listing_views (id, listing_id, ip_address) VALUES (NEXT VALUE FOR listing_views_seq, ?, ?)", listingId, "10.0.0." + i);
+        }
+        jdbcTemplate.update("INSERT INTO listing_favorites (id, listing_id, user_id) VALUES (NEXT VALUE FOR listing_favorites_seq, ?, ?)", listingId, 7L);
+        counterService.recordViews(Set.of(listingId), () -> Map.of(listingId, 1));
+
+        assertEquals(1, counterService.reconcile());
+        assertEquals(3, viewCount());
+        assertEquals(1, favoriteCount());
+
+        counterService.flush();
+        assertEquals(4, viewCount());
+        assertEquals(0, counterService.reconcile());
+    }
+
+    @Test
+    void reconcile_SkipsListingsWhoseViewsAreNotCountedYet() {
+        jdbcTemplate.update("UPDATE listings SET view_count = 0, favorite_count = 0 WHERE id = ?", listingId);
+        int[] fixedMidWrite = new int[1];
+        counterService.recordViews(Set.of(listingId), () -> {
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.update("INSERT INTO listing_views (id, listing_id, ip_address) VALUES (NEXT VALUE FOR listing_views_seq, ?, ?)", listingId, "10.0.0." + i);
+            }
+            // The rows are in, their deltas are not
+            fixedMidWrite[0] = counterService.reconcile();
+            return Map.of(listingId, 3);
+        });
+
+        assertEquals(0, fixedMidWrite[0]);
+        assertEquals(0, viewCount());
+        assertEquals(0, counterService.reconcile());
+
+        counterService.flush();
+        assertEquals(3, viewCount());
+        assertEquals(0, counterService.reconcile());
+    }
+
+    @Test
+    void recordViews_FailedWritesLeaveListingsToReconcile() {
+        jdbcTemplate.update("INSERT INTO listing_views (id, listing_id, ip_address) VALUES (NEXT VALUE FOR listing_views_seq, ?, ?)", listingId, "10.0.0.1");
+
+        assertThrows(IllegalStateException.class, () -> counterService.recordViews(Set.of(listingId), () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals(1, counterService.reconcile());
+        assertEquals(1, viewCount());
+    }
+
+    private int viewCount() {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM listings WHERE id = ?", Integer.class, listingId);
+    }
+
+    private int favoriteCount() {
+        return jdbcTemplate.queryForObject("SELECT favorite_count FROM listings WHERE id = ?", Integer.class, listingId);
+    }
+}
@@ -0,0 +1,122 @@
+package com.studentbnb.listing_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.search.AmenityMask;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ListingExportService.class)
+class ListingExportServiceTest {
+
+    @Autowired
+    private ListingExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // More than two fetch batches, so the session is cleared mid-stream
+        for (int i = 0; i < 1200; i++) {
+            Listing listing = createListing("Shared room " + i, i % 3 == 0 ? "Boston" : "Cambridge");
+            listing.setLandlordId((long) (i % 4));
+            entityManager.persist(listing);
+        }
+        Listing quoted = createListing("Studio, \"cozy\"", "Boston");
+        quoted.setDescription("Two lines of description,\nboth about a bright studio next to campus.");
+        quoted.setAmenityMask(AmenityMask.of(EnumSet.of(AmenityType.WIFI, AmenityType.GYM_FITNESS_CENTER)));
+        quoted.setAvailableFrom(LocalDate.of(2026, 9, 1));
+        entityManager.persist(quoted);
+        Listing draft = createListing("Draft shared room", "Boston");
+        draft.setStatus(ListingStatus.DRAFT);
+        entityManager.persist(draft);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportNdjson_WritesOneObjectPerActiveListingInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ListingExportService.Format.NDJSON, null, null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1201, rows);
+        assertEquals(1201, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode node = mapper.readTree(line);
+            assertTrue(node.get("id").asLong() > previousId);
+            assertEquals("ACTIVE", node.get("status").asText());
+            previousId = node.get("id").asLong();
+        }
+        JsonNode quoted = mapper.readTree(lines[1200]);
+        assertEquals("Studio, \"cozy\"", quoted.get("title").asText());
+        assertEquals(950.00, quoted.get("rent").decimalValue().doubleValue());
+        assertEquals("2026-09-01", quoted.get("availableFrom").asText());
+        assertEquals(List.of("WIFI", "GYM_FITNESS_CENTER"),
+            List.of(quoted.get("amenities").get(0).asText(), quoted.get("amenities").get(1).asText()));
+    }
+
+    @Test
+    void exportCsv_FiltersAndQuotes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ListingExportService.Format.CSV, " boston ", null, 0L, null, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        // Rooms 0, 12, 24, ... are in Boston with landlord 0; the quoted studio has landlord 1
+        assertEquals(100, rows);
+        assertTrue(csv.startsWith("id,landlordId,title,description,rent,"));
+        assertEquals(101, csv.split("\r\n").length);
+
+        out.reset();
+        exportService.export(ListingExportService.Format.CSV, "Boston", null, 1L, null, out);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(
+            "\"Studio, \"\"cozy\"\"\",\"Two lines of description,\nboth about a bright studio next to campus.\",950.00,USD,"));
+    }
+
+    @Test
+    void formatParse_RejectsUnknownFormats() {
+        assertEquals(ListingExportService.Format.CSV, ListingExportService.Format.parse("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> ListingExportService.Format.parse("xml"));
+    }
+
+    private Listing createListing(String title, String city) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle(title);
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity(city);
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        return listing;
+    }
+}
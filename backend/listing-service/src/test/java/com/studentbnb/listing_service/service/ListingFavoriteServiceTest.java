@@ -0,0 +1,148 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.CursorPageResponse;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({ListingFavoriteService.class, ListingHydrationService.class, ListingCounterService.class})
+class ListingFavoriteServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    @Autowired
+    private ListingFavoriteService favoriteService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Ids of the user's favorite ACTIVE listings, newest favorite first
+    private final List<Long> expectedIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 30; i++) {
+            // Every sixth favorite has since been taken off the market
+            ListingStatus status = i % 6 == 5 ? ListingStatus.INACTIVE : ListingStatus.ACTIVE;
+            Listing listing = createListing("Favorite listing " + i, status);
+            entityManager.persist(listing);
+
+            ListingPhoto photo = new ListingPhoto();
+            photo.setListing(listing);
+            photo.setPhotoUrl("https://example.com/" + i + ".jpg");
+            photo.setIsPrimary(true);
+            entityManager.persist(photo);
+
+            ListingFavorite favorite = new ListingFavorite();
+            favorite.setListing(listing);
+            favorite.setUserId(USER_ID);
+            entityManager.persist(favorite);
+            if (status == ListingStatus.ACTIVE) {
+                expectedIds.add(0, listing.getId());
+            }
+
+            // Someone else's favorite never shows up
+            ListingFavorite other = new ListingFavorite();
+            other.setListing(listing);
+            other.setUserId(USER_ID + 1);
+            entityManager.persist(other);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getUserFavoritesAfter_ScrollsFullSlicesOfActiveListingsInConstantQueries() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int slices = 0;
+        do {
+            statistics.clear();
+            CursorPageResponse<ListingResponse> slice = favoriteService.getUserFavoritesAfter(USER_ID, cursor, 10);
+
+            // Favorites joined to their listings, then photos and amenities for the whole slice
+            assertEquals(3, statistics.getPrepareStatementCount());
+            assertEquals(slice.isHasNext() ? 10 : 5, slice.getNumberOfElements());
+            for (ListingResponse listing : slice.getContent()) {
+                assertEquals(ListingStatus.ACTIVE, listing.getStatus());
+                assertNotNull(listing.getPrimaryPhotoUrl());
+                seen.add(listing.getId());
+            }
+            cursor = slice.getNextCursor();
+            slices++;
+        } while (cursor != null);
+
+        assertEquals(3, slices);
+        assertEquals(expectedIds, seen);
+    }
+
+    @Test
+    void getUserFavoritesAfter_RejectsForeignCursors() {
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getUserFavoritesAfter(USER_ID, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getUserFavoritesAfter(USER_ID, "", 0));
+    }
+
+    @Test
+    void getUserFavoritesPaginated_ReturnsFullPagesWithoutInactiveListings() {
+        Page<ListingResponse> first = favoriteService.getUserFavoritesPaginated(USER_ID, 0, 10, "createdAt", "desc");
+        Page<ListingResponse> last = favoriteService.getUserFavoritesPaginated(USER_ID, 2, 10, "createdAt", "desc");
+
+        assertEquals(25, first.getTotalElements());
+        assertEquals(expectedIds.subList(0, 10), first.getContent().stream().map(ListingResponse::getId).toList());
+        assertEquals(expectedIds.subList(20, 25), last.getContent().stream().map(ListingResponse::getId).toList());
+    }
+
+    @Test
+    void getUserFavorites_LoadsEveryActiveFavoriteInConstantQueries() {
+        statistics.clear();
+
+        List<ListingResponse> favorites = favoriteService.getUserFavorites(USER_ID);
+
+        assertEquals(expectedIds, favorites.stream().map(ListingResponse::getId).toList());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private static Listing createListing(String title, ListingStatus status) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle(title);
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(status);
+        return listing;
+    }
+}
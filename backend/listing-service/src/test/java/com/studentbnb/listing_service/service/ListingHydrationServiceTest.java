@@ -0,0 +1,147 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(ListingHydrationService.class)
+class ListingHydrationServiceTest {
+
+    @Autowired
+    private ListingHydrationService hydrationService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            Listing listing = createListing("Listing number " + i);
+            entityManager.persist(listing);
+
+            for (int order = 2; order >= 0; order--) {
+                ListingPhoto photo = new ListingPhoto();
+                photo.setListing(listing);
+                photo.setPhotoUrl("https://example.com/" + i + "/" + order + ".jpg");
+                photo.setDisplayOrder(order);
+                photo.setIsPrimary(order == 0);
+                entityManager.persist(photo);
+            }
+
+            addAmenity(listing, AmenityType.WIFI, true);
+            addAmenity(listing, AmenityType.GYM_FITNESS_CENTER, true);
+            addAmenity(listing, AmenityType.SWIMMING_POOL, false);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void hydratePage_UsesConstantNumberOfStatements() {
+        long smallPage = statementsToHydrate(5);
+        long largePage = statementsToHydrate(20);
+
+        assertEquals(2, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void hydratePage_AttachesOrderedPhotosAndAvailableAmenities() {
+        Page<Listing> listings = listingRepository.findActiveListings(
+            PageRequest.of(0, 10, Sort.by("title").ascending()));
+
+        Page<ListingResponse> responses = hydrationService.hydrate(listings);
+
+        assertEquals(10, responses.getContent().size());
+        assertEquals(25, responses.getTotalElements());
+        for (int i = 0; i < responses.getContent().size(); i++) {
+            ListingResponse response = responses.getContent().get(i);
+            assertEquals(listings.getContent().get(i).getId(), response.getId());
+
+            List<ListingPhoto> photos = response.getPhotos();
+            assertEquals(3, photos.size());
+            assertEquals(List.of(0, 1, 2), photos.stream().map(ListingPhoto::getDisplayOrder).toList());
+            assertTrue(response.getPrimaryPhotoUrl().endsWith("/0.jpg"));
+
+            assertEquals(2, response.getAmenities().size());
+            assertTrue(response.getAmenities().stream().allMatch(ListingAmenity::getIsAvailable));
+        }
+    }
+
+    @Test
+    void hydrateEmptyList_IssuesNoQueries() {
+        statistics.clear();
+
+        List<ListingResponse> responses = hydrationService.hydrate(List.<Listing>of());
+
+        assertTrue(responses.isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private long statementsToHydrate(int pageSize) {
+        Page<Listing> listings = listingRepository.findActiveListings(PageRequest.of(0, pageSize));
+        statistics.clear();
+
+        Page<ListingResponse> responses = hydrationService.hydrate(listings);
+
+        assertEquals(pageSize, responses.getContent().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addAmenity(Listing listing, AmenityType type, boolean available) {
+        ListingAmenity amenity = new ListingAmenity();
+        amenity.setListing(listing);
+        amenity.setAmenityType(type);
+        amenity.setIsAvailable(available);
+        entityManager.persist(amenity);
+    }
+
+    private Listing createListing(String title) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle(title);
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        return listing;
+    }
+}
@@ -0,0 +1,174 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.dto.BulkImportResponse;
+import com.studentbnb.listing_service.dto.CreateListingRequest;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.repository.ListingAmenityRepository;
+import com.studentbnb.listing_service.repository.ListingPhotoRepository;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import com.studentbnb.listing_service.search.AmenityMask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every import chunk commits in a transaction of its own
+@DataJpaTest(properties = "app.imports.chunk-size=50")
+@ActiveProfiles("test")
+@Import({ListingImportService.class, ListingExportService.class, SequenceIdAllocator.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ListingImportServiceTest {
+
+    @Autowired
+    private ListingImportService importService;
+
+    @Autowired
+    private ListingExportService exportService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingPhotoRepository photoRepository;
+
+    @Autowired
+    private ListingAmenityRepository amenityRepository;
+
+    @AfterEach
+    void tearDown() {
+        photoRepository.deleteAllInBatch();
+        amenityRepository.deleteAllInBatch();
+        listingRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importListings_InsertsValidRowsAndReportsTheRest() {
+        List<CreateListingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(createRequest("Imported room " + i));
+        }
+        requests.get(7).setTitle("Short");
+        requests.get(7).setBedrooms(null);
+        // Passes validation but not the 1000-character photo_url column, failing its chunk's batch
+        requests.get(60).setPhotoUrls(List.of("https://example.com/" + "x".repeat(1000)));
+
+        BulkImportResponse result = importService.importListings(42L, requests);
+
+        assertEquals(120, result.getReceived());
+        assertEquals(118, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(8, 8, 61), result.getErrors().stream().map(BulkImportResponse.RowError::getRow).toList());
+        assertEquals(List.of("bedrooms", "title"), List.of(result.getErrors().get(0).getField(), result.getErrors().get(1).getField()));
+        assertNull(result.getErrors().get(2).getField());
+
+        assertEquals(118, listingRepository.count());
+        assertEquals(118 * 2, photoRepository.count());
+        assertEquals(118 * 2, amenityRepository.count());
+        Listing listing = listingRepository.findById(result.getListingIds().get(0)).orElseThrow();
+        assertEquals("Imported room 0", listing.getTitle());
+        assertEquals(ListingStatus.DRAFT, listing.getStatus());
+        assertEquals(42L, listing.getLandlordId());
+        assertEquals(AmenityMask.of(List.of(AmenityType.WIFI, AmenityType.PARKING_INCLUDED)), listing.getAmenityMask());
+        assertNotNull(listing.getCreatedAt());
+    }
+
+    @Test
+    void importFile_ReadsCsvAndNdjson() throws Exception {
+        String csv = "title,description,rent,securityDeposit,bedrooms,bathrooms,propertyType,address,city,state,zipCode,leaseType,amenityTypes,photoUrls\r\n"
+            + "\"Loft, \"\"bright\"\"\",\"" + description() + "\",1200,600,2,1,APARTMENT,1 Main Street,Boston,MA,02115,ACADEMIC_YEAR,WIFI|PARKING_INCLUDED,https://example.com/a.jpg|https://example.com/b.jpg\r\n"
+            + "Second loft unit,\"" + description() + "\nSecond line.\",1300,600,2,1,CASTLE,2 Main Street,Boston,MA,02115,ACADEMIC_YEAR,,\r\n"
+            + "Third loft unit,too short,1300\r\n";
+
+        BulkImportResponse fromCsv = importService.importFile(1L, ListingExportService.Format.CSV,
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, fromCsv.getReceived());
+        assertEquals(1, fromCsv.getImported());
+        assertEquals("propertyType", fromCsv.getErrors().get(0).getField());
+        assertEquals(3, fromCsv.getErrors().get(1).getRow());
+        assertEquals("Loft, \"bright\"", listingRepository.findById(fromCsv.getListingIds().get(0)).orElseThrow().getTitle());
+        assertEquals(2, photoRepository.count());
+
+        String ndjson = "{\"title\":\"Studio near campus\",\"description\":\"" + description() + "\",\"rent\":900,"
+            + "\"securityDeposit\":0,\"bedrooms\":0,\"bathrooms\":1,\"propertyType\":\"STUDIO\",\"address\":\"3 Main Street\","
+            + "\"city\":\"Boston\",\"state\":\"MA\",\"zipCode\":\"02115\",\"leaseType\":\"MONTHLY\"}\n"
+            + "\n"
+            + "{not json\n";
+
+        BulkImportResponse fromNdjson = importService.importFile(1L, ListingExportService.Format.NDJSON,
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, fromNdjson.getReceived());
+        assertEquals(1, fromNdjson.getImported());
+        assertEquals(2, fromNdjson.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void importFile_RoundTripsActiveListingExports() throws Exception {
+        List<CreateListingRequest> requests = List.of(createRequest("Exported room one"), createRequest("Exported room two"));
+        BulkImportResponse imported = importService.importListings(5L, requests);
+        List<Listing> listings = listingRepository.findAllById(imported.getListingIds());
+        listings.forEach(listing -> listing.setStatus(ListingStatus.ACTIVE));
+        listingRepository.saveAll(listings);
+
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        exportService.export(ListingExportService.Format.CSV, null, null, 5L, null, export);
+        BulkImportResponse reimported = importService.importFile(6L, ListingExportService.Format.CSV,
+            new ByteArrayInputStream(export.toByteArray()));
+
+        assertEquals(2, reimported.getImported(), () -> reimported.getErrors().toString());
+        assertEquals("Exported room two", listingRepository.findById(reimported.getListingIds().get(1)).orElseThrow().getTitle());
+    }
+
+    @Test
+    void readRecord_HandlesQuotesAndLineBreaks() throws Exception {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"b,\"\"c\"\"\",\r\n\"d\ne\",f"));
+
+        assertEquals(List.of("a", "b,\"c\"", ""), ListingImportService.readRecord(reader));
+        assertEquals(List.of("d\ne", "f"), ListingImportService.readRecord(reader));
+        assertNull(ListingImportService.readRecord(reader));
+    }
+
+    private static String description() {
+        return "A bright and quiet room close to campus with plenty of natural light.";
+    }
+
+    private static CreateListingRequest createRequest(String title) {
+        CreateListingRequest request = new CreateListingRequest();
+        request.setTitle(title);
+        request.setDescription(description());
+        request.setRent(new BigDecimal("950.00"));
+        request.setSecurityDeposit(new BigDecimal("500.00"));
+        request.setBedrooms(1);
+        request.setBathrooms(1);
+        request.setPropertyType(PropertyType.APARTMENT);
+        request.setAddress("1 Main Street");
+        request.setCity("Boston");
+        request.setState("MA");
+        request.setZipCode("02115");
+        request.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        request.setPhotoUrls(List.of("https://example.com/1.jpg", "https://example.com/2.jpg"));
+        request.setAmenityTypes(List.of(AmenityType.WIFI, AmenityType.PARKING_INCLUDED));
+        return request;
+    }
+}
@@ -0,0 +1,148 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.repository.ListingPhotoRepository;
+import com.studentbnb.listing_service.repository.PhotoCleanupTaskRepository;
+import com.studentbnb.listing_service.storage.StoredPhoto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({ListingPhotoService.class, PhotoAssetService.class})
+class ListingPhotoServiceTest {
+
+    @Autowired
+    private ListingPhotoService photoService;
+
+    @Autowired
+    private ListingPhotoRepository photoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PhotoAssetService photoAssetService;
+
+    @Autowired
+    private PhotoCleanupTaskRepository cleanupTaskRepository;
+
+    private Listing listing;
+
+    @BeforeEach
+    void setUp() {
+        listing = createListing();
+        entityManager.persist(listing);
+        for (int order = 0; order < 2; order++) {
+            ListingPhoto photo = new ListingPhoto();
+            photo.setListing(listing);
+            photo.setPhotoUrl("https://example.com/existing-" + order + ".jpg");
+            photo.setDisplayOrder(order);
+            photo.setIsPrimary(order == 0);
+            entityManager.persist(photo);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void addPhotos_AppendsInOrderAndMakesTheFirstPrimary() {
+        List<StoredPhoto> stored = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String url = "https://example.com/uploads/listings/" + i;
+            stored.add(new StoredPhoto(url + "_full.jpg", url + "_card.jpg", url + "_thumb.jpg", null, null, null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        photoService.addPhotos(listing.getId(), 1L, stored);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Ten inserts and the old primary's update go out as batches, not one statement per photo
+        assertTrue(statistics.getPrepareStatementCount() <= 6, "statements: " + statistics.getPrepareStatementCount());
+        List<ListingPhoto> photos = photoRepository.findByListingIdOrderByDisplayOrderAsc(listing.getId());
+        assertEquals(12, photos.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(stored.get(i).getPhotoUrl(), photos.get(i + 2).getPhotoUrl());
+            assertEquals(stored.get(i).getCardUrl(), photos.get(i + 2).getCardUrl());
+            assertEquals(stored.get(i).getThumbnailUrl(), photos.get(i + 2).getThumbnailUrl());
+            assertEquals(i + 2, photos.get(i + 2).getDisplayOrder());
+        }
+        assertEquals(List.of(stored.get(0).getPhotoUrl()),
+            photos.stream().filter(ListingPhoto::getIsPrimary).map(ListingPhoto::getPhotoUrl).toList());
+    }
+
+    @Test
+    void addPhotos_RejectsOtherLandlordsAndBadUrls() {
+        assertThrows(IllegalArgumentException.class,
+            () -> photoService.addPhotos(listing.getId(), 2L, List.of(StoredPhoto.of("https://example.com/new.jpg"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> photoService.addPhotos(listing.getId(), 1L, List.of(StoredPhoto.of("https://example.com/new.jpg"), StoredPhoto.of("ftp://example.com/new.jpg"))));
+
+        assertEquals(2, photoRepository.countPhotosByListingId(listing.getId()));
+    }
+
+    @Test
+    void deletePhoto_QueuesTheImageForCleanupWhenItsLastPhotoIsGone() {
+        String hash = "ab".repeat(32);
+        String url = "https://example.com/uploads/listings/" + hash + "-0000000000000001_full.jpg";
+        // Uploaded once, then found again by its hash for the second photo
+        StoredPhoto first = photoAssetService.register(new StoredPhoto(url, null, null, null, null, hash), hash + "-0000000000000001");
+        StoredPhoto second = photoAssetService.acquire(hash).orElseThrow();
+        List<ListingPhoto> photos = photoService.addPhotos(listing.getId(), 1L, List.of(first, second));
+        entityManager.flush();
+        entityManager.clear();
+
+        photoService.deletePhoto(photos.get(0).getId(), 1L);
+        assertEquals(Set.of(url), photoAssetService.registeredUrls(List.of(hash)));
+        assertEquals(0, cleanupTaskRepository.count());
+
+        photoService.deletePhoto(photos.get(1).getId(), 1L);
+        assertEquals(Set.of(), photoAssetService.registeredUrls(List.of(hash)));
+        List<PhotoCleanupTask> tasks = cleanupTaskRepository.findAll();
+        assertEquals(List.of(url), tasks.stream().map(PhotoCleanupTask::getPhotoUrl).toList());
+        assertEquals(0, tasks.get(0).getAttempts());
+
+        // Photos added by URL hold no reference
+        photoService.deleteAllPhotos(listing.getId(), 1L);
+        assertEquals(1, cleanupTaskRepository.count());
+    }
+
+    private static Listing createListing() {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room with photos");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        return listing;
+    }
+}
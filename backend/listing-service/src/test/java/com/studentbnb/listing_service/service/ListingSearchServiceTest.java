@@ -0,0 +1,105 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.cache.ListingResponseCache;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ListingSearchService.class, AutocompleteService.class, ListingService.class, ListingHydrationService.class, PhotoAssetService.class,
+    ListingResponseCache.class, ListingViewTracker.class, ListingCounterService.class, SequenceIdAllocator.class})
+class ListingSearchServiceTest {
+
+    @Autowired
+    private ListingSearchService searchService;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long withdrawn;
+    private Long kept;
+
+    @BeforeEach
+    void setUp() {
+        withdrawn = persistListing("Boston");
+        kept = persistListing("Boston");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void warmUp_KeepsChangesCommittedWhileItRuns() {
+        // A listing is taken down right after the batch holding it was read
+        boolean[] changed = {false};
+        ListingRepository interrupted = (ListingRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{ListingRepository.class}, (proxy, method, args) -> {
+                Object result = method.invoke(listingRepository, args);
+                if (method.getName().equals("findByStatusAndIdGreaterThanOrderByIdAsc") && !changed[0]) {
+                    changed[0] = true;
+                    jdbcTemplate.update("UPDATE listings SET status = 'INACTIVE' WHERE id = ?", withdrawn);
+                    // Read afresh from here on, as warm-up outside a test transaction would
+                    entityManager.clear();
+                    searchService.onListingChanged(new ListingChangedEvent(withdrawn, ListingChangedEvent.ChangeType.UPDATED));
+                }
+                return result;
+            });
+
+        ReflectionTestUtils.setField(searchService, "listingRepository", interrupted);
+        try {
+            searchService.warmUp();
+        } finally {
+            ReflectionTestUtils.setField(searchService, "listingRepository", listingRepository);
+        }
+
+        assertTrue(changed[0]);
+        assertTrue(searchService.isReady());
+        List<Long> found = searchService.search(new ListingSearchRequest(), 0, 10).getContent().stream()
+            .map(ListingResponse::getId).toList();
+        assertEquals(List.of(kept), found);
+    }
+
+    private Long persistListing(String city) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room near campus with desk");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity(city);
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        entityManager.persist(listing);
+        return listing.getId();
+    }
+}
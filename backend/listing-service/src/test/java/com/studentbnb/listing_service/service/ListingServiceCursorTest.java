@@ -0,0 +1,198 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.cache.ListingResponseCache;
+import com.studentbnb.listing_service.dto.CursorPageResponse;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.dto.ListingSearchRequest;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import com.studentbnb.listing_service.search.AmenityMask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({ListingService.class, ListingHydrationService.class, PhotoAssetService.class, ListingResponseCache.class, ListingViewTracker.class,
+    ListingCounterService.class, SequenceIdAllocator.class})
+class ListingServiceCursorTest {
+
+    private static final int LISTINGS = 23;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Listing> listings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < LISTINGS; i++) {
+            // Few distinct view counts, so the id tiebreaker matters
+            Listing listing = createListing(i % 2 == 0 ? "Boston" : "Cambridge", i % 4);
+            entityManager.persist(listing);
+            listings.add(listing);
+        }
+        Listing draft = createListing("Boston", 100);
+        draft.setStatus(ListingStatus.DRAFT);
+        entityManager.persist(draft);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void recentListings_ScrollVisitsEveryListingOnceInOrder() {
+        List<Long> expected = listings.stream()
+            .sorted(Comparator.comparing(Listing::getCreatedAt).thenComparing(Listing::getId).reversed())
+            .map(Listing::getId)
+            .toList();
+
+        assertEquals(expected, scroll((cursor, size) -> listingService.getRecentListingsAfter(cursor, size), 5));
+    }
+
+    @Test
+    void popularListings_ScrollVisitsEveryListingOnceInOrder() {
+        List<Long> expected = listings.stream()
+            .sorted(Comparator.comparing(Listing::getViewCount).thenComparing(Listing::getId).reversed())
+            .map(Listing::getId)
+            .toList();
+
+        assertEquals(expected, scroll((cursor, size) -> listingService.getPopularListingsAfter(cursor, size), 4));
+    }
+
+    @Test
+    void activeListings_AscendingRentScroll() {
+        List<Long> expected = listings.stream()
+            .sorted(Comparator.comparing(Listing::getRent).thenComparing(Listing::getId))
+            .map(Listing::getId)
+            .toList();
+
+        assertEquals(expected, scroll((cursor, size) -> listingService.getActiveListingsAfter(cursor, size, "rent", "asc"), 6));
+    }
+
+    @Test
+    void deepSlice_CostsTheSameStatementsAsFirstSlice() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        CursorPageResponse<ListingResponse> first = listingService.getRecentListingsAfter("", 5);
+        long firstStatements = statistics.getPrepareStatementCount();
+
+        String cursor = first.getNextCursor();
+        for (int i = 0; i < 3; i++) {
+            cursor = listingService.getRecentListingsAfter(cursor, 5).getNextCursor();
+        }
+        statistics.clear();
+        CursorPageResponse<ListingResponse> deep = listingService.getRecentListingsAfter(cursor, 5);
+
+        assertEquals(3, deep.getNumberOfElements());
+        assertFalse(deep.isHasNext());
+        // One window query plus photo and amenity hydration, never a COUNT
+        assertEquals(3, firstStatements);
+        assertEquals(firstStatements, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchFallback_ScrollsFilteredResultsNewestFirst() {
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setCity("boston");
+
+        List<Long> expected = listings.stream()
+            .filter(listing -> listing.getCity().equals("Boston"))
+            .sorted(Comparator.comparing(Listing::getCreatedAt).thenComparing(Listing::getId).reversed())
+            .map(Listing::getId)
+            .toList();
+
+        assertEquals(expected, scroll((cursor, size) -> listingService.searchListingsAfter(request, cursor, size), 5));
+    }
+
+    @Test
+    void searchFallback_RequiredAmenitiesMatchAllBitsOfTheMask() {
+        long wifi = AmenityMask.bit(AmenityType.WIFI);
+        long parking = AmenityMask.bit(AmenityType.PARKING_INCLUDED);
+        for (int i = 0; i < listings.size(); i++) {
+            long mask = i % 3 == 0 ? wifi | parking : i % 3 == 1 ? wifi : AmenityMask.NONE;
+            entityManager.find(Listing.class, listings.get(i).getId()).setAmenityMask(mask);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ListingSearchRequest request = new ListingSearchRequest();
+        request.setRequiredAmenities(List.of(AmenityType.WIFI, AmenityType.PARKING_INCLUDED));
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < listings.size(); i += 3) {
+            expected.add(listings.get(i).getId());
+        }
+
+        List<Long> found = listingService.searchListings(request, 0, 50).getContent().stream()
+            .map(ListingResponse::getId).sorted().toList();
+        assertEquals(expected, found);
+
+        request.setRequiredAmenities(List.of(AmenityType.WIFI));
+        assertEquals(16, scroll((cursor, size) -> listingService.searchListingsAfter(request, cursor, size), 5).size());
+    }
+
+    @Test
+    void cursor_RejectsTamperedAndMismatchedTokens() {
+        String cursor = listingService.getRecentListingsAfter("", 5).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> listingService.getRecentListingsAfter("not-a-cursor", 5));
+        assertThrows(IllegalArgumentException.class, () -> listingService.getPopularListingsAfter(cursor, 5));
+        assertThrows(IllegalArgumentException.class, () -> listingService.getActiveListingsAfter("", 5, "title", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> listingService.getRecentListingsAfter("", 0));
+    }
+
+    private List<Long> scroll(BiFunction<String, Integer, CursorPageResponse<ListingResponse>> fetch, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            CursorPageResponse<ListingResponse> slice = fetch.apply(cursor, size);
+            assertTrue(slice.getNumberOfElements() <= size);
+            assertEquals(slice.isHasNext(), slice.getNextCursor() != null);
+            slice.getContent().forEach(listing -> ids.add(listing.getId()));
+            cursor = slice.getNextCursor();
+        }
+        return ids;
+    }
+
+    private Listing createListing(String city, int viewCount) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room in " + city + " near campus");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal(800 + (listings.size() % 5) * 100));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity(city);
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setViewCount(viewCount);
+        return listing;
+    }
+}
@@ -0,0 +1,169 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import com.studentbnb.listing_service.tracking.ViewEvent;
+import com.studentbnb.listing_service.tracking.ViewEventQueue;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"app.views.batch-size=4", "app.views.queue-capacity=8"})
+@ActiveProfiles("test")
+@Import({ListingViewTracker.class, ListingCounterService.class, SequenceIdAllocator.class})
+class ListingViewTrackerTest {
+
+    @Autowired
+    private ListingViewTracker viewTracker;
+
+    @Autowired
+    private ListingCounterService counterService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void setUp() {
+        first = persistListing(3);
+        second = persistListing(0);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void record_DoesNotWriteUntilFlush() {
+        viewTracker.record(first, 7L, "10.0.0.1", "JUnit");
+
+        assertEquals(1, viewTracker.pendingCount());
+        assertEquals(0, countViews(first));
+        assertEquals(3, viewCount(first));
+    }
+
+    @Test
+    void flush_BatchInsertsViewsAndFeedsCounters() {
+        for (int i = 0; i < 7; i++) {
+            viewTracker.record(first, null, "10.0.0." + i, "JUnit");
+        }
+        viewTracker.record(second, 42L, "10.0.1.1", "x".repeat(1000));
+
+        viewTracker.flush();
+        assertEquals(3, viewCount(first));
+        counterService.flush();
+
+        assertEquals(0, viewTracker.pendingCount());
+        assertEquals(7, countViews(first));
+        assertEquals(1, countViews(second));
+        assertEquals(10, viewCount(first));
+        assertEquals(1, viewCount(second));
+        assertEquals(255, jdbcTemplate.queryForObject(
+            "SELECT LENGTH(user_agent) FROM listing_views WHERE listing_id = ?", Integer.class, second));
+    }
+
+    @Test
+    void record_DroppedViewsAreNotRememberedAsSeen() {
+        for (int i = 0; i < 8; i++) {
+            assertTrue(viewTracker.record(first, null, "10.0.0." + i, "JUnit"));
+        }
+        assertFalse(viewTracker.record(second, 7L, "10.0.1.1", "JUnit"));
+        assertEquals(1, viewTracker.droppedCount());
+
+        // Once there is room again, the viewer whose view was dropped counts
+        viewTracker.flush();
+        assertTrue(viewTracker.record(second, 7L, "10.0.1.1", "JUnit"));
+        assertFalse(viewTracker.record(second, 7L, "10.0.1.1", "JUnit"));
+    }
+
+    @Test
+    void record_CutsForwardedAddressesToTheLongestIpAddress() {
+        viewTracker.record(first, null, "1".repeat(1000), "JUnit");
+
+        viewTracker.flush();
+
+        assertEquals(45, jdbcTemplate.queryForObject(
+            "SELECT LENGTH(ip_address) FROM listing_views WHERE listing_id = ?", Integer.class, first));
+    }
+
+    @Test
+    void flush_WritesTheRestOfABatchTheDatabaseRefusesOneRowOf() {
+        // The failed batch must roll back on its own, as it does outside a test transaction
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            viewTracker.record(first, null, "10.0.0.1", "JUnit");
+            // Only reachable by going around record()
+            ViewEventQueue queue = (ViewEventQueue) ReflectionTestUtils.getField(viewTracker, "queue");
+            queue.offer(new ViewEvent(first, null, "1".repeat(1000), "JUnit", LocalDateTime.now()));
+            viewTracker.record(second, null, "10.0.0.2", "JUnit");
+
+            viewTracker.flush();
+            counterService.flush();
+
+            assertEquals(1, countViews(first));
+            assertEquals(1, countViews(second));
+            assertEquals(4, viewCount(first));
+            assertEquals(1, viewCount(second));
+        } finally {
+            jdbcTemplate.update("DELETE FROM listing_views WHERE listing_id IN (?, ?)", first, second);
+            jdbcTemplate.update("DELETE FROM listings WHERE id IN (?, ?)", first, second);
+        }
+    }
+
+    @Test
+    void flush_SkipsViewsOfDeletedListings() {
+        viewTracker.record(first, null, "10.0.0.1", "JUnit");
+        viewTracker.record(-1L, null, "10.0.0.1", "JUnit");
+
+        viewTracker.flush();
+        counterService.flush();
+
+        assertEquals(1, countViews(first));
+        assertEquals(4, viewCount(first));
+    }
+
+    private int countViews(Long listingId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM listing_views WHERE listing_id = ?", Integer.class, listingId);
+    }
+
+    private int viewCount(Long listingId) {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM listings WHERE id = ?", Integer.class, listingId);
+    }
+
+    private Long persistListing(int viewCount) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room near campus with desk");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity("Boston");
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setViewCount(viewCount);
+        entityManager.persist(listing);
+        return listing.getId();
+    }
+}
@@ -0,0 +1,175 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.search.TrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fuzzy location matching through a TrigramIndex against the LIKE
+ * predicates of ListingRepository.searchListings and findByUniversity, over
+ * a million listings in the H2 test database. LIKE is timed with correctly
+ * spelled terms and its recall measured with misspelled ones; the index is
+ * timed resolving the misspelled terms. Excluded from the default build;
+ * run with:
+ * mvn test -Pbenchmark -Dtest=LocationMatchingBenchmarkTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class LocationMatchingBenchmarkTest {
+
+    private static final int LISTINGS = 1_000_000;
+    private static final int CITIES = 2_000;
+    private static final int UNIVERSITIES = 500;
+    private static final int QUERIES = 200;
+    private static final int LIKE_QUERIES = 10;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO listings (id, landlord_id, title, description, rent, currency, security_deposit, bedrooms, bathrooms, " +
+        "property_type, address, city, state, zip_code, nearest_university, lease_type, status) VALUES (NEXT VALUE FOR listings_seq, 1, 'Room', " +
+        "'Room', 900, 'USD', 500, 1, 1, 'APARTMENT', '1 Main Street', ?, 'MA', '02115', ?, 'ACADEMIC_YEAR', 'ACTIVE')";
+
+    private static final String CITY_LIKE_SQL =
+        "SELECT COUNT(*) FROM listings WHERE LOWER(city) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    private static final String UNIVERSITY_LIKE_SQL =
+        "SELECT COUNT(*) FROM listings WHERE LOWER(nearest_university) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void trigramIndexVersusLikeQueries() {
+        Random random = new Random(42);
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < CITIES; i++) {
+            cities.add(capitalize(word(random, 5 + random.nextInt(5))));
+        }
+        List<String> universities = new ArrayList<>();
+        for (int i = 0; i < UNIVERSITIES; i++) {
+            universities.add("University of " + capitalize(word(random, 6 + random.nextInt(5))));
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < LISTINGS; i++) {
+            batch.add(new Object[]{cities.get(random.nextInt(CITIES)), universities.get(random.nextInt(UNIVERSITIES))});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+
+        // Build the indexes the way warm-up fills them, one count per listing
+        long buildStarted = System.nanoTime();
+        TrigramIndex cityIndex = new TrigramIndex();
+        TrigramIndex universityIndex = new TrigramIndex();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT city, COUNT(*) AS n FROM listings GROUP BY city")) {
+            for (long n = (Long) row.get("n"); n > 0; n--) {
+                cityIndex.add((String) row.get("city"));
+            }
+        }
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT nearest_university, COUNT(*) AS n FROM listings GROUP BY nearest_university")) {
+            for (long n = (Long) row.get("n"); n > 0; n--) {
+                universityIndex.add((String) row.get("nearest_university"));
+            }
+        }
+        double buildMillis = (System.nanoTime() - buildStarted) / 1e6;
+
+        List<String> intended = new ArrayList<>();
+        List<String> typed = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            String value = i % 2 == 0 ? cities.get(random.nextInt(CITIES)) : universities.get(random.nextInt(UNIVERSITIES));
+            intended.add(value);
+            typed.add(i % 4 == 1 ? abbreviate(value) : misspell(random, value));
+        }
+
+        // LIKE with the term spelled right: every query scans the table
+        long likeStarted = System.nanoTime();
+        for (int i = 0; i < LIKE_QUERIES; i++) {
+            String sql = i % 2 == 0 ? CITY_LIKE_SQL : UNIVERSITY_LIKE_SQL;
+            assertTrue(jdbcTemplate.queryForObject(sql, Long.class, intended.get(i)) > 0);
+        }
+        double likeMillis = (System.nanoTime() - likeStarted) / 1e6 / LIKE_QUERIES;
+
+        int likeFound = 0;
+        for (int i = 0; i < LIKE_QUERIES; i++) {
+            String sql = i % 2 == 0 ? CITY_LIKE_SQL : UNIVERSITY_LIKE_SQL;
+            if (jdbcTemplate.queryForObject(sql, Long.class, typed.get(i)) > 0) {
+                likeFound++;
+            }
+        }
+
+        for (int i = 0; i < QUERIES; i++) {
+            resolve(i, typed, cityIndex, universityIndex);
+        }
+        int resolved = 0;
+        long fuzzyStarted = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            if (intended.get(i).equals(resolve(i, typed, cityIndex, universityIndex))) {
+                resolved++;
+            }
+        }
+        double fuzzyMillis = (System.nanoTime() - fuzzyStarted) / 1e6 / QUERIES;
+
+        System.out.printf("Location matching over %,d listings (%,d cities, %,d universities, index built in %.0f ms)%n",
+            LISTINGS, CITIES, UNIVERSITIES, buildMillis);
+        System.out.printf("  LIKE scan:     %.2f ms per query, %d of %d misspelled terms found%n",
+            likeMillis, likeFound, LIKE_QUERIES);
+        System.out.printf("  trigram index: %.3f ms per query, %d of %d misspelled terms resolved%n",
+            fuzzyMillis, resolved, QUERIES);
+
+        assertTrue(resolved >= QUERIES * 9 / 10, "resolved " + resolved + " of " + QUERIES);
+        assertTrue(fuzzyMillis * 100 < likeMillis, "index " + fuzzyMillis + " ms, LIKE " + likeMillis + " ms");
+    }
+
+    private static String resolve(int i, List<String> typed, TrigramIndex cities, TrigramIndex universities) {
+        return (i % 2 == 0 ? cities : universities).bestMatch(typed.get(i));
+    }
+
+    // One substitution, deletion or adjacent swap inside the last word
+    private static String misspell(Random random, String value) {
+        int start = value.lastIndexOf(' ') + 1;
+        int pos = start + 1 + random.nextInt(value.length() - start - 2);
+        char[] chars = value.toCharArray();
+        switch (random.nextInt(3)) {
+            case 0 -> chars[pos] = chars[pos] == 'x' ? 'y' : 'x';
+            case 1 -> {
+                return value.substring(0, pos) + value.substring(pos + 1);
+            }
+            default -> {
+                char swapped = chars[pos];
+                chars[pos] = chars[pos + 1];
+                chars[pos + 1] = swapped;
+            }
+        }
+        return new String(chars);
+    }
+
+    private static String abbreviate(String value) {
+        return value.startsWith("University of ") ? "univ of " + value.substring(14).toLowerCase() : value.toLowerCase();
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,197 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.entity.PhotoCleanupTask;
+import com.studentbnb.listing_service.repository.PhotoAssetRepository;
+import com.studentbnb.listing_service.repository.PhotoCleanupTaskRepository;
+import com.studentbnb.listing_service.storage.PhotoStorage;
+import com.studentbnb.listing_service.storage.StoredPhoto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "app.storage.cleanup.batch-size=2")
+@ActiveProfiles("test")
+@Import({PhotoCleanupService.class, PhotoAssetService.class, PhotoCleanupServiceTest.RecordingStorage.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PhotoCleanupServiceTest {
+
+    @Autowired
+    private PhotoCleanupService cleanupService;
+
+    @Autowired
+    private PhotoAssetService photoAssetService;
+
+    @Autowired
+    private PhotoCleanupTaskRepository taskRepository;
+
+    @Autowired
+    private PhotoAssetRepository assetRepository;
+
+    @Autowired
+    private RecordingStorage storage;
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAllInBatch();
+        assetRepository.deleteAllInBatch();
+        storage.deleted.clear();
+        storage.failing.clear();
+        storage.bulkCalls = 0;
+    }
+
+    @Test
+    void processQueue_DeletesReleasedImagesInBulkBatches() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            urls.add(release(i));
+        }
+
+        assertEquals(5, cleanupService.processQueue());
+
+        assertEquals(Set.copyOf(urls), storage.deleted);
+        assertEquals(3, storage.bulkCalls);
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    void processQueue_RetriesOnlyFailingImagesWithExponentialBackoff() {
+        String kept = release(1);
+        String failing = release(2);
+        storage.failing.add(failing);
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(1, cleanupService.processQueue());
+        assertEquals(Set.of(kept), storage.deleted);
+        PhotoCleanupTask task = taskRepository.findAll().get(0);
+        assertEquals(failing, task.getPhotoUrl());
+        assertEquals(1, task.getAttempts());
+        assertEquals("Storage unavailable", task.getLastError());
+        assertFalse(task.getNextAttemptAt().isBefore(before.plus(Duration.ofMinutes(1))));
+
+        // Not due yet
+        assertEquals(0, cleanupService.processQueue());
+
+        makeDue(task);
+        before = LocalDateTime.now();
+        assertEquals(0, cleanupService.processQueue());
+        task = taskRepository.findAll().get(0);
+        assertEquals(2, task.getAttempts());
+        assertFalse(task.getNextAttemptAt().isBefore(before.plus(Duration.ofMinutes(2))));
+        assertTrue(task.getNextAttemptAt().isBefore(before.plus(Duration.ofMinutes(3))));
+
+        storage.failing.clear();
+        makeDue(task);
+        assertEquals(1, cleanupService.processQueue());
+        assertEquals(Set.of(kept, failing), storage.deleted);
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    void processQueue_DeletesTheOldCopyOfAnImageUploadedAgainButNotTheNewOne() {
+        String old = release(1);
+        StoredPhoto again = photoAssetService.register(stored(1, 2), storageName(1, 2));
+
+        assertEquals(1, cleanupService.processQueue());
+
+        assertEquals(Set.of(old), storage.deleted);
+        assertEquals(0, taskRepository.count());
+        assertEquals(again.getPhotoUrl(), photoAssetService.acquire(hash(1)).orElseThrow().getPhotoUrl());
+    }
+
+    @Test
+    void processQueue_KeepsCopiesStoredUnderTheBareHashThatAreInUseAgain() {
+        // Stored before copies had names of their own, then uploaded again before the deletion ran
+        StoredPhoto legacy = new StoredPhoto("https://example.com/uploads/listings/" + hash(1) + "_full.jpg", null, null, null, null, hash(1));
+        photoAssetService.register(legacy, null);
+        photoAssetService.release(hash(1));
+        photoAssetService.register(legacy, null);
+
+        assertEquals(0, cleanupService.processQueue());
+
+        assertTrue(storage.deleted.isEmpty());
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    void processQueue_DeletesTheCopyThatLostAConcurrentRegistration() {
+        StoredPhoto winner = photoAssetService.register(stored(1, 1), storageName(1, 1));
+        StoredPhoto loser = stored(1, 2);
+
+        assertEquals(winner, photoAssetService.register(loser, storageName(1, 2)));
+        assertEquals(1, cleanupService.processQueue());
+
+        assertEquals(Set.of(loser.getPhotoUrl()), storage.deleted);
+        assertEquals(winner.getPhotoUrl(), photoAssetService.acquire(hash(1)).orElseThrow().getPhotoUrl());
+    }
+
+    // Register image i and release its only reference, queueing it for cleanup
+    private String release(int i) {
+        StoredPhoto stored = photoAssetService.register(stored(i, 1), storageName(i, 1));
+        photoAssetService.release(stored.getContentHash());
+        return stored.getPhotoUrl();
+    }
+
+    private void makeDue(PhotoCleanupTask task) {
+        task.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        taskRepository.save(task);
+    }
+
+    // Copy c of image i
+    private static StoredPhoto stored(int i, int c) {
+        return new StoredPhoto("https://example.com/uploads/listings/" + storageName(i, c) + "_full.jpg", null, null, null, null, hash(i));
+    }
+
+    private static String storageName(int i, int c) {
+        return hash(i) + "-" + String.format("%016x", c);
+    }
+
+    private static String hash(int i) {
+        return String.format("%064x", i);
+    }
+
+    // Bulk deletions fail as a whole when any of their images fails on its own
+    static class RecordingStorage implements PhotoStorage {
+
+        final Set<String> deleted = new HashSet<>();
+        final Set<String> failing = new HashSet<>();
+        int bulkCalls;
+
+        @Override
+        public StoredPhoto store(File image, String format, String contentHash) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(String photoUrl) throws IOException {
+            if (failing.contains(photoUrl)) {
+                throw new IOException("Storage unavailable");
+            }
+            deleted.add(photoUrl);
+        }
+
+        @Override
+        public void deleteAll(List<String> photoUrls) throws IOException {
+            bulkCalls++;
+            if (photoUrls.stream().anyMatch(failing::contains)) {
+                throw new IOException("Storage unavailable");
+            }
+            deleted.addAll(photoUrls);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.studentbnb.listing_service.service;
+
+import com.cloudinary.Api;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.cloudinary.api.ApiResponse;
+import com.cloudinary.http44.ApiStrategy;
+import com.cloudinary.http44.UploaderStrategy;
+import com.cloudinary.utils.ObjectUtils;
+import com.studentbnb.listing_service.storage.CloudinaryPhotoStorage;
+import com.studentbnb.listing_service.storage.StoredPhoto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoUploadServiceTest {
+
+    private static final long UPLOAD_MILLIS = 50;
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    private StubCloudinary cloudinary;
+    private InMemoryPhotoAssets assets;
+    private PhotoUploadService uploadService;
+
+    @BeforeEach
+    void setUp() {
+        cloudinary = new StubCloudinary();
+        uploadService = new PhotoUploadService(new CloudinaryPhotoStorage(cloudinary), assets = new InMemoryPhotoAssets());
+        ReflectionTestUtils.setField(uploadService, "maxConcurrentUploads", 3);
+        ReflectionTestUtils.setField(uploadService, "uploadThreads", 8);
+        uploadService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadService.shutdown();
+    }
+
+    @Test
+    void uploadImages_RunsUpToTheCapConcurrentlyAndKeepsFileOrder() throws Exception {
+        MultipartFile[] files = photos(10, -1);
+        long started = System.nanoTime();
+        StoredPhoto[] stored = uploadService.uploadImages(files);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        for (int i = 0; i < 10; i++) {
+            String hash = PhotoUploadService.contentHash(files[i]);
+            assertEquals(hash, stored[i].getContentHash());
+            assertTrue(stored[i].getPhotoUrl().startsWith(secureUrl("studentbnb/listings/" + hash).replace(".jpg", "-")),
+                stored[i].getPhotoUrl());
+        }
+        assertEquals(3, cloudinary.maxInFlight.get());
+        assertTrue(elapsedMillis < 10 * UPLOAD_MILLIS, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void uploadImages_DeletesFinishedUploadsWhenOneFails() {
+        IOException failure = assertThrows(IOException.class, () -> uploadService.uploadImages(photos(10, 4)));
+
+        assertEquals("Upload rejected", failure.getMessage());
+        assertFalse(cloudinary.uploaded.isEmpty());
+        // Released for the cleanup queue; nothing is deleted from storage while the request waits
+        assertEquals(cloudinary.uploaded.stream().map(PhotoUploadServiceTest::secureUrl).collect(Collectors.toSet()), assets.released);
+        assertTrue(cloudinary.destroyed.isEmpty());
+    }
+
+    @Test
+    void uploadImages_RejectsInvalidFilesBeforeUploadingAny() {
+        MultipartFile[] files = photos(5, -1);
+        files[3] = new MockMultipartFile("files", "notes.txt", "text/plain", "notes".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> uploadService.uploadImages(files));
+        assertEquals(0, cloudinary.uploadCalls.get());
+    }
+
+    @Test
+    void uploadImage_StreamsFromDiskWithBoundedHeapAllocation(@TempDir Path tempDir) throws Exception {
+        ReflectionTestUtils.setField(cloudinary, "sleep", false);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up class loading and logging before measuring
+        uploadService.uploadImage(diskPhoto(tempDir, "warmup", 1024 * 1024));
+
+        int size = 10 * 1024 * 1024;
+        MultipartFile photo = diskPhoto(tempDir, "large", size);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        StoredPhoto stored = uploadService.uploadImage(photo);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(stored.getPhotoUrl().matches(".*/v1/studentbnb/listings/[0-9a-f]{64}-[0-9a-f]{16}\\.jpg"), stored.getPhotoUrl());
+        assertEquals(size, cloudinary.lastUploadBytes);
+        assertTrue(allocated < 512 * 1024, "allocated " + allocated + " bytes for a " + size + " byte upload");
+    }
+
+    @Test
+    void uploadImage_DerivesVariantUrlsFromTheUploadedImage() throws Exception {
+        StoredPhoto stored = uploadService.uploadImage(photos(1, -1)[0]);
+
+        assertTrue(stored.getThumbnailUrl().matches("https://res\\.cloudinary\\.com/demo/image/upload/c_fill,h_240,q_auto,w_320/v1/studentbnb/listings/[0-9a-f-]+\\.jpg"),
+            stored.getThumbnailUrl());
+        assertTrue(stored.getCardUrl().contains("/c_fill,h_480,q_auto,w_640/"), stored.getCardUrl());
+        assertTrue(stored.getCardWebpUrl().endsWith(".webp"), stored.getCardWebpUrl());
+        assertTrue(stored.getThumbnailWebpUrl().endsWith(".webp"), stored.getThumbnailWebpUrl());
+    }
+
+    @Test
+    void uploadImage_ReusesTheStoredCopyOfAnIdenticalImageUntilItsLastRelease() throws Exception {
+        StoredPhoto first = uploadService.uploadImage(photos(1, -1)[0]);
+        StoredPhoto second = uploadService.uploadImage(photos(1, -1)[0]);
+
+        assertEquals(1, cloudinary.uploadCalls.get());
+        assertEquals(first, second);
+        assertTrue(first.getContentHash().matches("[0-9a-f]{64}"), first.getContentHash());
+
+        uploadService.releaseImagesQuietly(new StoredPhoto[]{first});
+        assertTrue(assets.released.isEmpty());
+        uploadService.releaseImagesQuietly(new StoredPhoto[]{second});
+        assertEquals(Set.of(first.getPhotoUrl()), assets.released);
+
+        // Uploaded again while the old copy awaits deletion: a new copy under a new name, out of that deletion's reach
+        StoredPhoto third = uploadService.uploadImage(photos(1, -1)[0]);
+        assertEquals(2, cloudinary.uploadCalls.get());
+        assertEquals(first.getContentHash(), third.getContentHash());
+        assertNotEquals(first.getPhotoUrl(), third.getPhotoUrl());
+    }
+
+    @Test
+    void deleteAll_DeletesThroughTheAdminApiAHundredAtATime() throws Exception {
+        List<String> urls = IntStream.range(0, 250).mapToObj(i -> secureUrl("studentbnb/listings/photo-" + i)).toList();
+
+        new CloudinaryPhotoStorage(cloudinary).deleteAll(urls);
+
+        assertEquals(3, cloudinary.bulkDeleteCalls.get());
+        assertEquals(250, cloudinary.destroyed.size());
+        assertTrue(cloudinary.destroyed.contains("studentbnb/listings/photo-249"));
+    }
+
+    @Test
+    void contentHash_IsTheSha256OfTheFile() throws Exception {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            PhotoUploadService.contentHash(file("text/plain", "abc".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void sniffImageFormat_ReadsMagicBytesNotTheContentType() throws Exception {
+        assertEquals("jpeg", PhotoUploadService.sniffImageFormat(file("text/plain", JPEG_MAGIC)));
+        assertEquals("png", PhotoUploadService.sniffImageFormat(file("image/png",
+            new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0})));
+        assertEquals("gif", PhotoUploadService.sniffImageFormat(file("image/gif", "GIF89a....".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("webp", PhotoUploadService.sniffImageFormat(file("image/webp", "RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII))));
+        assertNull(PhotoUploadService.sniffImageFormat(file("image/jpeg", "<html></html>".getBytes(StandardCharsets.US_ASCII))));
+        assertNull(PhotoUploadService.sniffImageFormat(file("image/webp", "RIFF".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    private static String secureUrl(String publicId) {
+        return "https://res.cloudinary.com/demo/image/upload/v1/" + publicId + ".jpg";
+    }
+
+    private static MultipartFile file(String contentType, byte[] content) {
+        return new MockMultipartFile("file", "photo", contentType, content);
+    }
+
+    // Photo i is a JPEG named "photo-i"; the one at failAt is refused by the stub
+    private static MultipartFile[] photos(int count, int failAt) {
+        MultipartFile[] files = new MultipartFile[count];
+        for (int i = 0; i < count; i++) {
+            String name = i == failAt ? "fail" : "photo-" + i;
+            files[i] = new MockMultipartFile("files", "photo-" + i + ".jpg", "image/jpeg", jpeg(name));
+        }
+        return files;
+    }
+
+    private static byte[] jpeg(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[JPEG_MAGIC.length + nameBytes.length];
+        System.arraycopy(JPEG_MAGIC, 0, content, 0, JPEG_MAGIC.length);
+        System.arraycopy(nameBytes, 0, content, JPEG_MAGIC.length, nameBytes.length);
+        return content;
+    }
+
+    // A JPEG of size bytes on disk, padded with zeros after its name
+    private static MultipartFile diskPhoto(Path dir, String name, int size) throws IOException {
+        Path path = dir.resolve(name + ".part");
+        try (OutputStream out = Files.newOutputStream(path)) {
+            byte[] head = jpeg(name);
+            out.write(head);
+            byte[] zeros = new byte[64 * 1024];
+            for (int written = head.length; written < size; written += zeros.length) {
+                out.write(zeros, 0, Math.min(zeros.length, size - written));
+            }
+        }
+        return new DiskMultipartFile(path, size);
+    }
+
+    // Stands in for a container part spooled to disk; reading it whole is a test failure
+    private static class DiskMultipartFile extends MockMultipartFile {
+
+        private final Path path;
+        private final long size;
+
+        DiskMultipartFile(Path path, long size) {
+            super("file", path.getFileName().toString(), "image/jpeg", new byte[0]);
+            this.path = path;
+            this.size = size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new AssertionError("upload read the whole file into the heap");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Reference counts in a map; images whose last reference is released are collected instead of queued
+    private static class InMemoryPhotoAssets extends PhotoAssetService {
+
+        private final Map<String, StoredPhoto> photos = new HashMap<>();
+        private final Map<String, Integer> references = new HashMap<>();
+        final Set<String> released = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public synchronized Optional<StoredPhoto> acquire(String contentHash) {
+            if (!photos.containsKey(contentHash)) {
+                return Optional.empty();
+            }
+            references.merge(contentHash, 1, Integer::sum);
+            return Optional.of(photos.get(contentHash));
+        }
+
+        @Override
+        public synchronized StoredPhoto register(StoredPhoto stored, String storageName) {
+            if (photos.putIfAbsent(stored.getContentHash(), stored) != null) {
+                released.add(stored.getPhotoUrl());
+            }
+            references.merge(stored.getContentHash(), 1, Integer::sum);
+            return photos.get(stored.getContentHash());
+        }
+
+        @Override
+        public void discard(StoredPhoto stored) {
+            released.add(stored.getPhotoUrl());
+        }
+
+        @Override
+        public synchronized void release(String contentHash) {
+            if (references.merge(contentHash, -1, Integer::sum) > 0) {
+                return;
+            }
+            references.remove(contentHash);
+            released.add(photos.remove(contentHash).getPhotoUrl());
+        }
+    }
+
+    // Uploads stream the file like the HTTP client does and sleep like a network round trip; the text
+    // following the JPEG magic bytes is read back, and images reading "fail" are refused. Deletions are recorded
+    private static class StubCloudinary extends Cloudinary {
+
+        StubCloudinary() {
+            super(ObjectUtils.asMap("cloud_name", "demo", "secure", true));
+        }
+
+        final AtomicInteger uploadCalls = new AtomicInteger();
+        final AtomicInteger bulkDeleteCalls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final Set<String> uploaded = ConcurrentHashMap.newKeySet();
+        final Set<String> destroyed = ConcurrentHashMap.newKeySet();
+        volatile boolean sleep = true;
+        volatile long lastUploadBytes;
+
+        @Override
+        public Uploader uploader() {
+            return new Uploader(this, new UploaderStrategy()) {
+                @Override
+                public Map upload(Object file, Map options) throws IOException {
+                    uploadCalls.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    String name;
+                    try {
+                        name = stream((File) file);
+                        if (sleep) {
+                            Thread.sleep(UPLOAD_MILLIS);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted", e);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    if (name.equals("fail")) {
+                        throw new IOException("Upload rejected");
+                    }
+                    // Like an account in fixed-folder mode, which puts "folder" in front of the requested ID
+                    String publicId = options.containsKey("folder")
+                        ? options.get("folder") + "/" + options.get("public_id")
+                        : (String) options.get("public_id");
+                    uploaded.add(publicId);
+                    return Map.of("public_id", publicId, "secure_url", secureUrl(publicId));
+                }
+
+                // Read through a fixed buffer, keeping only the name from the first chunk
+                private String stream(File file) throws IOException {
+                    byte[] buffer = new byte[8192];
+                    String name = null;
+                    long total = 0;
+                    try (InputStream in = Files.newInputStream(file.toPath())) {
+                        for (int read; (read = in.read(buffer)) > 0; total += read) {
+                            if (name == null) {
+                                int end = JPEG_MAGIC.length;
+                                while (end < read && buffer[end] != 0) {
+                                    end++;
+                                }
+                                name = new String(buffer, JPEG_MAGIC.length, end - JPEG_MAGIC.length, StandardCharsets.US_ASCII);
+                            }
+                        }
+                    }
+                    lastUploadBytes = total;
+                    return name;
+                }
+
+                @Override
+                public Map destroy(String publicId, Map options) {
+                    destroyed.add(publicId);
+                    return Map.of("result", "ok");
+                }
+            };
+        }
+
+        @Override
+        public Api api() {
+            return new Api(this, new ApiStrategy()) {
+                @Override
+                public ApiResponse deleteResources(Iterable<String> publicIds, Map options) {
+                    assertTrue(((List<String>) publicIds).size() <= 100);
+                    bulkDeleteCalls.incrementAndGet();
+                    publicIds.forEach(destroyed::add);
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.studentbnb.listing_service.service;
+
+import com.studentbnb.listing_service.cache.ListingResponseCache;
+import com.studentbnb.listing_service.dto.ListingResponse;
+import com.studentbnb.listing_service.entity.*;
+import com.studentbnb.listing_service.event.ListingChangedEvent;
+import com.studentbnb.listing_service.event.ListingEngagementEvent;
+import com.studentbnb.listing_service.repository.ListingRepository;
+import com.studentbnb.listing_service.repository.SequenceIdAllocator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"app.trending.half-life=1h", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ActiveProfiles("test")
+@Import({TrendingService.class, ListingService.class, ListingHydrationService.class, PhotoAssetService.class, ListingResponseCache.class,
+    ListingViewTracker.class, ListingCounterService.class, SequenceIdAllocator.class})
+class TrendingServiceTest {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    private Long stale;
+    private Long fresh;
+    private Long cambridge;
+
+    @BeforeEach
+    void setUp() {
+        stale = persistListing("Boston", 500);
+        fresh = persistListing("Boston", 0);
+        cambridge = persistListing("Cambridge", 0);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getTrendingListings_RejectsInvalidPaging() {
+        assertThrows(IllegalArgumentException.class, () -> trendingService.getTrendingListings(null, null, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> trendingService.getTrendingListings(null, null, 0, 0));
+    }
+
+    @Test
+    void warmUp_ReplaysRecentEngagementWithDecay() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 6; i++) {
+            insertView(stale, now.minusHours(30));
+        }
+        for (int i = 0; i < 2; i++) {
+            insertView(fresh, now.minusMinutes(20));
+        }
+        jdbcTemplate.update("INSERT INTO listing_favorites (id, listing_id, user_id, created_at) VALUES (NEXT VALUE FOR listing_favorites_seq, ?, ?, ?)",
+            cambridge, 9L, Timestamp.valueOf(now.minusMinutes(10)));
+
+        trendingService.warmUp();
+
+        assertTrue(trendingService.isReady());
+        assertEquals(List.of(cambridge, fresh, stale), ids(trendingService.getTrendingListings(null, null, 0, 10).getContent()));
+        assertEquals(List.of(fresh, stale), ids(trendingService.getTrendingListings("boston", null, 0, 10).getContent()));
+        assertEquals(2, trendingService.getTrendingListings(null, null, 1, 1).getTotalElements() - 1);
+    }
+
+    @Test
+    void warmUp_LeavesEngagementFromAfterItStartedToTheLiveEvents() {
+        // Written for a view that happened during the rebuild, whose live event counts it already
+        insertView(fresh, LocalDateTime.now().plusSeconds(30));
+
+        trendingService.warmUp();
+
+        assertEquals(0.0, trendingService.getScore(fresh), 0.001);
+    }
+
+    @Test
+    void warmUp_KeepsListingsDeletedWhileItRuns() {
+        // The listing goes away right after the batch holding it was read
+        boolean[] deleted = {false};
+        ListingRepository interrupted = (ListingRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{ListingRepository.class}, (proxy, method, args) -> {
+                Object result = method.invoke(listingRepository, args);
+                if (method.getName().equals("findByStatusAndIdGreaterThanOrderByIdAsc") && !deleted[0]) {
+                    deleted[0] = true;
+                    jdbcTemplate.update("DELETE FROM listings WHERE id = ?", stale);
+                    // Read afresh from here on, as warm-up outside a test transaction would
+                    entityManager.clear();
+                    trendingService.onListingChanged(new ListingChangedEvent(stale, ListingChangedEvent.ChangeType.DELETED));
+                }
+                return result;
+            });
+
+        ReflectionTestUtils.setField(trendingService, "listingRepository", interrupted);
+        try {
+            trendingService.warmUp();
+        } finally {
+            ReflectionTestUtils.setField(trendingService, "listingRepository", listingRepository);
+        }
+        trendingService.onEngagement(new ListingEngagementEvent(
+            stale, ListingEngagementEvent.EngagementType.VIEW, Instant.now()));
+
+        assertTrue(deleted[0]);
+        assertEquals(0.0, trendingService.getScore(stale), 0.001);
+    }
+
+    @Test
+    void onEngagement_MovesListingUp() {
+        trendingService.warmUp();
+        assertTrue(trendingService.getTrendingListings(null, null, 0, 10).getContent().isEmpty());
+
+        trendingService.onEngagement(new ListingEngagementEvent(
+            stale, ListingEngagementEvent.EngagementType.INQUIRY, Instant.now()));
+        trendingService.onEngagement(new ListingEngagementEvent(
+            fresh, ListingEngagementEvent.EngagementType.VIEW, Instant.now()));
+
+        assertEquals(List.of(stale, fresh), ids(trendingService.getTrendingListings(null, null, 0, 10).getContent()));
+        assertEquals(10.0, trendingService.getScore(stale), 0.01);
+    }
+
+    @Test
+    void getTrendingListings_PagesOnlyListingsThatCanBeShown() {
+        trendingService.warmUp();
+        trendingService.onEngagement(new ListingEngagementEvent(
+            stale, ListingEngagementEvent.EngagementType.INQUIRY, Instant.now()));
+        trendingService.onEngagement(new ListingEngagementEvent(
+            cambridge, ListingEngagementEvent.EngagementType.FAVORITE, Instant.now()));
+        trendingService.onEngagement(new ListingEngagementEvent(
+            fresh, ListingEngagementEvent.EngagementType.VIEW, Instant.now()));
+        // Still ranked first, as its change has not reached the scores
+        jdbcTemplate.update("UPDATE listings SET status = 'INACTIVE' WHERE id = ?", stale);
+        entityManager.clear();
+
+        Page<ListingResponse> first = trendingService.getTrendingListings(null, null, 0, 1);
+        Page<ListingResponse> second = trendingService.getTrendingListings(null, null, 1, 1);
+
+        assertEquals(List.of(cambridge), ids(first.getContent()));
+        assertEquals(List.of(fresh), ids(second.getContent()));
+        assertEquals(2, first.getTotalElements());
+    }
+
+    @Test
+    void getTrendingListings_LoadsUncachedListingsOfAPageTogether() {
+        trendingService.warmUp();
+        for (Long id : List.of(stale, fresh, cambridge)) {
+            trendingService.onEngagement(new ListingEngagementEvent(
+                id, ListingEngagementEvent.EngagementType.VIEW, Instant.now()));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(3, trendingService.getTrendingListings(null, null, 0, 10).getNumberOfElements());
+        // Listings, then photos and amenities for all of them
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(3, trendingService.getTrendingListings(null, null, 0, 10).getNumberOfElements());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTrendingListings_FallsBackToTheMostViewedOfTheGroupUntilWarm() {
+        ReflectionTestUtils.setField(trendingService, "ready", false);
+        jdbcTemplate.update("UPDATE listings SET nearest_university = 'Boston University' WHERE id IN (?, ?)", fresh, cambridge);
+        jdbcTemplate.update("UPDATE listings SET view_count = 7 WHERE id = ?", cambridge);
+
+        assertEquals(List.of(stale, fresh), ids(trendingService.getTrendingListings("boston", null, 0, 10).getContent()));
+        assertEquals(List.of(cambridge, fresh), ids(trendingService.getTrendingListings(null, " boston university ", 0, 10).getContent()));
+        assertEquals(List.of(fresh), ids(trendingService.getTrendingListings("Boston", "Boston University", 0, 10).getContent()));
+        assertEquals(List.of(stale, cambridge, fresh), ids(trendingService.getTrendingListings(null, "", 0, 10).getContent()));
+    }
+
+    private void insertView(Long listingId, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO listing_views (id, listing_id, ip_address, viewed_at) VALUES (NEXT VALUE FOR listing_views_seq, ?, ?, ?)",
+            listingId, "10.0.0.1", Timestamp.valueOf(at));
+    }
+
+    private List<Long> ids(List<ListingResponse> listings) {
+        return listings.stream().map(ListingResponse::getId).toList();
+    }
+
+    private Long persistListing(String city, int viewCount) {
+        Listing listing = new Listing();
+        listing.setLandlordId(1L);
+        listing.setTitle("Room near campus with desk");
+        listing.setDescription("A bright and quiet room close to campus with plenty of natural light.");
+        listing.setRent(new BigDecimal("950.00"));
+        listing.setSecurityDeposit(new BigDecimal("500.00"));
+        listing.setBedrooms(1);
+        listing.setBathrooms(1);
+        listing.setPropertyType(PropertyType.APARTMENT);
+        listing.setAddress("1 Main Street");
+        listing.setCity(city);
+        listing.setState("MA");
+        listing.setZipCode("02115");
+        listing.setLeaseType(LeaseType.ACADEMIC_YEAR);
+        listing.setStatus(ListingStatus.ACTIVE);
+        listing.setViewCount(viewCount);
+        entityManager.persist(listing);
+        return listing.getId();
+    }
+}
@@ -0,0 +1,136 @@
+package com.studentbnb.listing_service.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPhotoStorageTest {
+
+    private static final String BASE_URL = "https://photos.example.com/uploads";
+
+    @TempDir
+    Path tempDir;
+
+    private LocalPhotoStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalPhotoStorage();
+        ReflectionTestUtils.setField(storage, "directory", tempDir.resolve("uploads").toString());
+        ReflectionTestUtils.setField(storage, "baseUrl", BASE_URL);
+        ReflectionTestUtils.setField(storage, "imageWorkers", 2);
+        storage.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.shutdown();
+    }
+
+    @Test
+    void store_RendersEveryVariantAtItsSize() throws Exception {
+        StoredPhoto stored = storage.store(image("wide.png", 2400, 1200, "png"), "png", hash("wide"));
+
+        assertEquals(BASE_URL + "/listings/" + hash("wide") + "_full.jpg", stored.getPhotoUrl());
+        assertEquals(stored.getPhotoUrl().replace("_full.jpg", "_card.jpg"), stored.getCardUrl());
+        assertEquals(stored.getPhotoUrl().replace("_full.jpg", "_thumb.jpg"), stored.getThumbnailUrl());
+
+        // Full size keeps the 2:1 aspect ratio; card and thumbnail are cropped to fill 4:3
+        assertSize(stored.getPhotoUrl(), 1200, 600);
+        assertSize(stored.getCardUrl(), 640, 480);
+        assertSize(stored.getThumbnailUrl(), 320, 240);
+        assertTrue(Files.size(file(stored.getThumbnailUrl())) * 4 < Files.size(file(stored.getPhotoUrl())));
+    }
+
+    @Test
+    void store_NeverEnlargesSmallImages() throws Exception {
+        StoredPhoto stored = storage.store(image("small.jpg", 400, 200, "jpg"), "jpeg", hash("small"));
+
+        assertSize(stored.getPhotoUrl(), 400, 200);
+        assertSize(stored.getCardUrl(), 400, 200);
+        assertSize(stored.getThumbnailUrl(), 320, 200);
+    }
+
+    @Test
+    void store_RejectsImagesOverThePixelLimitFromTheirHeader() throws Exception {
+        // 8000 x 6000 = 48 megapixels, stored as a tiny one-bit PNG
+        BufferedImage huge = new BufferedImage(8000, 6000, BufferedImage.TYPE_BYTE_BINARY);
+        File file = tempDir.resolve("huge.png").toFile();
+        ImageIO.write(huge, "png", file);
+
+        assertThrows(IllegalArgumentException.class, () -> storage.store(file, "png", hash("huge")));
+        assertThrows(IllegalArgumentException.class, () -> storage.store(write("notes.txt", "not an image"), "jpeg", hash("notes")));
+        try (Stream<Path> files = Files.list(tempDir.resolve("uploads/listings"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void delete_RemovesEveryVariantOfOneCopyAndIgnoresForeignUrls() throws Exception {
+        // Two copies of one image, as when it is uploaded again while the first awaits deletion
+        StoredPhoto kept = storage.store(image("kept.png", 800, 600, "png"), "png", hash("same") + "-0000000000000002");
+        StoredPhoto deleted = storage.store(image("deleted.png", 800, 600, "png"), "png", hash("same") + "-0000000000000001");
+
+        storage.delete(deleted.getPhotoUrl());
+        storage.delete(BASE_URL + "/listings/../../secrets_full.jpg");
+        storage.delete("https://elsewhere.example.com/photo.jpg");
+
+        assertFalse(Files.exists(file(deleted.getPhotoUrl())));
+        assertFalse(Files.exists(file(deleted.getCardUrl())));
+        assertFalse(Files.exists(file(deleted.getThumbnailUrl())));
+        assertTrue(Files.exists(file(kept.getPhotoUrl())));
+        assertTrue(Files.exists(file(kept.getThumbnailUrl())));
+    }
+
+    // Stands in for the SHA-256 the upload service computes
+    private static String hash(String name) {
+        return String.format("%064x", new BigInteger(1, name.getBytes()));
+    }
+
+    private void assertSize(String url, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file(url).toFile());
+        assertEquals(width, image.getWidth(), url);
+        assertEquals(height, image.getHeight(), url);
+    }
+
+    private Path file(String url) {
+        return tempDir.resolve("uploads/listings").resolve(url.substring(url.lastIndexOf('/') + 1));
+    }
+
+    // A gradient, so the encoded sizes reflect the pixel counts
+    private File image(String name, int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int x = 0; x < width; x += 8) {
+            graphics.setColor(new Color((x * 255 / width), 120, 255 - (x * 255 / width)));
+            graphics.fillRect(x, 0, 8, height);
+        }
+        graphics.setColor(Color.WHITE);
+        for (int y = 0; y < height; y += 16) {
+            graphics.drawLine(0, y, width, y + 40);
+        }
+        graphics.dispose();
+        File file = tempDir.resolve(name).toFile();
+        ImageIO.write(image, format, file);
+        return file;
+    }
+
+    private File write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+}
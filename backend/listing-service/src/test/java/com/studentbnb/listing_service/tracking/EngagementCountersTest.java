@@ -0,0 +1,74 @@
+package com.studentbnb.listing_service.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngagementCountersTest {
+
+    @Test
+    void drain_ReturnsNonZeroDeltasAndResets() {
+        EngagementCounters counters = new EngagementCounters();
+        counters.addViews(1L, 3);
+        counters.addFavorites(1L, 1);
+        counters.addFavorites(2L, 1);
+        counters.addFavorites(2L, -1);
+
+        List<EngagementCounters.Delta> deltas = counters.drain();
+
+        assertEquals(1, deltas.size());
+        assertEquals(1L, deltas.get(0).getListingId());
+        assertEquals(3, deltas.get(0).getViews());
+        assertEquals(1, deltas.get(0).getFavorites());
+        assertTrue(counters.drain().isEmpty());
+        assertEquals(0, counters.pendingViews(1L));
+    }
+
+    @Test
+    void restore_PutsFailedDeltasBack() {
+        EngagementCounters counters = new EngagementCounters();
+        counters.addViews(1L, 2);
+        List<EngagementCounters.Delta> deltas = counters.drain();
+        counters.addViews(1L, 1);
+
+        counters.restore(deltas);
+
+        assertEquals(3, counters.pendingViews(1L));
+    }
+
+    @Test
+    void drain_LosesNothingUnderConcurrentIncrements() throws Exception {
+        EngagementCounters counters = new EngagementCounters();
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counters.addViews((long) (i % 8), 1);
+                }
+                done.countDown();
+            });
+        }
+
+        long drained = 0;
+        AtomicBoolean finished = new AtomicBoolean();
+        while (!finished.get()) {
+            finished.set(done.await(1, TimeUnit.MILLISECONDS));
+            for (EngagementCounters.Delta delta : counters.drain()) {
+                drained += delta.getViews();
+            }
+        }
+        executor.shutdown();
+
+        assertEquals((long) threads * perThread, drained);
+    }
+}
@@ -0,0 +1,104 @@
+package com.studentbnb.listing_service.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowViewFilterTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final SlidingWindowViewFilter filter =
+        new SlidingWindowViewFilter(Duration.ofHours(1), 6, 100_000, 0.01, clock);
+
+    @Test
+    void firstView_SuppressesRepeatsFromSameViewer() {
+        assertTrue(filter.firstView(1L, 42L, "10.0.0.1"));
+        assertFalse(filter.firstView(1L, 42L, "10.0.0.2"));
+
+        // Anonymous viewers are keyed by IP address
+        assertTrue(filter.firstView(1L, null, "10.0.0.1"));
+        assertFalse(filter.firstView(1L, null, "10.0.0.1"));
+
+        // Other listings and other viewers are independent
+        assertTrue(filter.firstView(2L, 42L, "10.0.0.1"));
+        assertTrue(filter.firstView(1L, 43L, "10.0.0.1"));
+    }
+
+    @Test
+    void firstView_RemembersForFullWindowThenForgets() {
+        assertTrue(filter.firstView(1L, 42L, null));
+
+        advance(Duration.ofMinutes(59));
+        assertFalse(filter.firstView(1L, 42L, null));
+
+        // The repeat above went to a newer bucket, so wait a full window past it
+        advance(Duration.ofMinutes(71));
+        assertTrue(filter.firstView(1L, 42L, null));
+    }
+
+    @Test
+    void firstView_SurvivesLongIdleGaps() {
+        assertTrue(filter.firstView(1L, 42L, null));
+
+        advance(Duration.ofDays(3));
+        assertTrue(filter.firstView(1L, 42L, null));
+        assertFalse(filter.firstView(1L, 42L, null));
+    }
+
+    @Test
+    void falsePositiveRate_StaysNearTarget() {
+        // A full window of the expected traffic, spread evenly across it
+        int views = 100_000;
+        for (long user = 0; user < views; user++) {
+            if (user > 0 && user % (views / 60) == 0) {
+                advance(Duration.ofMinutes(1));
+            }
+            filter.firstView(user % 500, user, null);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (long user = 1_000_000; user < 1_000_000 + probes; user++) {
+            if (filter.seenRecently(user % 500, user, null)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+
+    private void advance(Duration duration) {
+        clock.advance(duration);
+        filter.tick();
+    }
+
+    static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-09-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.studentbnb.listing_service.tracking;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lookup cost and false positive rate of the view dedupe filter at the
+ * production sizing of 10M views per hour. Excluded from the default build;
+ * run with: mvn test -Pbenchmark -Dtest=ViewDedupeBenchmarkTest
+ */
+@Tag("benchmark")
+class ViewDedupeBenchmarkTest {
+
+    private static final int VIEWS_PER_HOUR = 10_000_000;
+    private static final int PROBES = 1_000_000;
+    private static final int LISTINGS = 50_000;
+
+    @Test
+    void tenMillionViewsPerHour() {
+        SlidingWindowViewFilterTest.MutableClock clock = new SlidingWindowViewFilterTest.MutableClock();
+        SlidingWindowViewFilter filter =
+            new SlidingWindowViewFilter(Duration.ofHours(1), 6, VIEWS_PER_HOUR, 0.01, clock);
+
+        // Warm up the JIT on a throwaway key range
+        for (long i = 0; i < 1_000_000; i++) {
+            filter.seenRecently(i % LISTINGS, -i, null);
+        }
+
+        // One hour of distinct signed-in viewers, advancing the clock a minute at a time
+        long started = System.nanoTime();
+        for (long i = 0; i < VIEWS_PER_HOUR; i++) {
+            if (i > 0 && i % (VIEWS_PER_HOUR / 60) == 0) {
+                clock.advance(Duration.ofMinutes(1));
+                filter.tick();
+            }
+            filter.firstView(i % LISTINGS, i, null);
+        }
+        double insertNanos = (double) (System.nanoTime() - started) / VIEWS_PER_HOUR;
+
+        // Repeats from the last hour must always be caught
+        int missedRepeats = 0;
+        for (long i = VIEWS_PER_HOUR - PROBES; i < VIEWS_PER_HOUR; i++) {
+            if (!filter.seenRecently(i % LISTINGS, i, null)) {
+                missedRepeats++;
+            }
+        }
+
+        // Viewers never seen before measure the false positive rate
+        int falsePositives = 0;
+        started = System.nanoTime();
+        for (long i = VIEWS_PER_HOUR; i < VIEWS_PER_HOUR + PROBES; i++) {
+            if (filter.seenRecently(i % LISTINGS, i, null)) {
+                falsePositives++;
+            }
+        }
+        double lookupNanos = (double) (System.nanoTime() - started) / PROBES;
+        double falsePositiveRate = (double) falsePositives / PROBES;
+
+        System.out.printf("View dedupe @ %,d views/hour: %.0f ns/firstView, %.0f ns/lookup, "
+                + "false positive rate %.4f%%, memory %,d KB%n",
+            VIEWS_PER_HOUR, insertNanos, lookupNanos, falsePositiveRate * 100, filter.sizeInBytes() / 1024);
+
+        assertEquals(0, missedRepeats);
+        assertTrue(falsePositiveRate < 0.015, "false positive rate " + falsePositiveRate);
+    }
+}
@@ -0,0 +1,89 @@
+package com.studentbnb.listing_service.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewEventQueueTest {
+
+    @Test
+    void dropNewest_RejectsWhenFull() {
+        ViewEventQueue queue = new ViewEventQueue(3, OverflowPolicy.DROP_NEWEST);
+        for (long id = 1; id <= 5; id++) {
+            queue.offer(view(id));
+        }
+
+        assertEquals(3, queue.size());
+        assertTrue(queue.isFull());
+        assertEquals(2, queue.droppedCount());
+        assertEquals(List.of(1L, 2L, 3L), drainIds(queue, 10));
+        assertEquals(0, queue.size());
+        assertFalse(queue.isFull());
+    }
+
+    @Test
+    void dropOldest_KeepsMostRecentEvents() {
+        ViewEventQueue queue = new ViewEventQueue(3, OverflowPolicy.DROP_OLDEST);
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(queue.offer(view(id)));
+        }
+
+        assertFalse(queue.isFull());
+        assertEquals(2, queue.droppedCount());
+        assertEquals(List.of(3L, 4L, 5L), drainIds(queue, 10));
+    }
+
+    @Test
+    void drainTo_RespectsBatchLimit() {
+        ViewEventQueue queue = new ViewEventQueue(10, OverflowPolicy.DROP_NEWEST);
+        for (long id = 1; id <= 5; id++) {
+            queue.offer(view(id));
+        }
+
+        assertEquals(List.of(1L, 2L), drainIds(queue, 2));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void concurrentProducers_NeverLoseAcceptedEvents() throws Exception {
+        ViewEventQueue queue = new ViewEventQueue(1_000_000, OverflowPolicy.DROP_NEWEST);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    queue.offer(view(i));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, queue.size());
+        assertEquals(threads * perThread, drainIds(queue, Integer.MAX_VALUE).size());
+    }
+
+    private List<Long> drainIds(ViewEventQueue queue, int max) {
+        List<ViewEvent> sink = new ArrayList<>();
+        queue.drainTo(sink, max);
+        return sink.stream().map(ViewEvent::getListingId).toList();
+    }
+
+    private ViewEvent view(long listingId) {
+        return new ViewEvent(listingId, null, "127.0.0.1", "JUnit", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,112 @@
+package com.studentbnb.listing_service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingScoresTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void top_RanksByDecayedScore() {
+        TrendingScores scores = new TrendingScores(HOUR, 10, T0);
+        scores.put(1L, "Boston", null, true);
+        scores.put(2L, "Boston", null, true);
+
+        scores.record(1L, 4, T0);
+        assertEquals(List.of(1L), ids(scores.top(null, null, 10, T0)));
+
+        // One half-life later the old 4 is worth 2, less than a fresh 3
+        scores.record(2L, 3, T0 + HOUR);
+        List<TrendingScores.Scored> top = scores.top(null, null, 10, T0 + HOUR);
+        assertEquals(List.of(2L, 1L), ids(top));
+        assertEquals(3.0, top.get(0).getScore(), 1e-9);
+        assertEquals(2.0, top.get(1).getScore(), 1e-9);
+        assertEquals(1.0, scores.score(1L, T0 + 2 * HOUR), 1e-9);
+    }
+
+    @Test
+    void top_MatchesFullSortUnderRandomEvents() {
+        TrendingScores scores = new TrendingScores(HOUR, 5, T0);
+        for (long id = 1; id <= 50; id++) {
+            scores.put(id, id % 2 == 0 ? "Boston" : "Cambridge", "MIT", true);
+        }
+
+        Random random = new Random(7);
+        long now = T0;
+        for (int i = 0; i < 5_000; i++) {
+            now += random.nextInt(60_000);
+            scores.record(1L + random.nextInt(50), 1 + random.nextInt(10), now);
+        }
+
+        long at = now;
+        List<Long> expected = new ArrayList<>();
+        for (long id = 2; id <= 50; id += 2) {
+            expected.add(id);
+        }
+        expected.sort(Comparator.comparingDouble((Long id) -> scores.score(id, at)).reversed());
+        assertEquals(expected.subList(0, 5), ids(scores.top("boston", null, 10, at)));
+        assertEquals(5, scores.top(null, "mit", 10, at).size());
+    }
+
+    @Test
+    void put_WithdrawnListingIsReplacedFromItsGroup() {
+        TrendingScores scores = new TrendingScores(HOUR, 2, T0);
+        for (long id = 1; id <= 3; id++) {
+            scores.put(id, "Boston", "Northeastern University", true);
+            scores.record(id, id, T0);
+        }
+        assertEquals(List.of(3L, 2L), ids(scores.top("Boston", null, 10, T0)));
+
+        scores.put(3L, "Cambridge", "MIT", true);
+        assertEquals(List.of(2L, 1L), ids(scores.top("Boston", null, 10, T0)));
+        assertEquals(List.of(3L), ids(scores.top("Cambridge", null, 10, T0)));
+
+        scores.put(2L, "Boston", "Northeastern University", false);
+        scores.remove(1L);
+        assertTrue(scores.top("Boston", null, 10, T0).isEmpty());
+        assertEquals(List.of(3L), ids(scores.top(null, null, 10, T0)));
+    }
+
+    @Test
+    void top_UniversityRankingCanBeNarrowedByCity() {
+        TrendingScores scores = new TrendingScores(HOUR, 10, T0);
+        scores.put(1L, "Boston", "Harvard University", true);
+        scores.put(2L, "Cambridge", "Harvard University", true);
+        scores.record(1L, 2, T0);
+        scores.record(2L, 1, T0);
+
+        assertEquals(List.of(1L, 2L), ids(scores.top(null, "harvard university", 10, T0)));
+        assertEquals(List.of(2L), ids(scores.top("Cambridge", "Harvard University", 10, T0)));
+        assertTrue(scores.top(null, "Tufts", 10, T0).isEmpty());
+    }
+
+    @Test
+    void record_RebasesLongRunningScoresWithoutChangingThem() {
+        TrendingScores scores = new TrendingScores(HOUR, 10, T0);
+        scores.put(1L, null, null, true);
+        scores.put(2L, null, null, true);
+
+        // Far enough out that stored scores would overflow without rebasing
+        long later = T0 + 2_000 * HOUR;
+        scores.record(1L, 1, later);
+        scores.record(2L, 8, later - 2 * HOUR);
+
+        List<TrendingScores.Scored> top = scores.top(null, null, 10, later);
+        assertEquals(List.of(2L, 1L), ids(top));
+        assertEquals(2.0, top.get(0).getScore(), 1e-9);
+        assertEquals(1.0, top.get(1).getScore(), 1e-9);
+    }
+
+    private List<Long> ids(List<TrendingScores.Scored> scored) {
+        return scored.stream().map(TrendingScores.Scored::getListingId).toList();
+    }
+}